@@ -1,9 +1,12 @@
 package com.example.api;
 
+import com.example.common.loadbalancer.LoadBalancerConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
+@Import(LoadBalancerConfig.class)
 public class ApiServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(ApiServiceApplication.class, args);
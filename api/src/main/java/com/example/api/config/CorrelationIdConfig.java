@@ -1,6 +1,11 @@
 package com.example.api.config;
 
+import com.example.common.CorrelationIdConstants;
 import com.example.common.CorrelationIdFilter;
+import com.example.common.CorrelationIdWebFilter;
+import io.micrometer.context.ContextRegistry;
+import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -9,7 +14,29 @@ import org.springframework.context.annotation.Configuration;
 public class CorrelationIdConfig {
 
     @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
     public CorrelationIdFilter correlationIdFilter() {
         return new CorrelationIdFilter();
     }
+
+    // On WebFlux the id lives in the Reactor Context; context-propagation copies it into the MDC around every
+    // operator, so %X{correlationId} keeps working in the logs and in MDC-based code. The reactive profile turns on
+    // that automatic propagation with spring.reactor.context-propagation=auto.
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class ReactiveCorrelationIdConfig {
+
+        ReactiveCorrelationIdConfig() {
+            ContextRegistry.getInstance().registerThreadLocalAccessor(
+                    CorrelationIdConstants.CONTEXT_KEY,
+                    () -> MDC.get(CorrelationIdConstants.MDC_KEY),
+                    correlationId -> MDC.put(CorrelationIdConstants.MDC_KEY, correlationId),
+                    () -> MDC.remove(CorrelationIdConstants.MDC_KEY));
+        }
+
+        @Bean
+        public CorrelationIdWebFilter correlationIdWebFilter() {
+            return new CorrelationIdWebFilter();
+        }
+    }
 }
@@ -1,8 +1,11 @@
 package com.example.api.config;
 
+import com.example.api.products.client.AdaptiveConcurrencyLimiter;
 import com.example.common.CorrelationIdConstants;
+import io.netty.channel.ChannelOption;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,37 +13,73 @@ import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.ClientRequest;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
 
+    // Dedicated pool for product-service traffic; metrics(true) publishes the reactor.netty.connection.provider.*
+    // gauges (active, idle, pending) and the pending-acquire timer through Micrometer.
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider productServiceConnectionProvider(
+            @Value("${product-service.client.max-connections:200}") int maxConnections,
+            @Value("${product-service.client.pending-acquire-max-count:2000}") int pendingAcquireMaxCount,
+            @Value("${product-service.client.pending-acquire-timeout:2s}") Duration pendingAcquireTimeout,
+            @Value("${product-service.client.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${product-service.client.max-life-time:5m}") Duration maxLifeTime,
+            @Value("${product-service.client.evict-in-background:30s}") Duration evictInBackground
+    ) {
+        return ConnectionProvider.builder("product-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictInBackground)
+                .lifo()
+                .metrics(true)
+                .build();
+    }
+
     @Bean
     @LoadBalanced
     public WebClient.Builder webClientBuilder(
-            @Qualifier("correlationIdClientFilter") ExchangeFilterFunction correlationIdClientFilter
+            @Qualifier("correlationIdClientFilter") ExchangeFilterFunction correlationIdClientFilter,
+            ConnectionProvider productServiceConnectionProvider,
+            AdaptiveConcurrencyLimiter productServiceConcurrencyLimiter,
+            @Value("${product-service.client.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${product-service.client.response-timeout:5s}") Duration responseTimeout
     ) {
-        HttpClient httpClient = HttpClient.create()
-                .responseTimeout(Duration.ofSeconds(5));
+        HttpClient httpClient = HttpClient.create(productServiceConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .responseTimeout(responseTimeout);
 
         return WebClient.builder()
                 .clientConnector(new ReactorClientHttpConnector(httpClient))
-                .filter(correlationIdClientFilter);
+                .filter(correlationIdClientFilter)
+                .filter(productServiceConcurrencyLimiter);
     }
 
+    // The id comes from the Reactor Context when api-service runs on WebFlux and from the MDC of the calling
+    // servlet thread otherwise. It replaces whatever the call set itself, which on WebFlux is an empty MDC value.
     @Bean(name = "correlationIdClientFilter")
     public ExchangeFilterFunction correlationIdClientFilter() {
-        return (request, next) -> {
-            String correlationId = MDC.get(CorrelationIdConstants.MDC_KEY);
+        return (request, next) -> Mono.deferContextual(context -> {
+            String correlationId = context.<String>getOrEmpty(CorrelationIdConstants.CONTEXT_KEY)
+                    .orElseGet(() -> MDC.get(CorrelationIdConstants.MDC_KEY));
             if (correlationId != null && !correlationId.isBlank()) {
                 ClientRequest mutated = ClientRequest.from(request)
-                        .header(CorrelationIdConstants.HEADER_NAME, correlationId)
+                        .headers(headers -> headers.set(CorrelationIdConstants.HEADER_NAME, correlationId))
                         .build();
                 return next.exchange(mutated);
             }
             return next.exchange(request);
-        };
+        });
     }
 }
@@ -0,0 +1,60 @@
+package com.example.api.config.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.header.CacheControlServerHttpHeadersWriter;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import reactor.core.publisher.Mono;
+
+// JwtSecurityConfig for spring.main.web-application-type=reactive: the same rules as a WebFlux filter chain, with
+// tokens verified by a non-blocking decoder.
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveJwtSecurityConfig {
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        ServerWebExchangeMatcher productReads = ServerWebExchangeMatchers.pathMatchers(HttpMethod.GET, "/products/**");
+        CacheControlServerHttpHeadersWriter noStore = new CacheControlServerHttpHeadersWriter();
+
+        http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                // Product reads set their own Cache-Control so the gateway can cache them; everything else stays no-store.
+                .headers(headers -> headers
+                        .cache(ServerHttpSecurity.HeaderSpec.CacheSpec::disable)
+                        .writer(exchange -> productReads.matches(exchange)
+                                .flatMap(match -> match.isMatch()
+                                        ? Mono.empty()
+                                        : noStore.writeHttpHeaders(exchange))))
+                .authorizeExchange(auth -> auth
+                        .pathMatchers("/swagger-ui/**", "/swagger-ui.html", "/webjars/swagger-ui/**",
+                                "/v3/api-docs/**").permitAll()
+                        .anyExchange().authenticated())
+                .oauth2ResourceServer(oauth2 -> oauth2.jwt(Customizer.withDefaults()));
+
+        return http.build();
+    }
+
+    @Bean
+    ReactiveJwtDecoder reactiveJwtDecoder() {
+        return NimbusReactiveJwtDecoder.withSecretKey(JwtSecurityConfig.secretKey(jwtSecret)).build();
+    }
+}
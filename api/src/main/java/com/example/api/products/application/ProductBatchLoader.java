@@ -0,0 +1,173 @@
+package com.example.api.products.application;
+
+import com.example.api.products.client.ProductDbClient;
+import com.example.api.products.dto.ProductDto;
+import com.example.common.CorrelationIdConstants;
+import com.example.common.product.dto.VersionedItem;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// DataLoader-style micro-batching: single-product reads arriving within the window (or until max-size of them
+// queued up) are sent to product-service as one GET /products?ids=.. and the results handed back per caller.
+@Slf4j
+@Component
+public class ProductBatchLoader {
+
+    static final String METRIC_NAME = "api.products.batch.size";
+
+    private final ProductDbClient productDbClient;
+    private final boolean enabled;
+    private final Duration window;
+    private final int maxSize;
+    private final Scheduler scheduler;
+    private final DistributionSummary batchSize;
+
+    private final Object lock = new Object();
+    private List<Pending> pending = new ArrayList<>();
+    private Disposable timer;
+
+    @Autowired
+    public ProductBatchLoader(
+            ProductDbClient productDbClient,
+            MeterRegistry meterRegistry,
+            @Value("${product-service.client.batch.enabled:true}") boolean enabled,
+            @Value("${product-service.client.batch.window:2ms}") Duration window,
+            @Value("${product-service.client.batch.max-size:64}") int maxSize
+    ) {
+        this(productDbClient, meterRegistry, enabled, window, maxSize, Schedulers.parallel());
+    }
+
+    ProductBatchLoader(
+            ProductDbClient productDbClient,
+            MeterRegistry meterRegistry,
+            boolean enabled,
+            Duration window,
+            int maxSize,
+            Scheduler scheduler
+    ) {
+        this.productDbClient = productDbClient;
+        this.enabled = enabled;
+        this.window = window;
+        this.maxSize = maxSize;
+        this.scheduler = scheduler;
+        this.batchSize = DistributionSummary.builder(METRIC_NAME)
+                .description("Distinct product ids fetched per multi-get call")
+                .register(meterRegistry);
+    }
+
+    public Mono<ResponseEntity<ProductDto>> load(Long id) {
+        if (!enabled) {
+            return productDbClient.getProductById(id, null);
+        }
+        return Mono.create(sink -> enqueue(new Pending(id, MDC.get(CorrelationIdConstants.MDC_KEY), sink)));
+    }
+
+    private void enqueue(Pending request) {
+        List<Pending> ready = null;
+        synchronized (lock) {
+            pending.add(request);
+            if (pending.size() >= maxSize) {
+                ready = drain();
+            } else if (pending.size() == 1) {
+                timer = scheduler.schedule(this::flush, window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (ready != null) {
+            dispatch(ready);
+        }
+    }
+
+    private void flush() {
+        List<Pending> ready;
+        synchronized (lock) {
+            ready = drain();
+        }
+        if (!ready.isEmpty()) {
+            dispatch(ready);
+        }
+    }
+
+    private List<Pending> drain() {
+        if (timer != null) {
+            timer.dispose();
+            timer = null;
+        }
+        List<Pending> ready = pending;
+        pending = new ArrayList<>();
+        return ready;
+    }
+
+    private void dispatch(List<Pending> batch) {
+        List<Long> ids = batch.stream().map(Pending::id).distinct().toList();
+        batchSize.record(ids.size());
+
+        // The shared call is issued on behalf of the first caller, so it carries that caller's correlation id.
+        // The batch may be dispatched on a caller's thread, so its own MDC value is put back afterwards.
+        String previous = MDC.get(CorrelationIdConstants.MDC_KEY);
+        Mono<List<VersionedItem<ProductDto>>> call;
+        try {
+            setCorrelationId(batch.getFirst().correlationId());
+            call = productDbClient.getProductsByIds(ids);
+        } catch (RuntimeException e) {
+            call = Mono.error(e);
+        } finally {
+            setCorrelationId(previous);
+        }
+
+        call.defaultIfEmpty(List.of()).subscribe(
+                items -> {
+                    Map<Long, VersionedItem<ProductDto>> byId = items.stream()
+                            .collect(Collectors.toMap(item -> item.item().getId(), Function.identity(), (a, b) -> a));
+                    batch.forEach(request -> complete(request, byId.get(request.id())));
+                },
+                error -> {
+                    log.warn("Multi-get of {} products failed: {}", ids.size(), error.toString());
+                    batch.forEach(request -> request.sink().error(error));
+                });
+    }
+
+    private static void complete(Pending request, VersionedItem<ProductDto> found) {
+        if (found == null) {
+            request.sink().error(new ResponseStatusException(
+                    HttpStatus.NOT_FOUND, "Product with id " + request.id() + " not found."));
+            return;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (found.etag() != null) {
+            response.eTag(found.etag());
+        }
+        request.sink().success(response.body(found.item()));
+    }
+
+    private static void setCorrelationId(String correlationId) {
+        if (correlationId != null) {
+            MDC.put(CorrelationIdConstants.MDC_KEY, correlationId);
+        } else {
+            MDC.remove(CorrelationIdConstants.MDC_KEY);
+        }
+    }
+
+    private record Pending(Long id, String correlationId, MonoSink<ResponseEntity<ProductDto>> sink) {
+    }
+}
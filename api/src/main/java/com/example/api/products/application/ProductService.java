@@ -3,40 +3,100 @@ package com.example.api.products.application;
 import com.example.api.products.client.ProductDbClient;
 import com.example.api.products.dto.ProductDto;
 import com.example.api.products.dto.ProductSearchCriteria;
+import com.example.common.product.dto.BatchResponse;
+import com.example.common.product.dto.CursorPageResponse;
 import com.example.common.product.dto.PageResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Arrays;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
     private final ProductDbClient productDbClient;
+    private final RequestCoalescer requestCoalescer;
+    private final ProductBatchLoader productBatchLoader;
 
-    public Mono<PageResponse<ProductDto>> getProducts(ProductSearchCriteria criteria) {
-        return productDbClient.getProducts(
-                criteria.page(),
-                criteria.size(),
-                criteria.sort(),
-                criteria.name(),
-                criteria.category()
-        );
+    public Mono<ResponseEntity<PageResponse<ProductDto>>> getProducts(ProductSearchCriteria criteria, String ifNoneMatch) {
+        return requestCoalescer.coalesce("search", Arrays.asList(criteria.coalescingKey(), ifNoneMatch),
+                () -> fetchProducts(criteria, ifNoneMatch));
     }
 
-    public Mono<ProductDto> getProduct(Long id) {
-        return productDbClient.getProductById(id);
+    public Mono<ResponseEntity<CursorPageResponse<ProductDto>>> getProductsAfter(
+            ProductSearchCriteria criteria, String after, String ifNoneMatch) {
+        return requestCoalescer.coalesce("scroll", Arrays.asList(criteria.coalescingKey(), after, ifNoneMatch),
+                () -> productDbClient.getProductsAfter(
+                        after,
+                        criteria.size(),
+                        criteria.sort(),
+                        criteria.name(),
+                        criteria.category(),
+                        ifNoneMatch
+                ));
+    }
+
+    public Flux<DataBuffer> export() {
+        return productDbClient.exportProducts();
+    }
+
+    // Revalidations (If-None-Match) go straight to product-service, which answers them with a 304;
+    // plain reads are micro-batched into multi-gets.
+    public Mono<ResponseEntity<ProductDto>> getProduct(Long id, String ifNoneMatch) {
+        return requestCoalescer.coalesce("get", Arrays.asList(id, ifNoneMatch),
+                () -> ifNoneMatch == null || ifNoneMatch.isBlank()
+                        ? productBatchLoader.load(id)
+                        : productDbClient.getProductById(id, ifNoneMatch));
     }
 
     public Mono<ProductDto> create(ProductDto dto) {
         return productDbClient.createProduct(dto);
     }
 
-    public Mono<ProductDto> update(Long id, ProductDto dto) {
-        return productDbClient.updateProduct(id, dto);
+    public Mono<ResponseEntity<ProductDto>> update(Long id, ProductDto dto, String ifMatch) {
+        return productDbClient.updateProduct(id, dto, ifMatch);
+    }
+
+    public Mono<BatchResponse<ProductDto>> createAll(List<ProductDto> dtos) {
+        return productDbClient.createProducts(dtos);
+    }
+
+    public Mono<BatchResponse<ProductDto>> updateAll(List<ProductDto> dtos) {
+        return productDbClient.updateProducts(dtos);
+    }
+
+    public Mono<BatchResponse<ProductDto>> deleteAll(List<Long> ids) {
+        return productDbClient.deleteProducts(ids);
     }
 
     public Mono<Void> delete(Long id) {
         return productDbClient.deleteProduct(id);
     }
-}
\ No newline at end of file
+
+    private Mono<ResponseEntity<PageResponse<ProductDto>>> fetchProducts(ProductSearchCriteria criteria, String ifNoneMatch) {
+        if (!criteria.withTotal()) {
+            return productDbClient.getProductSlice(
+                    criteria.page(),
+                    criteria.size(),
+                    criteria.sort(),
+                    criteria.name(),
+                    criteria.category(),
+                    ifNoneMatch
+            );
+        }
+        return productDbClient.getProducts(
+                criteria.page(),
+                criteria.size(),
+                criteria.sort(),
+                criteria.name(),
+                criteria.category(),
+                ifNoneMatch
+        );
+    }
+}
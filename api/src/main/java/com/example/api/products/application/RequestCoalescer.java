@@ -0,0 +1,69 @@
+package com.example.api.products.application;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Single-flight: concurrent subscribers for the same key share one upstream call. The entry is removed before
+// the result is emitted, so nothing - in particular no error - outlives the call that produced it.
+@Component
+public class RequestCoalescer {
+
+    static final String METRIC_NAME = "api.products.single.flight";
+
+    private final Map<FlightKey, Mono<?>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public RequestCoalescer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder(METRIC_NAME + ".in.flight", inFlight, Map::size)
+                .description("Distinct upstream calls currently shared by concurrent requests")
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> coalesce(String operation, Object key, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            FlightKey flightKey = new FlightKey(operation, key);
+            boolean[] leader = {false};
+            Mono<T> shared = (Mono<T>) inFlight.computeIfAbsent(flightKey, k -> {
+                leader[0] = true;
+                return share(k, call.get());
+            });
+            counter(operation, leader[0] ? "leader" : "collapsed").increment();
+            return shared;
+        });
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private <T> Mono<T> share(FlightKey key, Mono<T> upstream) {
+        AtomicReference<Mono<T>> self = new AtomicReference<>();
+        Mono<T> shared = upstream
+                .doOnTerminate(() -> inFlight.remove(key, self.get()))
+                .doOnCancel(() -> inFlight.remove(key, self.get()))
+                .share();
+        self.set(shared);
+        return shared;
+    }
+
+    private Counter counter(String operation, String outcome) {
+        return Counter.builder(METRIC_NAME)
+                .description("Product lookups by whether they made the upstream call or joined one in flight")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record FlightKey(String operation, Object key) {
+    }
+}
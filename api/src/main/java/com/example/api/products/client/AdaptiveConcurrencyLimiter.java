@@ -0,0 +1,173 @@
+package com.example.api.products.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+// AIMD concurrency limit for calls to product-service: the limit grows by one per fast, successful response
+// while the client is actually using at least half of it, and is cut by backoff-ratio whenever a call fails,
+// gets a 429/5xx or takes longer than latency-threshold. Calls above the limit are rejected right away, so load
+// is shed while product-service slows down instead of piling up until the circuit breaker opens.
+@Slf4j
+@Component
+public class AdaptiveConcurrencyLimiter implements ExchangeFilterFunction {
+
+    static final String METRIC_NAME = "api.products.client.concurrency";
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final Counter rejected;
+    private final LongSupplier clock;
+
+    private double limit;
+    private int inFlight;
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${product-service.client.adaptive-limit.enabled:true}") boolean enabled,
+            @Value("${product-service.client.adaptive-limit.initial-limit:20}") int initialLimit,
+            @Value("${product-service.client.adaptive-limit.min-limit:5}") int minLimit,
+            @Value("${product-service.client.adaptive-limit.max-limit:150}") int maxLimit,
+            @Value("${product-service.client.adaptive-limit.backoff-ratio:0.9}") double backoffRatio,
+            @Value("${product-service.client.adaptive-limit.latency-threshold:1s}") Duration latencyThreshold
+    ) {
+        this(meterRegistry, enabled, initialLimit, minLimit, maxLimit, backoffRatio, latencyThreshold, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(
+            MeterRegistry meterRegistry,
+            boolean enabled,
+            int initialLimit,
+            int minLimit,
+            int maxLimit,
+            double backoffRatio,
+            Duration latencyThreshold,
+            LongSupplier clock
+    ) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.clock = clock;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+
+        Gauge.builder(METRIC_NAME + ".limit", this, AdaptiveConcurrencyLimiter::limit)
+                .description("Current adaptive concurrency limit for product-service calls")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_NAME + ".in.flight", this, AdaptiveConcurrencyLimiter::inFlight)
+                .description("product-service calls currently holding a permit")
+                .register(meterRegistry);
+        this.rejected = Counter.builder(METRIC_NAME + ".rejected")
+                .description("product-service calls shed because the concurrency limit was reached")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!enabled) {
+            return next.exchange(request);
+        }
+        return Mono.defer(() -> {
+            int current = tryAcquire();
+            if (current > 0) {
+                rejected.increment();
+                return Mono.error(new ConcurrencyLimitExceededException(current));
+            }
+            long start = clock.getAsLong();
+            AtomicBoolean responded = new AtomicBoolean();
+            AtomicBoolean released = new AtomicBoolean();
+            // Every release runs before its signal travels on, so whoever sees the call end sees the permit back.
+            return next.exchange(request)
+                    .map(response -> {
+                        responded.set(true);
+                        return holdUntilBodyEnds(response, released, clock.getAsLong() - start);
+                    })
+                    .doOnError(error -> release(released, true, clock.getAsLong() - start))
+                    // Completed without a response or cancelled before the headers (e.g. by the TimeLimiter); only
+                    // the latency counts. After the headers the body owns the permit.
+                    .doOnSuccess(response -> {
+                        if (response == null) {
+                            release(released, false, clock.getAsLong() - start);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (!responded.get()) {
+                            release(released, false, clock.getAsLong() - start);
+                        }
+                    });
+        });
+    }
+
+    // A call holds its permit until the body has been read, failed or been cancelled, so a streamed export counts
+    // as in flight for as long as it streams. Status and latency are judged at the headers: a long stream is not a
+    // slow response. WebClient always consumes or releases the body, so the permit is always given back.
+    private ClientResponse holdUntilBodyEnds(ClientResponse response, AtomicBoolean released, long latencyNanos) {
+        boolean overloaded = isOverloaded(response.statusCode());
+        return response.mutate()
+                .body(body -> body
+                        .doOnError(error -> release(released, true, latencyNanos))
+                        .doOnTerminate(() -> release(released, overloaded, latencyNanos))
+                        .doOnCancel(() -> release(released, overloaded, latencyNanos)))
+                .build();
+    }
+
+    synchronized int limit() {
+        return (int) limit;
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    // 0 when a permit was taken, otherwise the limit that was hit.
+    private synchronized int tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return (int) limit;
+        }
+        inFlight++;
+        return 0;
+    }
+
+    private void release(AtomicBoolean released, boolean dropped, long latencyNanos) {
+        if (released.compareAndSet(false, true)) {
+            release(dropped, latencyNanos);
+        }
+    }
+
+    private synchronized void release(boolean dropped, long latencyNanos) {
+        if (dropped || latencyNanos > latencyThresholdNanos) {
+            double reduced = Math.max(minLimit, Math.floor(limit * backoffRatio));
+            if (reduced < limit) {
+                log.debug("product-service concurrency limit lowered from {} to {}", (int) limit, (int) reduced);
+            }
+            limit = reduced;
+        } else if (inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+        inFlight--;
+    }
+
+    private static boolean isOverloaded(HttpStatusCode status) {
+        return status.is5xxServerError() || status.value() == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.api.products.client;
+
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    public ConcurrencyLimitExceededException(int limit) {
+        super("product-service concurrency limit of " + limit + " reached");
+    }
+}
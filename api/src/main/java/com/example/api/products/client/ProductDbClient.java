@@ -3,36 +3,51 @@ package com.example.api.products.client;
 import com.example.api.products.dto.ProductDto;
 import com.example.common.CorrelationIdConstants;
 import com.example.common.error.ApiErrorResponse;
+import com.example.common.product.dto.BatchResponse;
+import com.example.common.product.dto.CursorPageResponse;
 import com.example.common.product.dto.PageResponse;
+import com.example.common.product.dto.VersionedItem;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
-import lombok.RequiredArgsConstructor;
+import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class ProductDbClient {
 
     private static final String SERVICE_NAME = "product-service";
 
-    private final WebClient.Builder webClientBuilder;
+    private final WebClient webClient;
+    private final RequestHedger requestHedger;
 
-    private WebClient webClient() {
-        return webClientBuilder
+    // Built once: the filter chain and codecs are assembled here instead of on every call.
+    // The builder is cloned so the shared @LoadBalanced builder is not mutated.
+    public ProductDbClient(WebClient.Builder webClientBuilder, RequestHedger requestHedger) {
+        this.webClient = webClientBuilder.clone()
                 .baseUrl("http://" + SERVICE_NAME)
                 .build();
+        this.requestHedger = requestHedger;
     }
 
     private String resolveCorrelationId() {
@@ -40,6 +55,13 @@ public class ProductDbClient {
         return cid != null ? cid : "";
     }
 
+    // A 304 from product-service has no body and is relayed as is, so nothing gets deserialized.
+    private static void conditional(HttpHeaders headers, String ifNoneMatch) {
+        if (ifNoneMatch != null && !ifNoneMatch.isBlank()) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+    }
+
     private Mono<? extends Throwable> handleError(ClientResponse response) {
         HttpStatusCode statusCode = response.statusCode();
 
@@ -67,14 +89,76 @@ public class ProductDbClient {
 
     @CircuitBreaker(name = "dbService")
     @Retry(name = "dbService")
-    public Mono<PageResponse<ProductDto>> getProducts(int page, int size, List<String> sort, String name, String category) {
-        return webClient()
+    @TimeLimiter(name = "dbService")
+    @Bulkhead(name = "dbService")
+    public Mono<ResponseEntity<PageResponse<ProductDto>>> getProducts(
+            int page, int size, List<String> sort, String name, String category, String ifNoneMatch) {
+        return getPage(page, size, sort, name, category, true, ifNoneMatch);
+    }
+
+    @CircuitBreaker(name = "dbService")
+    @Retry(name = "dbService")
+    @TimeLimiter(name = "dbService")
+    @Bulkhead(name = "dbService")
+    public Mono<ResponseEntity<PageResponse<ProductDto>>> getProductSlice(
+            int page, int size, List<String> sort, String name, String category, String ifNoneMatch) {
+        return getPage(page, size, sort, name, category, false, ifNoneMatch);
+    }
+
+    private Mono<ResponseEntity<PageResponse<ProductDto>>> getPage(
+            int page,
+            int size,
+            List<String> sort,
+            String name,
+            String category,
+            boolean withTotal,
+            String ifNoneMatch
+    ) {
+        String correlationId = resolveCorrelationId();
+        return requestHedger.hedge("search", () -> webClient
                 .get()
                 .uri(uriBuilder -> {
                     var builder = uriBuilder
                             .path("/products")
                             .queryParam("page", page)
                             .queryParam("size", size);
+                    if (!withTotal) {
+                        builder.queryParam("withTotal", false);
+                    }
+                    if (sort != null && !sort.isEmpty()) {
+                        sort.forEach(s -> builder.queryParam("sort", s));
+                    }
+                    if (name != null && !name.isBlank()) {
+                        builder.queryParam("name", name);
+                    }
+                    if (category != null && !category.isBlank()) {
+                        builder.queryParam("category", category);
+                    }
+                    return builder.build();
+                })
+                .header(CorrelationIdConstants.HEADER_NAME, correlationId)
+                .headers(headers -> conditional(headers, ifNoneMatch))
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, this::handleError)
+                .onStatus(HttpStatusCode::is5xxServerError, this::handleError)
+                .toEntity(new ParameterizedTypeReference<>() {
+                }));
+    }
+
+    @CircuitBreaker(name = "dbService")
+    @Retry(name = "dbService")
+    @TimeLimiter(name = "dbService")
+    @Bulkhead(name = "dbService")
+    public Mono<ResponseEntity<CursorPageResponse<ProductDto>>> getProductsAfter(
+            String after, int size, List<String> sort, String name, String category, String ifNoneMatch) {
+        String correlationId = resolveCorrelationId();
+        return requestHedger.hedge("scroll", () -> webClient
+                .get()
+                .uri(uriBuilder -> {
+                    var builder = uriBuilder
+                            .path("/products")
+                            .queryParam("after", after)
+                            .queryParam("size", size);
                     if (sort != null && !sort.isEmpty()) {
                         sort.forEach(s -> builder.queryParam("sort", s));
                     }
@@ -86,31 +170,74 @@ public class ProductDbClient {
                     }
                     return builder.build();
                 })
+                .header(CorrelationIdConstants.HEADER_NAME, correlationId)
+                .headers(headers -> conditional(headers, ifNoneMatch))
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, this::handleError)
+                .onStatus(HttpStatusCode::is5xxServerError, this::handleError)
+                .toEntity(new ParameterizedTypeReference<>() {
+                }));
+    }
+
+    // Raw chunks are relayed as they arrive; not retried, a retry mid-stream would repeat rows. No TimeLimiter or
+    // bulkhead either: an export legitimately runs for minutes and would hold a permit all that time.
+    @CircuitBreaker(name = "dbService")
+    public Flux<DataBuffer> exportProducts() {
+        return webClient
+                .get()
+                .uri("/products/export")
+                .accept(MediaType.APPLICATION_NDJSON)
                 .header(CorrelationIdConstants.HEADER_NAME, resolveCorrelationId())
                 .retrieve()
                 .onStatus(HttpStatusCode::is4xxClientError, this::handleError)
                 .onStatus(HttpStatusCode::is5xxServerError, this::handleError)
-                .bodyToMono(new ParameterizedTypeReference<>() {
-                });
+                .bodyToFlux(DataBuffer.class);
     }
 
     @CircuitBreaker(name = "dbService")
     @Retry(name = "dbService")
-    public Mono<ProductDto> getProductById(Long id) {
-        return webClient()
+    @TimeLimiter(name = "dbService")
+    @Bulkhead(name = "dbService")
+    public Mono<ResponseEntity<ProductDto>> getProductById(Long id, String ifNoneMatch) {
+        String correlationId = resolveCorrelationId();
+        return requestHedger.hedge("get", () -> webClient
                 .get()
                 .uri("/products/{id}", id)
-                .header(CorrelationIdConstants.HEADER_NAME, resolveCorrelationId())
+                .header(CorrelationIdConstants.HEADER_NAME, correlationId)
+                .headers(headers -> conditional(headers, ifNoneMatch))
                 .retrieve()
                 .onStatus(HttpStatusCode::is4xxClientError, this::handleError)
                 .onStatus(HttpStatusCode::is5xxServerError, this::handleError)
-                .bodyToMono(ProductDto.class);
+                .toEntity(ProductDto.class));
     }
 
+    // Multi-get used by ProductBatchLoader; ids that do not exist are simply missing from the result.
     @CircuitBreaker(name = "dbService")
     @Retry(name = "dbService")
+    @TimeLimiter(name = "dbService")
+    @Bulkhead(name = "dbService")
+    public Mono<List<VersionedItem<ProductDto>>> getProductsByIds(Collection<Long> ids) {
+        String correlationId = resolveCorrelationId();
+        return requestHedger.hedge("multi-get", () -> webClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/products")
+                        .queryParam("ids", ids.stream().map(String::valueOf).collect(Collectors.joining(",")))
+                        .build())
+                .header(CorrelationIdConstants.HEADER_NAME, correlationId)
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, this::handleError)
+                .onStatus(HttpStatusCode::is5xxServerError, this::handleError)
+                .bodyToMono(new ParameterizedTypeReference<>() {
+                }));
+    }
+
+    // Not retried: POST is not idempotent, a retry after a lost response would create the product twice.
+    @CircuitBreaker(name = "dbService")
+    @TimeLimiter(name = "dbService")
+    @Bulkhead(name = "dbService")
     public Mono<ProductDto> createProduct(ProductDto dto) {
-        return webClient()
+        return webClient
                 .post()
                 .uri("/products")
                 .header(CorrelationIdConstants.HEADER_NAME, resolveCorrelationId())
@@ -123,22 +250,82 @@ public class ProductDbClient {
 
     @CircuitBreaker(name = "dbService")
     @Retry(name = "dbService")
-    public Mono<ProductDto> updateProduct(Long id, ProductDto dto) {
-        return webClient()
+    @TimeLimiter(name = "dbService")
+    @Bulkhead(name = "dbService")
+    public Mono<ResponseEntity<ProductDto>> updateProduct(Long id, ProductDto dto, String ifMatch) {
+        return webClient
                 .put()
                 .uri("/products/{id}", id)
                 .header(CorrelationIdConstants.HEADER_NAME, resolveCorrelationId())
+                .headers(headers -> {
+                    if (ifMatch != null && !ifMatch.isBlank()) {
+                        headers.set(HttpHeaders.IF_MATCH, ifMatch);
+                    }
+                })
                 .bodyValue(dto)
                 .retrieve()
                 .onStatus(HttpStatusCode::is4xxClientError, this::handleError)
                 .onStatus(HttpStatusCode::is5xxServerError, this::handleError)
-                .bodyToMono(ProductDto.class);
+                .toEntity(ProductDto.class);
+    }
+
+    // Not retried: a retry after a lost response would insert the whole batch twice.
+    @CircuitBreaker(name = "dbService")
+    @TimeLimiter(name = "dbService")
+    @Bulkhead(name = "dbService")
+    public Mono<BatchResponse<ProductDto>> createProducts(List<ProductDto> dtos) {
+        return webClient
+                .post()
+                .uri("/products/batch")
+                .header(CorrelationIdConstants.HEADER_NAME, resolveCorrelationId())
+                .bodyValue(dtos)
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, this::handleError)
+                .onStatus(HttpStatusCode::is5xxServerError, this::handleError)
+                .bodyToMono(new ParameterizedTypeReference<>() {
+                });
     }
 
     @CircuitBreaker(name = "dbService")
     @Retry(name = "dbService")
+    @TimeLimiter(name = "dbService")
+    @Bulkhead(name = "dbService")
+    public Mono<BatchResponse<ProductDto>> updateProducts(List<ProductDto> dtos) {
+        return webClient
+                .put()
+                .uri("/products/batch")
+                .header(CorrelationIdConstants.HEADER_NAME, resolveCorrelationId())
+                .bodyValue(dtos)
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, this::handleError)
+                .onStatus(HttpStatusCode::is5xxServerError, this::handleError)
+                .bodyToMono(new ParameterizedTypeReference<>() {
+                });
+    }
+
+    @CircuitBreaker(name = "dbService")
+    @Retry(name = "dbService")
+    @TimeLimiter(name = "dbService")
+    @Bulkhead(name = "dbService")
+    public Mono<BatchResponse<ProductDto>> deleteProducts(List<Long> ids) {
+        return webClient
+                .method(HttpMethod.DELETE)
+                .uri("/products/batch")
+                .header(CorrelationIdConstants.HEADER_NAME, resolveCorrelationId())
+                .bodyValue(ids)
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, this::handleError)
+                .onStatus(HttpStatusCode::is5xxServerError, this::handleError)
+                .bodyToMono(new ParameterizedTypeReference<>() {
+                });
+    }
+
+    @CircuitBreaker(name = "dbService")
+    @Retry(name = "dbService")
+    @TimeLimiter(name = "dbService")
+    @Bulkhead(name = "dbService")
     public Mono<Void> deleteProduct(Long id) {
-        return webClient()
+        return webClient
                 .delete()
                 .uri("/products/{id}", id)
                 .header(CorrelationIdConstants.HEADER_NAME, resolveCorrelationId())
@@ -150,18 +337,21 @@ public class ProductDbClient {
 
     @CircuitBreaker(name = "dbService")
     @Retry(name = "dbService")
+    @TimeLimiter(name = "dbService")
+    @Bulkhead(name = "dbService")
     public Mono<String> induceChaos(long delayMs, double errorRate) {
-        return webClient()
+        String correlationId = resolveCorrelationId();
+        return requestHedger.hedge("chaos", () -> webClient
                 .get()
                 .uri(uriBuilder -> uriBuilder
                         .path("/dev/chaos")
                         .queryParam("delayMs", delayMs)
                         .queryParam("errorRate", errorRate)
                         .build())
-                .header(CorrelationIdConstants.HEADER_NAME, resolveCorrelationId())
+                .header(CorrelationIdConstants.HEADER_NAME, correlationId)
                 .retrieve()
                 .onStatus(HttpStatusCode::is4xxClientError, this::handleError)
                 .onStatus(HttpStatusCode::is5xxServerError, this::handleError)
-                .bodyToMono(String.class);
+                .bodyToMono(String.class));
     }
 }
@@ -0,0 +1,203 @@
+package com.example.api.products.client;
+
+import com.example.common.loadbalancer.DistinctInstances;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Hedged reads: when the first request has not answered after the configured latency percentile of that
+// operation, the same request is sent once more and whichever answers first wins; the other one is cancelled. Both
+// attempts carry one DistinctInstances in their Reactor Context, so the load balancer sends the hedge to another
+// instance than the first request whenever there is one. Every request earns budget-percent of a hedge, so hedges
+// can never add more than that share of extra load. An error from the first request is returned right away unless
+// a hedge is already in flight and the error is transient (5xx, timeout, I/O); then the hedge may still answer,
+// and the first error is returned only if the hedge fails too. A failing hedge just leaves the first request to
+// finish.
+@Component
+public class RequestHedger {
+
+    static final String METRIC_NAME = "api.products.client.hedge";
+
+    private static final long CREDIT = 1_000;
+    // Unused budget is capped so that a quiet period cannot be cashed in as a burst of hedges later.
+    private static final long MAX_BALANCE = 10 * CREDIT;
+    private static final int MIN_SAMPLES = 20;
+    private static final TransientProductServiceFailure TRANSIENT = new TransientProductServiceFailure();
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final double percentile;
+    private final Duration initialDelay;
+    private final Duration minDelay;
+    private final Duration maxDelay;
+    private final long creditPerRequest;
+
+    private final AtomicLong balance = new AtomicLong();
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    public RequestHedger(
+            MeterRegistry meterRegistry,
+            @Value("${product-service.client.hedging.enabled:false}") boolean enabled,
+            @Value("${product-service.client.hedging.percentile:0.95}") double percentile,
+            @Value("${product-service.client.hedging.initial-delay:100ms}") Duration initialDelay,
+            @Value("${product-service.client.hedging.min-delay:20ms}") Duration minDelay,
+            @Value("${product-service.client.hedging.max-delay:1s}") Duration maxDelay,
+            @Value("${product-service.client.hedging.budget-percent:10}") double budgetPercent
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.initialDelay = initialDelay;
+        this.minDelay = minDelay;
+        this.maxDelay = maxDelay;
+        this.creditPerRequest = Math.round(CREDIT * budgetPercent / 100);
+    }
+
+    public <T> Mono<T> hedge(String operation, Supplier<Mono<T>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        return Mono.defer(() -> {
+            deposit();
+            LatencyWindow window = latencies.computeIfAbsent(operation, this::window);
+            long start = System.nanoTime();
+
+            DistinctInstances instances = new DistinctInstances();
+            AtomicBoolean hedgeSent = new AtomicBoolean();
+            AtomicReference<Throwable> primaryError = new AtomicReference<>();
+
+            // Empty answers and errors that end the race travel as attempts, so firstWithValue does not
+            // wait past them.
+            Mono<Attempt<T>> primary = call.get()
+                    .contextWrite(context -> context.put(DistinctInstances.CONTEXT_KEY, instances))
+                    .doOnNext(value -> window.record(System.nanoTime() - start))
+                    // Cancelled because the hedge won: it took at least this long.
+                    .doOnCancel(() -> window.record(System.nanoTime() - start))
+                    .map(value -> Attempt.of(value, false))
+                    .defaultIfEmpty(Attempt.of(null, false))
+                    .onErrorResume(error -> {
+                        if (!hedgeSent.get() || !TRANSIENT.test(error)) {
+                            return Mono.just(Attempt.failed(error));
+                        }
+                        primaryError.set(error);
+                        return Mono.error(error);
+                    });
+
+            Mono<Attempt<T>> hedged = Mono.delay(window.delay())
+                    .then(Mono.defer(() -> {
+                        if (!withdraw()) {
+                            counter(operation, "budget_exhausted").increment();
+                            return Mono.never();
+                        }
+                        counter(operation, "fired").increment();
+                        hedgeSent.set(true);
+                        return call.get()
+                                .contextWrite(context -> context.put(DistinctInstances.CONTEXT_KEY, instances))
+                                .map(value -> Attempt.of(value, true))
+                                .defaultIfEmpty(Attempt.of(null, true));
+                    }));
+
+            return Mono.firstWithValue(primary, hedged)
+                    // Both failed: the hedge's error says no more than the first one did.
+                    .onErrorMap(error -> primaryError.get() != null ? primaryError.get() : error)
+                    .flatMap(attempt -> {
+                        if (attempt.error() != null) {
+                            return Mono.error(attempt.error());
+                        }
+                        if (attempt.hedged()) {
+                            counter(operation, "won").increment();
+                        }
+                        return Mono.justOrEmpty(attempt.value());
+                    });
+        });
+    }
+
+    Duration delay(String operation) {
+        LatencyWindow window = latencies.get(operation);
+        return window != null ? window.delay() : initialDelay;
+    }
+
+    private void deposit() {
+        balance.getAndUpdate(current -> Math.min(MAX_BALANCE, current + creditPerRequest));
+    }
+
+    private boolean withdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < CREDIT) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - CREDIT));
+        return true;
+    }
+
+    private LatencyWindow window(String operation) {
+        LatencyWindow window = new LatencyWindow();
+        Gauge.builder(METRIC_NAME + ".delay", window, w -> w.delay().toMillis())
+                .description("Current hedging delay (latency percentile) in milliseconds")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        return window;
+    }
+
+    private Counter counter(String operation, String outcome) {
+        return Counter.builder(METRIC_NAME)
+                .description("Hedged product-service reads by outcome")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record Attempt<T>(T value, Throwable error, boolean hedged) {
+
+        static <T> Attempt<T> of(T value, boolean hedged) {
+            return new Attempt<>(value, null, hedged);
+        }
+
+        static <T> Attempt<T> failed(Throwable error) {
+            return new Attempt<>(null, error, false);
+        }
+    }
+
+    // Ring buffer of the last latencies; the percentile is recomputed every RECOMPUTE_EVERY samples rather than
+    // on every request.
+    private final class LatencyWindow {
+
+        private static final int SIZE = 512;
+        private static final int RECOMPUTE_EVERY = 32;
+
+        private final long[] samples = new long[SIZE];
+        private long count;
+        private volatile Duration delay = initialDelay;
+
+        synchronized void record(long nanos) {
+            samples[(int) (count++ % SIZE)] = nanos;
+            if (count >= MIN_SAMPLES && count % RECOMPUTE_EVERY == 0) {
+                long[] sorted = Arrays.copyOf(samples, (int) Math.min(count, SIZE));
+                Arrays.sort(sorted);
+                long value = sorted[(int) Math.min(sorted.length - 1, Math.floor(percentile * sorted.length))];
+                Duration measured = Duration.ofNanos(value);
+                delay = measured.compareTo(minDelay) < 0
+                        ? minDelay
+                        : measured.compareTo(maxDelay) > 0 ? maxDelay : measured;
+            }
+        }
+
+        Duration delay() {
+            return delay;
+        }
+    }
+}
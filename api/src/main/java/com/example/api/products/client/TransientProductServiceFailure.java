@@ -0,0 +1,26 @@
+package com.example.api.products.client;
+
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+// Failures that say something about product-service health: 5xx, timeouts and I/O errors. They are retried and
+// recorded by the circuit breaker; 4xx answers and local load shedding (bulkhead, concurrency limit, open breaker)
+// are neither.
+public class TransientProductServiceFailure implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable throwable) {
+        if (throwable instanceof ResponseStatusException e) {
+            return e.getStatusCode().is5xxServerError();
+        }
+        if (throwable instanceof WebClientResponseException e) {
+            return e.getStatusCode().is5xxServerError();
+        }
+        return throwable instanceof WebClientRequestException
+                || throwable instanceof TimeoutException;
+    }
+}
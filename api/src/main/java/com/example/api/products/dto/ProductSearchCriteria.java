@@ -7,5 +7,23 @@ public record ProductSearchCriteria(
         int size,
         List<String> sort,
         String name,
-        String category
-) {}
+        String category,
+        boolean withTotal
+) {
+
+    public ProductSearchCriteria(int page, int size, List<String> sort, String name, String category) {
+        this(page, size, sort, name, category, true);
+    }
+
+    // Key under which concurrent searches share one upstream call. It only folds together what product-service
+    // treats alike (a blank filter is no filter, a missing sort is an empty one); the request itself is sent with
+    // the original values, since " x" and "x" are different name filters.
+    public ProductSearchCriteria coalescingKey() {
+        return new ProductSearchCriteria(page, size, sort == null ? List.of() : sort, blankToNull(name),
+                blankToNull(category), withTotal);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -3,24 +3,37 @@ package com.example.api.products.web;
 import com.example.api.products.application.ProductService;
 import com.example.api.products.dto.ProductDto;
 import com.example.api.products.dto.ProductSearchCriteria;
+import com.example.common.product.dto.BatchResponse;
+import com.example.common.product.dto.CursorPageResponse;
 import com.example.common.product.dto.PageResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
 @RequestMapping("/products")
-@RequiredArgsConstructor
 public class ProductController {
 
     private final ProductService productService;
+    private final long cacheMaxAgeSeconds;
+
+    // cache-max-age-seconds lets the gateway response cache (and clients) reuse product reads for a short while.
+    public ProductController(
+            ProductService productService,
+            @Value("${api.products.cache-max-age-seconds:5}") long cacheMaxAgeSeconds) {
+        this.productService = productService;
+        this.cacheMaxAgeSeconds = cacheMaxAgeSeconds;
+    }
 
     @GetMapping
     @Operation(summary = "Get products", security = @SecurityRequirement(name = "bearerAuth"))
@@ -29,18 +42,38 @@ public class ProductController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false, name = "sort", defaultValue = "name") List<String> sortParams,
             @RequestParam(required = false, name = "name") String name,
-            @RequestParam(required = false, name = "category") String category
+            @RequestParam(required = false, name = "category") String category,
+            @RequestParam(defaultValue = "true", name = "withTotal") boolean withTotal,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        ProductSearchCriteria criteria = new ProductSearchCriteria(page, size, sortParams, name, category);
-        return productService.getProducts(criteria)
-                .map(ResponseEntity::ok);
+        ProductSearchCriteria criteria = new ProductSearchCriteria(page, size, sortParams, name, category, withTotal);
+        return productService.getProducts(criteria, ifNoneMatch)
+                .map(this::relay);
+    }
+
+    @GetMapping(params = "after")
+    @Operation(summary = "Get products using a cursor", security = @SecurityRequirement(name = "bearerAuth"))
+    public Mono<ResponseEntity<CursorPageResponse<ProductDto>>> getProductsAfter(
+            @RequestParam(name = "after") String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false, name = "sort", defaultValue = "name") List<String> sortParams,
+            @RequestParam(required = false, name = "name") String name,
+            @RequestParam(required = false, name = "category") String category,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        ProductSearchCriteria criteria = new ProductSearchCriteria(0, size, sortParams, name, category);
+        return productService.getProductsAfter(criteria, after, ifNoneMatch)
+                .map(this::relay);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get product by id", security = @SecurityRequirement(name = "bearerAuth"))
-    public Mono<ResponseEntity<ProductDto>> getById(@PathVariable Long id) {
-        return productService.getProduct(id)
-                .map(ResponseEntity::ok);
+    public Mono<ResponseEntity<ProductDto>> getById(
+            @PathVariable Long id,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        return productService.getProduct(id, ifNoneMatch)
+                .map(this::relay);
     }
 
     @PostMapping
@@ -50,14 +83,40 @@ public class ProductController {
                 .map(saved -> ResponseEntity.status(HttpStatus.CREATED).body(saved));
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Create products in one batch", security = @SecurityRequirement(name = "bearerAuth"))
+    public Mono<BatchResponse<ProductDto>> createAll(@RequestBody List<ProductDto> dtos) {
+        return productService.createAll(dtos);
+    }
+
+    @PutMapping("/batch")
+    @Operation(summary = "Update products in one batch", security = @SecurityRequirement(name = "bearerAuth"))
+    public Mono<BatchResponse<ProductDto>> updateAll(@RequestBody List<ProductDto> dtos) {
+        return productService.updateAll(dtos);
+    }
+
+    @DeleteMapping("/batch")
+    @Operation(summary = "Delete products in one batch", security = @SecurityRequirement(name = "bearerAuth"))
+    public Mono<BatchResponse<ProductDto>> deleteAll(@RequestBody List<Long> ids) {
+        return productService.deleteAll(ids);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update product", security = @SecurityRequirement(name = "bearerAuth"))
     public Mono<ResponseEntity<ProductDto>> update(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody ProductDto dto
     ) {
-        return productService.update(id, dto)
-                .map(ResponseEntity::ok);
+        return productService.update(id, dto, ifMatch)
+                .map(upstream -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    String etag = upstream.getHeaders().getETag();
+                    if (etag != null) {
+                        response.eTag(etag);
+                    }
+                    return response.body(upstream.getBody());
+                });
     }
 
     @DeleteMapping("/{id}")
@@ -66,4 +125,16 @@ public class ProductController {
     public Mono<Void> delete(@PathVariable Long id) {
         return productService.delete(id);
     }
+
+    // Passes product-service's status (200 or 304) and ETag through untouched.
+    private <T> ResponseEntity<T> relay(ResponseEntity<T> upstream) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(upstream.getStatusCode())
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(cacheMaxAgeSeconds))
+                        .sMaxAge(Duration.ofSeconds(cacheMaxAgeSeconds)));
+        String etag = upstream.getHeaders().getETag();
+        if (etag != null) {
+            response.eTag(etag);
+        }
+        return response.body(upstream.getBody());
+    }
 }
@@ -0,0 +1,38 @@
+package com.example.api.products.web;
+
+import com.example.api.products.application.ProductService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("/products")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ProductExportController {
+
+    private final ProductService productService;
+
+    // Copies upstream chunks straight to the servlet output stream, so nothing is buffered per export.
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all products as NDJSON", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<StreamingResponseBody> export() {
+        Flux<DataBuffer> body = productService.export();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> DataBufferUtils.write(body, out)
+                        .doOnNext(DataBufferUtils::release)
+                        .then()
+                        .block());
+    }
+}
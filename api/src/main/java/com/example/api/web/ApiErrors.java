@@ -0,0 +1,58 @@
+package com.example.api.web;
+
+import com.example.common.error.ApiErrorResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// The error body and status decisions shared by the servlet and the reactive exception handler.
+final class ApiErrors {
+
+    private ApiErrors() {}
+
+    static ApiErrorResponse body(
+            HttpStatus status,
+            String message,
+            String path,
+            String correlationId,
+            Map<String, String> fieldErrors
+    ) {
+        return ApiErrorResponse.builder()
+                .timestamp(Instant.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .path(path)
+                .correlationId(correlationId != null ? correlationId : "N/A")
+                .fieldErrors(fieldErrors)
+                .build();
+    }
+
+    static Map<String, String> fieldErrors(BindingResult bindingResult) {
+        return bindingResult
+                .getFieldErrors()
+                .stream()
+                .collect(Collectors.toMap(
+                        FieldError::getField,
+                        fieldError -> {
+                            String message = fieldError.getDefaultMessage();
+                            return message != null ? message : "Validation error";
+                        },
+                        (existing, ignored) -> existing
+                ));
+    }
+
+    static HttpStatus status(ResponseStatusException ex) {
+        HttpStatus status = HttpStatus.resolve(ex.getStatusCode().value());
+        return status != null ? status : HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    static String message(ResponseStatusException ex) {
+        return ex.getReason() != null ? ex.getReason() : ex.getMessage();
+    }
+}
@@ -1,24 +1,28 @@
 package com.example.api.web;
 
+import com.example.api.products.client.ConcurrencyLimitExceededException;
 import com.example.common.CorrelationIdConstants;
 import com.example.common.error.ApiErrorResponse;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.time.Instant;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeoutException;
 
+// Servlet stack; ReactiveGlobalExceptionHandler answers the same way on WebFlux.
 @Slf4j
 @RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
 
     private ApiErrorResponse buildResponse(
@@ -27,17 +31,7 @@ public class GlobalExceptionHandler {
             HttpServletRequest request,
             Map<String, String> fieldErrors
     ) {
-        String correlationId = resolveCorrelationId(request);
-
-        return ApiErrorResponse.builder()
-                .timestamp(Instant.now())
-                .status(status.value())
-                .error(status.getReasonPhrase())
-                .message(message)
-                .path(request.getRequestURI())
-                .correlationId(correlationId)
-                .fieldErrors(fieldErrors)
-                .build();
+        return ApiErrors.body(status, message, request.getRequestURI(), resolveCorrelationId(request), fieldErrors);
     }
 
     private String resolveCorrelationId(HttpServletRequest request) {
@@ -45,7 +39,7 @@ public class GlobalExceptionHandler {
         if (correlationId == null) {
             correlationId = MDC.get(CorrelationIdConstants.MDC_KEY);
         }
-        return correlationId != null ? correlationId : "N/A";
+        return correlationId;
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -53,17 +47,7 @@ public class GlobalExceptionHandler {
             MethodArgumentNotValidException ex,
             HttpServletRequest request
     ) {
-        Map<String, String> errors = ex.getBindingResult()
-                .getFieldErrors()
-                .stream()
-                .collect(Collectors.toMap(
-                        FieldError::getField,
-                        fieldError -> {
-                            String message = fieldError.getDefaultMessage();
-                            return message != null ? message : "Validation error";
-                        },
-                        (existing, ignored) -> existing
-                ));
+        Map<String, String> errors = ApiErrors.fieldErrors(ex.getBindingResult());
 
         return new ResponseEntity<>(
                 buildResponse(HttpStatus.BAD_REQUEST, "Validation failed", request, errors),
@@ -76,12 +60,8 @@ public class GlobalExceptionHandler {
             ResponseStatusException ex,
             HttpServletRequest request
     ) {
-        HttpStatus status = HttpStatus.resolve(ex.getStatusCode().value());
-        if (status == null) {
-            status = HttpStatus.INTERNAL_SERVER_ERROR;
-        }
-
-        String message = ex.getReason() != null ? ex.getReason() : ex.getMessage();
+        HttpStatus status = ApiErrors.status(ex);
+        String message = ApiErrors.message(ex);
 
         log.warn("ResponseStatusException in API: status={}, message={}", status, message);
 
@@ -91,6 +71,37 @@ public class GlobalExceptionHandler {
         );
     }
 
+    // Load shed locally before product-service was even called: tell the client to back off.
+    @ExceptionHandler({
+            ConcurrencyLimitExceededException.class,
+            BulkheadFullException.class,
+            CallNotPermittedException.class
+    })
+    public ResponseEntity<ApiErrorResponse> handleShedLoad(
+            RuntimeException ex,
+            HttpServletRequest request
+    ) {
+        log.warn("Product service call shed: {}", ex.getMessage());
+
+        return new ResponseEntity<>(
+                buildResponse(HttpStatus.SERVICE_UNAVAILABLE, "Product service is overloaded, retry later", request, null),
+                HttpStatus.SERVICE_UNAVAILABLE
+        );
+    }
+
+    @ExceptionHandler(TimeoutException.class)
+    public ResponseEntity<ApiErrorResponse> handleTimeout(
+            TimeoutException ex,
+            HttpServletRequest request
+    ) {
+        log.warn("Product service call timed out: {}", ex.getMessage());
+
+        return new ResponseEntity<>(
+                buildResponse(HttpStatus.GATEWAY_TIMEOUT, "Product service did not answer in time", request, null),
+                HttpStatus.GATEWAY_TIMEOUT
+        );
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiErrorResponse> handleGeneric(
             Exception ex,
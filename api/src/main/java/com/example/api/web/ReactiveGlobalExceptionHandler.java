@@ -0,0 +1,105 @@
+package com.example.api.web;
+
+import com.example.api.products.client.ConcurrencyLimitExceededException;
+import com.example.common.CorrelationIdConstants;
+import com.example.common.error.ApiErrorResponse;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+// The WebFlux twin of GlobalExceptionHandler: same statuses and bodies, but the correlation id comes from the
+// Reactor Context that CorrelationIdWebFilter writes instead of the MDC of the handling thread.
+@Slf4j
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveGlobalExceptionHandler {
+
+    private Mono<ResponseEntity<ApiErrorResponse>> respond(
+            HttpStatus status,
+            String message,
+            ServerWebExchange exchange,
+            Map<String, String> fieldErrors
+    ) {
+        return Mono.deferContextual(context -> Mono.just(new ResponseEntity<>(
+                ApiErrors.body(status, message, exchange.getRequest().getPath().value(),
+                        resolveCorrelationId(exchange, context), fieldErrors),
+                status
+        )));
+    }
+
+    private String resolveCorrelationId(ServerWebExchange exchange, ContextView context) {
+        String correlationId = exchange.getRequest().getHeaders().getFirst(CorrelationIdConstants.HEADER_NAME);
+        if (correlationId == null) {
+            correlationId = context.getOrDefault(CorrelationIdConstants.CONTEXT_KEY, null);
+        }
+        return correlationId;
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public Mono<ResponseEntity<ApiErrorResponse>> handleValidation(
+            WebExchangeBindException ex,
+            ServerWebExchange exchange
+    ) {
+        return respond(HttpStatus.BAD_REQUEST, "Validation failed", exchange, ApiErrors.fieldErrors(ex.getBindingResult()));
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public Mono<ResponseEntity<ApiErrorResponse>> handleResponseStatus(
+            ResponseStatusException ex,
+            ServerWebExchange exchange
+    ) {
+        HttpStatus status = ApiErrors.status(ex);
+        String message = ApiErrors.message(ex);
+
+        log.warn("ResponseStatusException in API: status={}, message={}", status, message);
+
+        return respond(status, message, exchange, null);
+    }
+
+    @ExceptionHandler({
+            ConcurrencyLimitExceededException.class,
+            BulkheadFullException.class,
+            CallNotPermittedException.class
+    })
+    public Mono<ResponseEntity<ApiErrorResponse>> handleShedLoad(
+            RuntimeException ex,
+            ServerWebExchange exchange
+    ) {
+        log.warn("Product service call shed: {}", ex.getMessage());
+
+        return respond(HttpStatus.SERVICE_UNAVAILABLE, "Product service is overloaded, retry later", exchange, null);
+    }
+
+    @ExceptionHandler(TimeoutException.class)
+    public Mono<ResponseEntity<ApiErrorResponse>> handleTimeout(
+            TimeoutException ex,
+            ServerWebExchange exchange
+    ) {
+        log.warn("Product service call timed out: {}", ex.getMessage());
+
+        return respond(HttpStatus.GATEWAY_TIMEOUT, "Product service did not answer in time", exchange, null);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public Mono<ResponseEntity<ApiErrorResponse>> handleGeneric(
+            Exception ex,
+            ServerWebExchange exchange
+    ) {
+        log.error("Unexpected API error", ex);
+
+        return respond(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage(), exchange, null);
+    }
+}
@@ -3,6 +3,7 @@ package com.example.api;
 import com.example.api.products.client.ProductDbClient;
 import com.example.api.products.dto.ProductDto;
 import com.example.common.product.dto.PageResponse;
+import com.example.common.product.dto.VersionedItem;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -11,6 +12,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.http.ResponseEntity;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
@@ -48,6 +50,11 @@ class ApiIntegrationTest {
         return dto;
     }
 
+    private static ProductDto withId(ProductDto dto, Long id) {
+        dto.setId(id);
+        return dto;
+    }
+
     @Test
     void shouldReturn401WithoutJwt() {
         webTestClient.get()
@@ -69,8 +76,8 @@ class ApiIntegrationTest {
                 true
         );
 
-        when(productDbClient.getProducts(anyInt(), anyInt(), anyList(), isNull(), isNull()))
-                .thenReturn(Mono.just(response));
+        when(productDbClient.getProducts(anyInt(), anyInt(), anyList(), isNull(), isNull(), isNull()))
+                .thenReturn(Mono.just(ResponseEntity.ok(response)));
 
         webTestClient.get()
                 .uri(uri -> uri
@@ -87,25 +94,29 @@ class ApiIntegrationTest {
                 .jsonPath("$.content[0].name").isEqualTo("Sample");
 
         ArgumentCaptor<Integer> page = ArgumentCaptor.forClass(Integer.class);
-        verify(productDbClient).getProducts(page.capture(), anyInt(), anyList(), isNull(), isNull());
+        verify(productDbClient).getProducts(page.capture(), anyInt(), anyList(), isNull(), isNull(), isNull());
         assertThat(page.getValue()).isEqualTo(0);
     }
 
     @Test
     void shouldGetSingleProductWithJwt() {
         ProductDto dto = sampleProduct();
-        when(productDbClient.getProductById(42L)).thenReturn(Mono.just(dto));
+        when(productDbClient.getProductsByIds(List.of(42L)))
+                .thenReturn(Mono.just(List.of(new VersionedItem<>("\"42-0\"", withId(dto, 42L)))));
 
         webTestClient.get()
                 .uri("/products/42")
                 .header("Authorization", "Bearer " + JWT)
                 .exchange()
                 .expectStatus().isOk()
+                .expectHeader().valueEquals("Cache-Control", "max-age=5, s-maxage=5")
+                .expectHeader().valueEquals("ETag", "\"42-0\"")
                 .expectBody()
-                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.id").isEqualTo(42)
                 .jsonPath("$.name").isEqualTo("Sample");
 
-        verify(productDbClient).getProductById(42L);
+        // Unconditional reads go out through the micro-batched multi-get.
+        verify(productDbClient).getProductsByIds(List.of(42L));
     }
 
     @Test
@@ -135,8 +146,8 @@ class ApiIntegrationTest {
         ProductDto input = sampleProduct();
         input.setName("Updated");
 
-        when(productDbClient.updateProduct(5L, input))
-                .thenReturn(Mono.just(input));
+        when(productDbClient.updateProduct(5L, input, null))
+                .thenReturn(Mono.just(ResponseEntity.ok(input)));
 
         webTestClient.put()
                 .uri("/products/5")
@@ -148,7 +159,7 @@ class ApiIntegrationTest {
                 .expectBody()
                 .jsonPath("$.name").isEqualTo("Updated");
 
-        verify(productDbClient).updateProduct(5L, input);
+        verify(productDbClient).updateProduct(5L, input, null);
     }
 
     @Test
@@ -0,0 +1,123 @@
+package com.example.api;
+
+import com.example.api.products.client.ProductDbClient;
+import com.example.api.products.dto.ProductDto;
+import com.example.common.CorrelationIdConstants;
+import com.example.common.product.dto.VersionedItem;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.example.api.testutil.JwtTestUtils.createTestJwt;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+// The same API with the reactive profile: WebFlux on Netty instead of Tomcat.
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "jwt.secret=0123456789_0123456789_0123456789_01"
+)
+@ActiveProfiles("reactive")
+class ReactiveApiIntegrationTest {
+
+    private static final String JWT = createTestJwt();
+    @Autowired
+    WebTestClient webTestClient;
+    @Autowired
+    ApplicationContext context;
+    @MockBean
+    ProductDbClient productDbClient;
+
+    @Test
+    void shouldRunOnWebFluxAndNetty() {
+        assertThat(context).isInstanceOf(ReactiveWebServerApplicationContext.class);
+        assertThat(((ReactiveWebServerApplicationContext) context).getWebServer()).isInstanceOf(NettyWebServer.class);
+    }
+
+    @Test
+    void shouldReturn401WithoutJwt() {
+        webTestClient.get()
+                .uri("/products")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void shouldGetSingleProductWithJwtAndEchoTheCorrelationId() {
+        ProductDto dto = new ProductDto();
+        dto.setId(42L);
+        dto.setName("Sample");
+        dto.setCategory("Category");
+        dto.setPrice(new BigDecimal("10.00"));
+        when(productDbClient.getProductsByIds(List.of(42L)))
+                .thenReturn(Mono.just(List.of(new VersionedItem<>("\"42-0\"", dto))));
+
+        webTestClient.get()
+                .uri("/products/42")
+                .header("Authorization", "Bearer " + JWT)
+                .header(CorrelationIdConstants.HEADER_NAME, "reactive-1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(CorrelationIdConstants.HEADER_NAME, "reactive-1")
+                .expectHeader().valueEquals("Cache-Control", "max-age=5, s-maxage=5")
+                .expectHeader().valueEquals("ETag", "\"42-0\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Sample");
+    }
+
+    @Test
+    void correlationIdShouldReachTheMdcAfterAThreadHop() {
+        ProductDto dto = new ProductDto();
+        dto.setId(7L);
+        dto.setName("Sample");
+        AtomicReference<String> mdcCorrelationId = new AtomicReference<>();
+        when(productDbClient.getProductsByIds(List.of(7L))).thenReturn(Mono.delay(Duration.ofMillis(1))
+                .map(tick -> {
+                    mdcCorrelationId.set(MDC.get(CorrelationIdConstants.MDC_KEY));
+                    return List.of(new VersionedItem<>("\"7-0\"", dto));
+                }));
+
+        webTestClient.get()
+                .uri("/products/7")
+                .header("Authorization", "Bearer " + JWT)
+                .header(CorrelationIdConstants.HEADER_NAME, "reactive-mdc")
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(mdcCorrelationId.get()).isEqualTo("reactive-mdc");
+    }
+
+    @Test
+    void shouldReportValidationErrorsWithTheGeneratedCorrelationId() {
+        var result = webTestClient.post()
+                .uri("/products")
+                .header("Authorization", "Bearer " + JWT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().valueEquals("Cache-Control", "no-cache, no-store, max-age=0, must-revalidate")
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Validation failed")
+                .jsonPath("$.fieldErrors.name").exists()
+                .returnResult();
+
+        String correlationId = result.getResponseHeaders().getFirst(CorrelationIdConstants.HEADER_NAME);
+        assertThat(correlationId).isNotBlank();
+        assertThat(new String(result.getResponseBodyContent())).contains("\"correlationId\":\"" + correlationId + "\"");
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.api;
+
+import com.example.common.CorrelationIdConstants;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.example.api.testutil.JwtTestUtils.createTestJwt;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Holds N product reads open at once against api-service on Tomcat and on WebFlux/Netty and reports how many reached
+// product-service together, plus heap and threads per in-flight request. The heap figure includes this test's own
+// client and stub connections, which are the same for both stacks.
+// Run with: mvn -pl api test -Pbenchmark -Dtest=WebStackLoadBenchmarkTest [-Dbenchmark.connections=2000]
+@Tag("benchmark")
+class WebStackLoadBenchmarkTest {
+
+    private static final int CONNECTIONS = Integer.getInteger("benchmark.connections", 2_000);
+    private static final Duration SETTLE = Duration.ofSeconds(5);
+    private static final String BODY = """
+            {"id":1,"name":"Bench","category":"Bench","price":1.00}""";
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger maxInFlight = new AtomicInteger();
+    private static final AtomicInteger missingCorrelationIds = new AtomicInteger();
+    private static final AtomicReference<Sinks.Empty<Void>> release = new AtomicReference<>();
+    private static LoopResources productServiceLoops;
+    private static DisposableServer productService;
+
+    @BeforeAll
+    static void startProductService() {
+        // Own event loops: closing an application context disposes the global reactor-netty resources.
+        productServiceLoops = LoopResources.create("product-service-stub");
+        productService = HttpServer.create()
+                .runOn(productServiceLoops)
+                .port(0)
+                .route(routes -> routes.get("/products/{id}", (request, response) -> {
+                    String correlationId = request.requestHeaders().get(CorrelationIdConstants.HEADER_NAME);
+                    if (correlationId == null || correlationId.isBlank()) {
+                        missingCorrelationIds.incrementAndGet();
+                    }
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return response
+                            .header("Content-Type", "application/json")
+                            .header("ETag", "\"1-0\"")
+                            .sendString(release.get().asMono()
+                                    .then(Mono.fromSupplier(() -> {
+                                        inFlight.decrementAndGet();
+                                        return BODY;
+                                    })));
+                }))
+                .bindNow();
+    }
+
+    @AfterAll
+    static void stopProductService() {
+        productService.disposeNow();
+        productServiceLoops.disposeLater().block();
+    }
+
+    @Test
+    void reactiveStackShouldHoldEveryConnectionOpen() {
+        // Reactive first: the workers of a closed Tomcat take a while to die and would count as reactive threads.
+        Result reactive = run("reactive");
+        Result servlet = run("servlet");
+
+        assertThat(servlet.errors()).isZero();
+        assertThat(reactive.errors()).isZero();
+        assertThat(reactive.maxInFlight()).isEqualTo(CONNECTIONS);
+        assertThat(reactive.missingCorrelationIds()).isZero();
+    }
+
+    private static Result run(String webApplicationType) {
+        inFlight.set(0);
+        maxInFlight.set(0);
+        missingCorrelationIds.set(0);
+        release.set(Sinks.empty());
+
+        try (ConfigurableApplicationContext context = start(webApplicationType)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            ConnectionProvider connections = ConnectionProvider.builder("benchmark")
+                    .maxConnections(CONNECTIONS)
+                    .pendingAcquireMaxCount(-1)
+                    .build();
+            try {
+                String authorization = "Bearer " + createTestJwt();
+                HttpClient client = HttpClient.create(connections)
+                        .baseUrl("http://localhost:" + port)
+                        .headers(headers -> headers.set("Authorization", authorization))
+                        .responseTimeout(Duration.ofMinutes(1));
+
+                long heapBefore = usedHeapAfterGc();
+                int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+                // Distinct ids, so neither request coalescing nor caching folds requests together.
+                Mono<List<Integer>> statuses = Flux.range(1, CONNECTIONS)
+                        .flatMap(id -> client.get()
+                                .uri("/products/" + id)
+                                .responseSingle((response, body) -> body.thenReturn(response.status().code()))
+                                .onErrorReturn(-1), CONNECTIONS)
+                        .collectList()
+                        .cache();
+                statuses.subscribe();
+
+                awaitPlateau();
+                int held = maxInFlight.get();
+                long heapHeld = usedHeapAfterGc();
+                int threadsHeld = ManagementFactory.getThreadMXBean().getThreadCount();
+
+                release.get().tryEmitEmpty();
+                long errors = statuses.block(Duration.ofMinutes(2)).stream()
+                        .filter(status -> status != 200)
+                        .count();
+
+                Result result = new Result(held, errors, missingCorrelationIds.get(),
+                        (heapHeld - heapBefore) / Math.max(1, held), threadsHeld - threadsBefore);
+                System.out.printf("%-8s connections=%d max-in-flight=%d errors=%d heap/in-flight=%dB threads+=%d%n",
+                        webApplicationType, CONNECTIONS, result.maxInFlight(), result.errors(),
+                        result.heapPerInFlight(), result.extraThreads());
+                return result;
+            } finally {
+                connections.disposeLater().block();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String webApplicationType) {
+        // Command-line arguments, since application.yml would win over SpringApplicationBuilder default properties.
+        return new SpringApplicationBuilder(ApiServiceApplication.class).run(
+                "--spring.profiles.active=" + ("reactive".equals(webApplicationType) ? "reactive" : "default"),
+                "--server.port=0",
+                "--jwt.secret=0123456789_0123456789_0123456789_01",
+                "--eureka.client.enabled=false",
+                "--spring.cloud.discovery.client.simple.instances.product-service[0].uri=http://localhost:"
+                        + productService.port(),
+                "--logging.level.root=WARN",
+                // Take every protection that would shed or queue load out of the way; this measures the stack.
+                "--product-service.client.max-connections=" + CONNECTIONS,
+                "--product-service.client.pending-acquire-max-count=-1",
+                "--product-service.client.response-timeout=1m",
+                "--product-service.client.adaptive-limit.enabled=false",
+                "--product-service.client.batch.enabled=false",
+                "--resilience4j.bulkhead.instances.dbService.maxConcurrentCalls=" + CONNECTIONS,
+                "--resilience4j.timelimiter.instances.dbService.timeoutDuration=1m");
+    }
+
+    // Waits until no new request has reached product-service for a while.
+    private static void awaitPlateau() {
+        int last = -1;
+        while (maxInFlight.get() != last) {
+            last = maxInFlight.get();
+            if (last == CONNECTIONS) {
+                return;
+            }
+            Mono.delay(SETTLE).block();
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private record Result(int maxInFlight, long errors, int missingCorrelationIds, long heapPerInFlight,
+                          int extraThreads) {
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.api.config;
+
+import com.example.common.loadbalancer.InstanceLoadTracker;
+import com.example.common.loadbalancer.LatencyAwareLoadBalancer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerProperties;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Three product-service replicas, one of them slowed down the way /dev/chaos does it; the same load is sent through
+// round-robin and through the latency-aware balancer.
+// Run with: mvn -pl api test -Pbenchmark [-Dbenchmark.concurrency=50] [-Dbenchmark.chaos-delay-ms=200]
+@Tag("benchmark")
+class LoadBalancerBenchmarkTest {
+
+    private static final String SERVICE_ID = "product-service";
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 50);
+    private static final int REQUESTS = 5_000;
+    private static final Duration CHAOS_DELAY = Duration.ofMillis(Integer.getInteger("benchmark.chaos-delay-ms", 200));
+
+    private static final List<DisposableServer> replicas = new ArrayList<>();
+
+    @BeforeAll
+    static void startReplicas() {
+        replicas.add(replica(Duration.ofMillis(5)));
+        replicas.add(replica(Duration.ofMillis(5)));
+        replicas.add(replica(Duration.ofMillis(5).plus(CHAOS_DELAY)));
+    }
+
+    @AfterAll
+    static void stopReplicas() {
+        replicas.forEach(DisposableServer::disposeNow);
+    }
+
+    private static DisposableServer replica(Duration delay) {
+        return HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/products/{id}", (request, response) -> response
+                        .header("Content-Type", "application/json")
+                        .sendString(Mono.delay(delay).thenReturn("{\"id\":1}"))))
+                .bindNow();
+    }
+
+    private static ServiceInstance[] instances() {
+        return replicas.stream()
+                .map(replica -> new DefaultServiceInstance(
+                        SERVICE_ID + "-" + replica.port(), SERVICE_ID, "localhost", replica.port(), false))
+                .toArray(ServiceInstance[]::new);
+    }
+
+    @Test
+    void latencyAwareBalancerShouldKeepTheTailOffTheSlowReplica() {
+        Result roundRobin = run("round-robin", new RoundRobinLoadBalancer(
+                ServiceInstanceListSuppliers.toProvider(SERVICE_ID, instances()), SERVICE_ID), null);
+
+        InstanceLoadTracker tracker =
+                new InstanceLoadTracker(Duration.ofSeconds(10), Duration.ofSeconds(1), Duration.ofSeconds(30));
+        Result latencyAware = run("latency-aware", new LatencyAwareLoadBalancer(
+                ServiceInstanceListSuppliers.toProvider(SERVICE_ID, instances()), SERVICE_ID, tracker), tracker);
+
+        assertThat(latencyAware.errors()).isZero();
+        assertThat(latencyAware.p99()).isLessThan(roundRobin.p99());
+    }
+
+    private static Result run(String scenario, ReactiveLoadBalancer<ServiceInstance> balancer,
+                              InstanceLoadTracker tracker) {
+        WebClient client = WebClient.builder()
+                .baseUrl("http://" + SERVICE_ID)
+                .filter(new ReactorLoadBalancerExchangeFilterFunction(factory(balancer, tracker), List.of()))
+                .build();
+
+        // Warm-up: until the first answers come back every replica looks the same.
+        round(client);
+        long[] samples = round(client);
+
+        long errors = Arrays.stream(samples).filter(latency -> latency < 0).count();
+        long[] latencies = Arrays.stream(samples).filter(latency -> latency >= 0).toArray();
+        Result result = new Result(
+                latencies[latencies.length / 2] / 1_000_000.0,
+                latencies[Math.max(0, (int) (latencies.length * 0.99) - 1)] / 1_000_000.0,
+                errors);
+        System.out.printf("%-14s replicas=%d chaos-delay=%dms concurrency=%d requests=%d p50=%.2fms p99=%.2fms errors=%d%n",
+                scenario, replicas.size(), CHAOS_DELAY.toMillis(), CONCURRENCY, REQUESTS,
+                result.p50(), result.p99(), result.errors());
+        return result;
+    }
+
+    // Latency in nanos per request, -1 for a failed request.
+    private static long[] round(WebClient client) {
+        return Flux.range(0, REQUESTS)
+                .flatMap(i -> Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return client.get()
+                            .uri("/products/{id}", 1)
+                            .retrieve()
+                            .toBodilessEntity()
+                            .then(Mono.fromSupplier(() -> System.nanoTime() - start))
+                            .onErrorReturn(-1L);
+                }), CONCURRENCY)
+                .collectList()
+                .block()
+                .stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+    }
+
+    // Stands in for LoadBalancerClientFactory: one balancer, plus the tracker as the lifecycle the filter reports to.
+    private static ReactiveLoadBalancer.Factory<ServiceInstance> factory(
+            ReactiveLoadBalancer<ServiceInstance> balancer, InstanceLoadTracker tracker) {
+        return new ReactiveLoadBalancer.Factory<>() {
+            @Override
+            public ReactiveLoadBalancer<ServiceInstance> getInstance(String serviceId) {
+                return balancer;
+            }
+
+            @Override
+            public LoadBalancerProperties getProperties(String serviceId) {
+                return new LoadBalancerProperties();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <X> Map<String, X> getInstances(String name, Class<X> type) {
+                return tracker != null && type == LoadBalancerLifecycle.class
+                        ? Map.of("instanceLoadTracker", (X) tracker)
+                        : Map.of();
+            }
+
+            @Override
+            public <X> X getInstance(String name, Class<?> clazz, Class<?>... generics) {
+                return null;
+            }
+        };
+    }
+
+    private record Result(double p50, double p99, long errors) {
+    }
+}
@@ -7,15 +7,27 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.MDC;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.context.Context;
 
 import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 class WebClientConfigTest {
 
+    private final WebClientConfig config = new WebClientConfig();
+
     private MockWebServer server;
 
     @BeforeEach
@@ -34,7 +46,6 @@ class WebClientConfigTest {
     void shouldPropagateCorrelationIdHeader() throws Exception {
         MDC.put(CorrelationIdConstants.MDC_KEY, "CID-123");
 
-        WebClientConfig config = new WebClientConfig();
         ExchangeFilterFunction cidFilter = config.correlationIdClientFilter();
 
         WebClient client = WebClient.builder()
@@ -52,4 +63,34 @@ class WebClientConfigTest {
         assertThat(recorded.getHeader(CorrelationIdConstants.HEADER_NAME))
                 .isEqualTo("CID-123");
     }
+
+    @Test
+    void connectionProviderShouldUseConfiguredLimits() {
+        ConnectionProvider provider = config.productServiceConnectionProvider(
+                42, 100, Duration.ofSeconds(1), Duration.ofSeconds(10), Duration.ofMinutes(1), Duration.ofSeconds(5));
+        try {
+            assertThat(provider.name()).isEqualTo("product-service");
+            assertThat(provider.maxConnections()).isEqualTo(42);
+        } finally {
+            provider.dispose();
+        }
+    }
+
+    @Test
+    void correlationIdClientFilterShouldReadTheIdFromTheReactorContext() {
+        AtomicReference<ClientRequest> sent = new AtomicReference<>();
+        ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://product-service/products"))
+                .header(CorrelationIdConstants.HEADER_NAME, "")
+                .build();
+
+        config.correlationIdClientFilter()
+                .filter(request, out -> {
+                    sent.set(out);
+                    return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+                })
+                .contextWrite(Context.of(CorrelationIdConstants.CONTEXT_KEY, "ctx-id"))
+                .block();
+
+        assertThat(sent.get().headers().get(CorrelationIdConstants.HEADER_NAME)).containsExactly("ctx-id");
+    }
 }
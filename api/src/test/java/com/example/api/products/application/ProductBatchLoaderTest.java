@@ -0,0 +1,103 @@
+package com.example.api.products.application;
+
+import com.example.api.products.client.ProductDbClient;
+import com.example.api.products.dto.ProductDto;
+import com.example.common.product.dto.VersionedItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class ProductBatchLoaderTest {
+
+    private final ProductDbClient productDbClient = mock(ProductDbClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ProductBatchLoader loader(Duration window, int maxSize) {
+        return new ProductBatchLoader(productDbClient, meterRegistry, true, window, maxSize, Schedulers.parallel());
+    }
+
+    private static VersionedItem<ProductDto> item(long id) {
+        ProductDto dto = new ProductDto();
+        dto.setId(id);
+        dto.setName("Product " + id);
+        return new VersionedItem<>("\"" + id + "-0\"", dto);
+    }
+
+    @Test
+    void loadsWithinTheWindowShouldShareOneMultiGet() {
+        when(productDbClient.getProductsByIds(List.of(1L, 2L, 3L)))
+                .thenReturn(Mono.just(List.of(item(2), item(1))));
+        ProductBatchLoader loader = loader(Duration.ofMillis(50), 64);
+
+        Mono<ResponseEntity<ProductDto>> first = loader.load(1L).cache();
+        Mono<ResponseEntity<ProductDto>> second = loader.load(2L).cache();
+        Mono<ResponseEntity<ProductDto>> again = loader.load(1L).cache();
+        Mono<ResponseEntity<ProductDto>> missing = loader.load(3L).cache();
+        first.subscribe(r -> {}, e -> {});
+        second.subscribe(r -> {}, e -> {});
+        again.subscribe(r -> {}, e -> {});
+        missing.subscribe(r -> {}, e -> {});
+
+        assertThat(first.block(Duration.ofSeconds(1)).getBody().getName()).isEqualTo("Product 1");
+        assertThat(first.block().getHeaders().getETag()).isEqualTo("\"1-0\"");
+        assertThat(second.block().getBody().getName()).isEqualTo("Product 2");
+        assertThat(again.block().getBody().getId()).isEqualTo(1L);
+        assertThatThrownBy(missing::block)
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+
+        verify(productDbClient, times(1)).getProductsByIds(anyCollection());
+        assertThat(meterRegistry.get(ProductBatchLoader.METRIC_NAME).summary().totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void fullBatchShouldBeSentWithoutWaitingForTheWindow() {
+        when(productDbClient.getProductsByIds(List.of(1L, 2L)))
+                .thenReturn(Mono.just(List.of(item(1), item(2))));
+        ProductBatchLoader loader = loader(Duration.ofHours(1), 2);
+
+        Mono<ResponseEntity<ProductDto>> first = loader.load(1L).cache();
+        first.subscribe();
+        ResponseEntity<ProductDto> second = loader.load(2L).block(Duration.ofSeconds(1));
+
+        assertThat(second.getBody().getId()).isEqualTo(2L);
+        assertThat(first.block(Duration.ofSeconds(1)).getBody().getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void failedMultiGetShouldFailEveryCaller() {
+        when(productDbClient.getProductsByIds(anyCollection()))
+                .thenReturn(Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE)));
+        ProductBatchLoader loader = loader(Duration.ofMillis(10), 64);
+
+        Mono<ResponseEntity<ProductDto>> first = loader.load(1L).cache();
+        first.subscribe(r -> {}, e -> {});
+
+        assertThatThrownBy(() -> loader.load(2L).block(Duration.ofSeconds(1)))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> first.block(Duration.ofSeconds(1)))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void disabledLoaderShouldCallSingleGet() {
+        ProductDto dto = item(7).item();
+        when(productDbClient.getProductById(7L, null)).thenReturn(Mono.just(ResponseEntity.ok(dto)));
+        ProductBatchLoader loader = new ProductBatchLoader(productDbClient, meterRegistry, false, Duration.ofMillis(2), 64);
+
+        assertThat(loader.load(7L).block().getBody()).isSameAs(dto);
+        verify(productDbClient, never()).getProductsByIds(anyCollection());
+    }
+}
@@ -3,11 +3,18 @@ package com.example.api.products.application;
 import com.example.api.products.client.ProductDbClient;
 import com.example.api.products.dto.ProductDto;
 import com.example.api.products.dto.ProductSearchCriteria;
+import com.example.common.product.dto.BatchResponse;
+import com.example.common.product.dto.CursorPageResponse;
 import com.example.common.product.dto.PageResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -21,7 +28,11 @@ class ProductServiceTest {
     @BeforeEach
     void setUp() {
         productDbClient = mock(ProductDbClient.class);
-        productService = new ProductService(productDbClient);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        productService = new ProductService(
+                productDbClient,
+                new RequestCoalescer(meterRegistry),
+                new ProductBatchLoader(productDbClient, meterRegistry, false, Duration.ZERO, 1));
     }
 
     @Test
@@ -43,14 +54,14 @@ class ProductServiceTest {
                 true
         );
 
-        when(productDbClient.getProducts(anyInt(), anyInt(), anyList(), isNull(), isNull()))
-                .thenReturn(Mono.just(response));
+        when(productDbClient.getProducts(anyInt(), anyInt(), anyList(), isNull(), isNull(), isNull()))
+                .thenReturn(Mono.just(ResponseEntity.ok(response)));
 
-        PageResponse<ProductDto> result = productService.getProducts(criteria).block();
+        PageResponse<ProductDto> result = productService.getProducts(criteria, null).block().getBody();
 
         assertThat(result).isSameAs(response);
 
-        verify(productDbClient).getProducts(2, 25, criteria.sort(), null, null);
+        verify(productDbClient).getProducts(2, 25, criteria.sort(), null, null, null);
     }
 
     @Test
@@ -72,14 +83,74 @@ class ProductServiceTest {
                 true
         );
 
-        when(productDbClient.getProducts(0, 10, criteria.sort(), "Laptop", "Electronics"))
-                .thenReturn(Mono.just(response));
+        when(productDbClient.getProducts(0, 10, criteria.sort(), "Laptop", "Electronics", null))
+                .thenReturn(Mono.just(ResponseEntity.ok(response)));
 
-        PageResponse<ProductDto> result = productService.getProducts(criteria).block();
+        PageResponse<ProductDto> result = productService.getProducts(criteria, null).block().getBody();
 
         assertThat(result).isSameAs(response);
 
-        verify(productDbClient).getProducts(0, 10, criteria.sort(), "Laptop", "Electronics");
+        verify(productDbClient).getProducts(0, 10, criteria.sort(), "Laptop", "Electronics", null);
+    }
+
+    @Test
+    void getProductsWithoutTotalShouldUseSliceEndpoint() {
+        ProductSearchCriteria criteria = new ProductSearchCriteria(
+                1,
+                20,
+                List.of("price,desc"),
+                null,
+                "Electronics",
+                false
+        );
+
+        PageResponse<ProductDto> response = new PageResponse<>(
+                List.of(new ProductDto()),
+                1,
+                20,
+                null,
+                null,
+                true,
+                false,
+                false
+        );
+
+        when(productDbClient.getProductSlice(1, 20, criteria.sort(), null, "Electronics", null))
+                .thenReturn(Mono.just(ResponseEntity.ok(response)));
+
+        PageResponse<ProductDto> result = productService.getProducts(criteria, null).block().getBody();
+
+        assertThat(result).isSameAs(response);
+
+        verify(productDbClient).getProductSlice(1, 20, criteria.sort(), null, "Electronics", null);
+        verifyNoMoreInteractions(productDbClient);
+    }
+
+    @Test
+    void getProductsAfterShouldDelegateCursorToDbClient() {
+        ProductSearchCriteria criteria = new ProductSearchCriteria(
+                0,
+                10,
+                List.of("name"),
+                "Laptop",
+                null
+        );
+
+        CursorPageResponse<ProductDto> response = new CursorPageResponse<>(
+                List.of(new ProductDto()),
+                1,
+                "next-cursor",
+                false
+        );
+
+        when(productDbClient.getProductsAfter("cursor", 10, criteria.sort(), "Laptop", null, null))
+                .thenReturn(Mono.just(ResponseEntity.ok(response)));
+
+        CursorPageResponse<ProductDto> result = productService.getProductsAfter(criteria, "cursor", null).block().getBody();
+
+        assertThat(result).isSameAs(response);
+
+        verify(productDbClient).getProductsAfter("cursor", 10, criteria.sort(), "Laptop", null, null);
     }
 
     @Test
@@ -87,12 +158,12 @@ class ProductServiceTest {
         ProductDto dto = new ProductDto();
         dto.setId(1L);
 
-        when(productDbClient.getProductById(1L)).thenReturn(Mono.just(dto));
+        when(productDbClient.getProductById(1L, "\"1-0\"")).thenReturn(Mono.just(ResponseEntity.ok(dto)));
 
-        ProductDto result = productService.getProduct(1L).block();
+        ProductDto result = productService.getProduct(1L, "\"1-0\"").block().getBody();
 
         assertThat(result).isSameAs(dto);
-        verify(productDbClient).getProductById(1L);
+        verify(productDbClient).getProductById(1L, "\"1-0\"");
     }
 
     @Test
@@ -109,12 +180,13 @@ class ProductServiceTest {
     @Test
     void updateShouldDelegateToDbClient() {
         ProductDto dto = new ProductDto();
-        when(productDbClient.updateProduct(5L, dto)).thenReturn(Mono.just(dto));
+        when(productDbClient.updateProduct(5L, dto, "\"5-2\"")).thenReturn(Mono.just(ResponseEntity.ok(dto)));
 
-        ProductDto result = productService.update(5L, dto).block();
+        ResponseEntity<ProductDto> result = productService.update(5L, dto, "\"5-2\"").block();
 
-        assertThat(result).isSameAs(dto);
-        verify(productDbClient).updateProduct(5L, dto);
+        assertThat(result).isNotNull();
+        assertThat(result.getBody()).isSameAs(dto);
+        verify(productDbClient).updateProduct(5L, dto, "\"5-2\"");
     }
 
     @Test
@@ -125,4 +197,42 @@ class ProductServiceTest {
 
         verify(productDbClient).deleteProduct(3L);
     }
+
+    @Test
+    void batchOperationsShouldDelegateToDbClient() {
+        List<ProductDto> dtos = List.of(new ProductDto());
+        BatchResponse<ProductDto> response = BatchResponse.of(List.of());
+        when(productDbClient.createProducts(dtos)).thenReturn(Mono.just(response));
+        when(productDbClient.updateProducts(dtos)).thenReturn(Mono.just(response));
+        when(productDbClient.deleteProducts(List.of(1L))).thenReturn(Mono.just(response));
+
+        assertThat(productService.createAll(dtos).block()).isSameAs(response);
+        assertThat(productService.updateAll(dtos).block()).isSameAs(response);
+        assertThat(productService.deleteAll(List.of(1L)).block()).isSameAs(response);
+    }
+
+    @Test
+    void concurrentLookupsForSameIdShouldShareOneUpstreamCall() {
+        Sinks.One<ResponseEntity<ProductDto>> upstream = Sinks.one();
+        when(productDbClient.getProductById(4L, null)).thenReturn(upstream.asMono());
+
+        List<ResponseEntity<ProductDto>> results = new ArrayList<>();
+        productService.getProduct(4L, null).subscribe(results::add);
+        productService.getProduct(4L, null).subscribe(results::add);
+        upstream.tryEmitValue(ResponseEntity.ok(new ProductDto()));
+
+        assertThat(results).hasSize(2);
+        verify(productDbClient, times(1)).getProductById(4L, null);
+    }
+
+    @Test
+    void searchesShouldSendTheOriginalFiltersUpstream() {
+        ProductSearchCriteria criteria = new ProductSearchCriteria(0, 10, List.of(" name,desc "), " Laptop ", " ");
+        when(productDbClient.getProducts(anyInt(), anyInt(), anyList(), any(), any(), isNull()))
+                .thenReturn(Mono.just(ResponseEntity.ok(new PageResponse<>(List.of(), 0, 10, 0L, 0, true))));
+
+        productService.getProducts(criteria, null).block();
+
+        verify(productDbClient).getProducts(0, 10, List.of(" name,desc "), " Laptop ", " ", null);
+    }
 }
@@ -0,0 +1,86 @@
+package com.example.api.products.application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescer coalescer = new RequestCoalescer(meterRegistry);
+
+    @Test
+    void concurrentSubscribersShouldShareOneUpstreamCall() {
+        AtomicInteger calls = new AtomicInteger();
+        Sinks.One<String> upstream = Sinks.one();
+
+        List<String> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            coalescer.coalesce("get", 1L, () -> {
+                calls.incrementAndGet();
+                return upstream.asMono();
+            }).subscribe(results::add);
+        }
+        assertThat(coalescer.inFlight()).isEqualTo(1);
+
+        upstream.tryEmitValue("product");
+
+        assertThat(calls).hasValue(1);
+        assertThat(results).containsExactly("product", "product", "product");
+        assertThat(coalescer.inFlight()).isZero();
+        assertThat(meterRegistry.get(RequestCoalescer.METRIC_NAME).tag("outcome", "collapsed").counter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get(RequestCoalescer.METRIC_NAME).tag("outcome", "leader").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void completedCallsShouldNotBeReused() {
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            coalescer.coalesce("get", 1L, () -> Mono.fromSupplier(calls::incrementAndGet)).block();
+        }
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void errorsShouldNotBeCached() {
+        Mono<String> failing = coalescer.coalesce("get", 1L, () -> Mono.error(new IllegalStateException("boom")));
+        assertThatThrownBy(failing::block).isInstanceOf(IllegalStateException.class);
+
+        assertThat(coalescer.coalesce("get", 1L, () -> Mono.just("recovered")).block()).isEqualTo("recovered");
+        assertThat(coalescer.inFlight()).isZero();
+    }
+
+    @Test
+    void differentKeysAndOperationsShouldNotShare() {
+        Sinks.One<String> first = Sinks.one();
+        Sinks.One<String> second = Sinks.one();
+        Sinks.One<String> third = Sinks.one();
+
+        coalescer.coalesce("get", 1L, first::asMono).subscribe();
+        coalescer.coalesce("get", 2L, second::asMono).subscribe();
+        coalescer.coalesce("search", 1L, third::asMono).subscribe();
+
+        assertThat(coalescer.inFlight()).isEqualTo(3);
+    }
+
+    @Test
+    void cancellingAllSubscribersShouldReleaseTheKey() {
+        Sinks.One<String> upstream = Sinks.one();
+
+        coalescer.coalesce("get", 1L, upstream::asMono).subscribe().dispose();
+
+        assertThat(coalescer.inFlight()).isZero();
+    }
+}
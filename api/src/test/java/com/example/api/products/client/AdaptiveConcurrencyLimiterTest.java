@@ -0,0 +1,195 @@
+package com.example.api.products.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final ClientRequest REQUEST =
+            ClientRequest.create(HttpMethod.GET, URI.create("http://product-service/products/1")).build();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicLong now = new AtomicLong();
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit, Duration latencyThreshold) {
+        return new AdaptiveConcurrencyLimiter(
+                meterRegistry, true, initialLimit, 2, 10, 0.5, latencyThreshold, now::get);
+    }
+
+    private static ExchangeFunction respondWith(HttpStatus status) {
+        return request -> Mono.just(ClientResponse.create(status).build());
+    }
+
+    // Reads the body the way WebClient does; the permit is only given back once the body has ended.
+    private static Mono<Void> call(AdaptiveConcurrencyLimiter limiter, ExchangeFunction exchange) {
+        return limiter.filter(REQUEST, exchange).flatMap(ClientResponse::releaseBody);
+    }
+
+    @Test
+    void callsAboveTheLimitShouldBeRejectedUntilAPermitIsReleased() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, Duration.ofSeconds(1));
+        List<Sinks.One<ClientResponse>> pending = new ArrayList<>();
+        ExchangeFunction slow = request -> {
+            Sinks.One<ClientResponse> sink = Sinks.one();
+            pending.add(sink);
+            return sink.asMono();
+        };
+
+        call(limiter, slow).subscribe();
+        call(limiter, slow).subscribe();
+
+        assertThatThrownBy(() -> call(limiter, slow).block())
+                .isInstanceOf(ConcurrencyLimitExceededException.class);
+        assertThat(meterRegistry.get(AdaptiveConcurrencyLimiter.METRIC_NAME + ".rejected").counter().count())
+                .isEqualTo(1);
+
+        pending.getFirst().tryEmitValue(ClientResponse.create(HttpStatus.OK).build());
+
+        assertThat(limiter.inFlight()).isEqualTo(1);
+        call(limiter, respondWith(HttpStatus.OK)).block();
+        assertThat(limiter.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void fastSuccessesShouldRaiseTheLimitUpToTheMaximum() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, Duration.ofSeconds(1));
+        List<Sinks.One<ClientResponse>> pending = new ArrayList<>();
+        ExchangeFunction held = request -> {
+            Sinks.One<ClientResponse> sink = Sinks.one();
+            pending.add(sink);
+            return sink.asMono();
+        };
+
+        for (int round = 0; round < 20; round++) {
+            int permits = limiter.limit();
+            for (int i = 0; i < permits; i++) {
+                call(limiter, held).subscribe();
+            }
+            pending.forEach(sink -> sink.tryEmitValue(ClientResponse.create(HttpStatus.OK).build()));
+            pending.clear();
+        }
+
+        assertThat(limiter.limit()).isEqualTo(10);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void overloadSignalsShouldCutTheLimitButNotBelowTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, Duration.ofSeconds(1));
+
+        call(limiter, respondWith(HttpStatus.SERVICE_UNAVAILABLE)).block();
+        assertThat(limiter.limit()).isEqualTo(4);
+
+        assertThatThrownBy(() -> call(limiter, request -> Mono.error(new IOException("reset"))).block())
+                .hasCauseInstanceOf(IOException.class);
+        assertThat(limiter.limit()).isEqualTo(2);
+
+        call(limiter, respondWith(HttpStatus.TOO_MANY_REQUESTS)).block();
+        assertThat(limiter.limit()).isEqualTo(2);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void slowResponsesShouldCountAsOverload() {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, Duration.ofSeconds(1));
+
+        call(limiter, request -> Mono.fromSupplier(() -> {
+            now.addAndGet(Duration.ofSeconds(2).toNanos());
+            return ClientResponse.create(HttpStatus.OK).build();
+        })).block();
+
+        assertThat(limiter.limit()).isEqualTo(4);
+    }
+
+    @Test
+    void cancelledCallsShouldGiveTheirPermitBack() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, Duration.ofSeconds(1));
+
+        Disposable call = limiter.filter(REQUEST, request -> Mono.never()).subscribe();
+        assertThat(limiter.inFlight()).isEqualTo(1);
+
+        call.dispose();
+
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void streamedBodiesShouldHoldTheirPermitUntilTheyEnd() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, Duration.ofSeconds(1));
+        Sinks.Many<DataBuffer> body = Sinks.many().unicast().onBackpressureBuffer();
+        ExchangeFunction streaming = request ->
+                Mono.just(ClientResponse.create(HttpStatus.OK).body(body.asFlux()).build());
+
+        ClientResponse response = limiter.filter(REQUEST, streaming).block();
+        Disposable reading = response.bodyToFlux(DataBuffer.class).subscribe(DataBufferUtils::release);
+        assertThat(limiter.inFlight()).isEqualTo(1);
+
+        body.tryEmitNext(DefaultDataBufferFactory.sharedInstance.wrap(new byte[]{1}));
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertThat(limiter.inFlight()).isEqualTo(1);
+
+        body.tryEmitComplete();
+        assertThat(reading.isDisposed()).isTrue();
+        assertThat(limiter.inFlight()).isZero();
+        // Judged at the headers: a long stream is a fast response, which raises the limit instead of cutting it.
+        assertThat(limiter.limit()).isEqualTo(3);
+    }
+
+    @Test
+    void failedOrCancelledBodiesShouldGiveTheirPermitBack() {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, Duration.ofSeconds(1));
+        Sinks.Many<DataBuffer> failing = Sinks.many().unicast().onBackpressureBuffer();
+
+        ClientResponse response = limiter.filter(REQUEST, request ->
+                Mono.just(ClientResponse.create(HttpStatus.OK).body(failing.asFlux()).build())).block();
+        response.bodyToFlux(DataBuffer.class).subscribe(DataBufferUtils::release, error -> { });
+        failing.tryEmitError(new IOException("reset"));
+
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(limiter.limit()).isEqualTo(4);
+
+        ClientResponse cancelled = limiter.filter(REQUEST, request ->
+                Mono.just(ClientResponse.create(HttpStatus.OK).body(Flux.never()).build())).block();
+        Disposable reading = cancelled.bodyToFlux(DataBuffer.class).subscribe();
+        assertThat(limiter.inFlight()).isEqualTo(1);
+
+        reading.dispose();
+
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(limiter.limit()).isEqualTo(4);
+    }
+
+    @Test
+    void disabledLimiterShouldPassEverythingThrough() {
+        AdaptiveConcurrencyLimiter limiter =
+                new AdaptiveConcurrencyLimiter(meterRegistry, false, 1, 1, 1, 0.5, Duration.ofSeconds(1));
+
+        limiter.filter(REQUEST, request -> Mono.never()).subscribe();
+
+        assertThat(limiter.filter(REQUEST, respondWith(HttpStatus.OK)).block()).isNotNull();
+        assertThat(limiter.inFlight()).isZero();
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.api.products.client;
+
+import com.example.api.config.WebClientConfig;
+import com.example.api.products.dto.ProductDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Run with: mvn -pl api test -Pbenchmark [-Dbenchmark.concurrency=1000]
+@Tag("benchmark")
+class ProductDbClientPoolBenchmarkTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 1_000);
+    private static final int ROUNDS = 5;
+    private static final String BODY = """
+            {"id":1,"name":"Bench","category":"Bench","price":1.00}""";
+
+    private static DisposableServer server;
+
+    @BeforeAll
+    static void startServer() {
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/products/{id}", (request, response) -> response
+                        .header("Content-Type", "application/json")
+                        .sendString(Mono.delay(Duration.ofMillis(5)).thenReturn(BODY))))
+                .bindNow();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.disposeNow();
+    }
+
+    @Test
+    void pooledClientShouldLowerTailLatency() {
+        // Previous behaviour: default HttpClient pool and a WebClient rebuilt for every call.
+        WebClient.Builder perCallBuilder = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create().responseTimeout(Duration.ofSeconds(5))))
+                .filter(toLocalServer());
+        run("per-call client", () -> perCallBuilder.clone()
+                .baseUrl("http://product-service")
+                .build()
+                .get()
+                .uri("/products/{id}", 1)
+                .retrieve()
+                .toEntity(ProductDto.class)
+                .then());
+
+        WebClientConfig config = new WebClientConfig();
+        ConnectionProvider provider = config.productServiceConnectionProvider(
+                200, 2_000, Duration.ofSeconds(2), Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofSeconds(30));
+        try {
+            WebClient.Builder pooledBuilder = config
+                    .webClientBuilder(config.correlationIdClientFilter(), provider, unlimited(),
+                            Duration.ofSeconds(2), Duration.ofSeconds(5))
+                    .filter(toLocalServer());
+            ProductDbClient client = new ProductDbClient(pooledBuilder, new RequestHedger(new SimpleMeterRegistry(), false, 0.95,
+                    Duration.ofMillis(100), Duration.ofMillis(20), Duration.ofSeconds(1), 10));
+            Result pooled = run("pooled client", () -> client.getProductById(1L, null).then());
+
+            assertThat(pooled.errors()).isZero();
+        } finally {
+            provider.dispose();
+        }
+    }
+
+    // This benchmark measures the pool, not load shedding.
+    private static AdaptiveConcurrencyLimiter unlimited() {
+        return new AdaptiveConcurrencyLimiter(new SimpleMeterRegistry(), false, 1, 1, 1, 1.0, Duration.ofSeconds(1));
+    }
+
+    private static ExchangeFilterFunction toLocalServer() {
+        return (request, next) -> next.exchange(ClientRequest.from(request)
+                .url(UriComponentsBuilder.fromUri(request.url())
+                        .host("localhost")
+                        .port(server.port())
+                        .build(true)
+                        .toUri())
+                .build());
+    }
+
+    private static Result run(String scenario, Supplier<Mono<Void>> call) {
+        round(call);
+
+        List<Long> latencies = new ArrayList<>();
+        for (int i = 0; i < ROUNDS; i++) {
+            latencies.addAll(round(call));
+        }
+        long errors = latencies.stream().filter(latency -> latency < 0).count();
+        long[] samples = latencies.stream().filter(latency -> latency >= 0).mapToLong(Long::longValue).sorted().toArray();
+
+        Result result = new Result(
+                samples.length == 0 ? 0 : samples[samples.length / 2] / 1_000_000.0,
+                samples.length == 0 ? 0 : samples[Math.max(0, (int) (samples.length * 0.99) - 1)] / 1_000_000.0,
+                errors);
+        System.out.printf("%-16s concurrency=%d requests=%d p50=%.2fms p99=%.2fms errors=%d%n",
+                scenario, CONCURRENCY, CONCURRENCY * ROUNDS, result.p50(), result.p99(), result.errors());
+        return result;
+    }
+
+    // Latency in nanos per request, -1 for a failed request.
+    private static List<Long> round(Supplier<Mono<Void>> call) {
+        return Flux.range(0, CONCURRENCY)
+                .flatMap(i -> Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return call.get()
+                            .then(Mono.fromSupplier(() -> System.nanoTime() - start))
+                            .onErrorReturn(-1L);
+                }), CONCURRENCY)
+                .collectList()
+                .block();
+    }
+
+    private record Result(double p50, double p99, long errors) {
+    }
+}
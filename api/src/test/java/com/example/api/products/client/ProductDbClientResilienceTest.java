@@ -0,0 +1,164 @@
+package com.example.api.products.client;
+
+import com.example.api.products.dto.ProductDto;
+import com.example.common.loadbalancer.LatencyAwareLoadBalancer;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Drives the proxied ProductDbClient against a fake product-service the same way /dev/chaos does.
+@SpringBootTest(
+        properties = {
+                "jwt.secret=0123456789_0123456789_0123456789_01",
+                "eureka.client.enabled=false",
+                "resilience4j.retry.instances.dbService.waitDuration=20ms",
+                "resilience4j.timelimiter.instances.dbService.timeoutDuration=1s"
+        }
+)
+class ProductDbClientResilienceTest {
+
+    private static MockWebServer productService;
+
+    @Autowired
+    private ProductDbClient productDbClient;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    @Autowired
+    private TimeLimiterRegistry timeLimiterRegistry;
+
+    @Autowired
+    private LoadBalancerClientFactory loadBalancerClientFactory;
+
+    @BeforeAll
+    static void startProductService() throws Exception {
+        productService = new MockWebServer();
+        productService.start();
+    }
+
+    @AfterAll
+    static void stopProductService() throws Exception {
+        productService.shutdown();
+    }
+
+    @DynamicPropertySource
+    static void registerProps(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.product-service[0].uri",
+                () -> productService.url("/").toString());
+    }
+
+    @BeforeEach
+    void resetBreaker() {
+        circuitBreakerRegistry.circuitBreaker("dbService").reset();
+    }
+
+    private static MockResponse status(int code) {
+        return new MockResponse()
+                .setResponseCode(code)
+                .addHeader("Content-Type", "application/json")
+                .setBody("{\"status\":" + code + ",\"message\":\"chaos\"}");
+    }
+
+    @Test
+    void configuredInstancesShouldBeTheOnesUsedByTheClient() {
+        assertThat(bulkheadRegistry.bulkhead("dbService").getBulkheadConfig().getMaxConcurrentCalls()).isEqualTo(150);
+        assertThat(timeLimiterRegistry.timeLimiter("dbService").getTimeLimiterConfig().getTimeoutDuration())
+                .isEqualTo(Duration.ofSeconds(1));
+        assertThat(circuitBreakerRegistry.circuitBreaker("dbService").getCircuitBreakerConfig()
+                .getSlidingWindowSize()).isEqualTo(10);
+        assertThat(loadBalancerClientFactory.getInstance("product-service")).isInstanceOf(LatencyAwareLoadBalancer.class);
+    }
+
+    @Test
+    void serverErrorsFromChaosShouldBeRetriedAndRecorded() {
+        int before = productService.getRequestCount();
+        productService.enqueue(status(500));
+        productService.enqueue(status(500));
+        productService.enqueue(status(500));
+
+        assertThatThrownBy(() -> productDbClient.induceChaos(0, 1.0).block())
+                .isInstanceOf(ResponseStatusException.class);
+
+        assertThat(productService.getRequestCount() - before).isEqualTo(3);
+        assertThat(circuitBreakerRegistry.circuitBreaker("dbService").getMetrics().getNumberOfFailedCalls())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void clientErrorsShouldNeitherBeRetriedNorRecorded() {
+        int before = productService.getRequestCount();
+        productService.enqueue(status(404));
+
+        assertThatThrownBy(() -> productDbClient.getProductById(42L, null).block())
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+
+        assertThat(productService.getRequestCount() - before).isEqualTo(1);
+        assertThat(circuitBreakerRegistry.circuitBreaker("dbService").getMetrics().getNumberOfFailedCalls())
+                .isZero();
+    }
+
+    @Test
+    void postShouldNotBeRetried() {
+        int before = productService.getRequestCount();
+        productService.enqueue(status(503));
+        ProductDto dto = new ProductDto();
+        dto.setName("Chair");
+        dto.setCategory("Furniture");
+        dto.setPrice(BigDecimal.TEN);
+
+        assertThatThrownBy(() -> productDbClient.createProduct(dto).block())
+                .isInstanceOf(ResponseStatusException.class);
+
+        assertThat(productService.getRequestCount() - before).isEqualTo(1);
+    }
+
+    @Test
+    void slowChaosShouldBeCutByTheTimeLimiter() {
+        for (int i = 0; i < 3; i++) {
+            productService.enqueue(status(200).setHeadersDelay(3, TimeUnit.SECONDS));
+        }
+
+        assertThatThrownBy(() -> productDbClient.induceChaos(3_000, 0).block(Duration.ofSeconds(10)))
+                .hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void openBreakerShouldFailFastWithoutCallingProductService() {
+        int before = productService.getRequestCount();
+        CircuitBreaker breaker = circuitBreakerRegistry.circuitBreaker("dbService");
+        breaker.transitionToOpenState();
+
+        assertThatThrownBy(() -> productDbClient.getProductById(42L, null).block())
+                .isInstanceOf(CallNotPermittedException.class);
+
+        assertThat(productService.getRequestCount() - before).isZero();
+    }
+}
@@ -3,10 +3,16 @@ package com.example.api.products.client;
 import com.example.api.products.dto.ProductDto;
 import com.example.common.CorrelationIdConstants;
 import com.example.common.error.ApiErrorResponse;
+import com.example.common.product.dto.BatchResponse;
+import com.example.common.product.dto.VersionedItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.MDC;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.ClientRequest;
@@ -14,10 +20,16 @@ import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.ExchangeFunction;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.http.ResponseEntity;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -48,6 +60,11 @@ class ProductDbClientTest {
         };
     }
 
+    private static RequestHedger noHedging() {
+        return new RequestHedger(new SimpleMeterRegistry(), false, 0.95,
+                Duration.ofMillis(100), Duration.ofMillis(20), Duration.ofSeconds(1), 10);
+    }
+
     @AfterEach
     void clearMdc() {
         MDC.clear();
@@ -71,7 +88,7 @@ class ProductDbClientTest {
         WebClient.Builder builder = WebClient.builder()
                 .exchangeFunction(exchangeFunction);
 
-        ProductDbClient client = new ProductDbClient(builder);
+        ProductDbClient client = new ProductDbClient(builder, noHedging());
 
         client.deleteProduct(1L).block();
 
@@ -98,9 +115,9 @@ class ProductDbClientTest {
         WebClient.Builder builder = WebClient.builder()
                 .exchangeFunction(exchangeFunction);
 
-        ProductDbClient client = new ProductDbClient(builder);
+        ProductDbClient client = new ProductDbClient(builder, noHedging());
 
-        Mono<ProductDto> result = client.getProductById(42L);
+        Mono<ResponseEntity<ProductDto>> result = client.getProductById(42L, null);
 
         assertThatThrownBy(result::block)
                 .isInstanceOf(ResponseStatusException.class)
@@ -141,14 +158,15 @@ class ProductDbClientTest {
         WebClient.Builder builder = WebClient.builder()
                 .exchangeFunction(exchangeFunction);
 
-        ProductDbClient client = new ProductDbClient(builder);
+        ProductDbClient client = new ProductDbClient(builder, noHedging());
 
         client.getProducts(
                 0,
                 10,
                 java.util.List.of("name,desc"),
                 "chair",
-                "Electronics"
+                "Electronics",
+                null
         ).block();
 
         ClientRequest request = capturedRequest.get();
@@ -161,4 +179,258 @@ class ProductDbClientTest {
         assertThat(query).contains("name=chair");
         assertThat(query).contains("category=Electronics");
     }
+
+    @Test
+    void getProductsAfterShouldPassCursorThroughUnchanged() {
+        AtomicReference<ClientRequest> capturedRequest = new AtomicReference<>();
+
+        ExchangeFunction exchangeFunction = request -> {
+            capturedRequest.set(request);
+
+            String json = """
+                    {
+                      "content": [],
+                      "pageSize": 0,
+                      "nextCursor": null,
+                      "last": true
+                    }
+                    """;
+
+            ClientResponse response = ClientResponse
+                    .create(HttpStatus.OK)
+                    .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                    .body(json)
+                    .build();
+
+            return Mono.just(response);
+        };
+
+        WebClient.Builder builder = WebClient.builder()
+                .exchangeFunction(exchangeFunction);
+
+        ProductDbClient client = new ProductDbClient(builder, noHedging());
+
+        var page = client.getProductsAfter(
+                "eyJuYW1lIjoiQSIsImlkIjoiMSJ9",
+                5,
+                java.util.List.of("name"),
+                null,
+                "Electronics",
+                null
+        ).block().getBody();
+
+        assertThat(page).isNotNull();
+        assertThat(page.last()).isTrue();
+
+        ClientRequest request = capturedRequest.get();
+        assertThat(request).isNotNull();
+
+        String query = request.url().getQuery();
+        assertThat(query).contains("after=eyJuYW1lIjoiQSIsImlkIjoiMSJ9");
+        assertThat(query).contains("size=5");
+        assertThat(query).contains("sort=name");
+        assertThat(query).contains("category=Electronics");
+        assertThat(query).doesNotContain("page=");
+        assertThat(query).doesNotContain("name=");
+    }
+
+    @Test
+    void getProductSliceShouldRequestPageWithoutTotals() {
+        AtomicReference<ClientRequest> capturedRequest = new AtomicReference<>();
+
+        ExchangeFunction exchangeFunction = request -> {
+            capturedRequest.set(request);
+
+            String json = """
+                    {
+                      "content": [],
+                      "pageNumber": 2,
+                      "pageSize": 10,
+                      "totalElements": null,
+                      "totalPages": null,
+                      "last": false,
+                      "hasNext": true
+                    }
+                    """;
+
+            ClientResponse response = ClientResponse
+                    .create(HttpStatus.OK)
+                    .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                    .body(json)
+                    .build();
+
+            return Mono.just(response);
+        };
+
+        WebClient.Builder builder = WebClient.builder()
+                .exchangeFunction(exchangeFunction);
+
+        ProductDbClient client = new ProductDbClient(builder, noHedging());
+
+        var page = client.getProductSlice(2, 10, null, "chair", null, null).block().getBody();
+
+        assertThat(page).isNotNull();
+        assertThat(page.totalElements()).isNull();
+        assertThat(page.totalPages()).isNull();
+        assertThat(page.hasNext()).isTrue();
+
+        String query = capturedRequest.get().url().getQuery();
+        assertThat(query).contains("page=2");
+        assertThat(query).contains("withTotal=false");
+        assertThat(query).contains("name=chair");
+    }
+
+    @Test
+    void getProductByIdShouldForwardIfNoneMatchAndRelayNotModified() {
+        AtomicReference<ClientRequest> capturedRequest = new AtomicReference<>();
+
+        ExchangeFunction exchangeFunction = request -> {
+            capturedRequest.set(request);
+            return Mono.just(ClientResponse
+                    .create(HttpStatus.NOT_MODIFIED)
+                    .header(HttpHeaders.ETAG, "\"42-1\"")
+                    .build());
+        };
+
+        ProductDbClient client = new ProductDbClient(WebClient.builder().exchangeFunction(exchangeFunction), noHedging());
+
+        ResponseEntity<ProductDto> response = client.getProductById(42L, "\"42-1\"").block();
+
+        assertThat(capturedRequest.get().headers().getFirst(HttpHeaders.IF_NONE_MATCH)).isEqualTo("\"42-1\"");
+        assertThat(response).isNotNull();
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"42-1\"");
+        assertThat(response.getBody()).isNull();
+    }
+
+    @Test
+    void getProductsByIdsShouldSendIdsAsOneQueryParameter() {
+        AtomicReference<ClientRequest> capturedRequest = new AtomicReference<>();
+
+        ExchangeFunction exchangeFunction = request -> {
+            capturedRequest.set(request);
+            return Mono.just(ClientResponse
+                    .create(HttpStatus.OK)
+                    .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                    .body("""
+                            [{"etag":"\\"3-1\\"","item":{"id":3,"name":"Chair"}}]""")
+                    .build());
+        };
+
+        ProductDbClient client = new ProductDbClient(WebClient.builder().exchangeFunction(exchangeFunction), noHedging());
+
+        List<VersionedItem<ProductDto>> items = client.getProductsByIds(List.of(3L, 4L)).block();
+
+        assertThat(capturedRequest.get().url().getPath()).isEqualTo("/products");
+        assertThat(capturedRequest.get().url().getQuery()).isEqualTo("ids=3,4");
+        assertThat(items).hasSize(1);
+        assertThat(items.getFirst().etag()).isEqualTo("\"3-1\"");
+        assertThat(items.getFirst().item().getName()).isEqualTo("Chair");
+    }
+
+    @Test
+    void slowReadShouldBeHedgedWithTheCallersCorrelationId() {
+        List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+        ExchangeFunction exchangeFunction = request -> {
+            requests.add(request);
+            ClientResponse response = ClientResponse
+                    .create(HttpStatus.OK)
+                    .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                    .body("{\"id\":42,\"name\":\"Hedged\"}")
+                    .build();
+            return requests.size() == 1
+                    ? Mono.just(response).delayElement(Duration.ofSeconds(2))
+                    : Mono.just(response);
+        };
+        RequestHedger hedger = new RequestHedger(new SimpleMeterRegistry(), true, 0.95,
+                Duration.ofMillis(50), Duration.ofMillis(20), Duration.ofSeconds(1), 100);
+        ProductDbClient client = new ProductDbClient(WebClient.builder().exchangeFunction(exchangeFunction), hedger);
+        MDC.put(CorrelationIdConstants.MDC_KEY, "cid-hedge");
+
+        ResponseEntity<ProductDto> response = client.getProductById(42L, null).block(Duration.ofSeconds(1));
+
+        assertThat(response.getBody().getName()).isEqualTo("Hedged");
+        assertThat(requests).hasSize(2);
+        assertThat(requests).allSatisfy(request ->
+                assertThat(request.headers().getFirst(CorrelationIdConstants.HEADER_NAME)).isEqualTo("cid-hedge"));
+    }
+
+    @Test
+    void updateProductShouldForwardIfMatchAndSurfacePreconditionFailed() {
+        AtomicReference<ClientRequest> capturedRequest = new AtomicReference<>();
+
+        ExchangeFunction exchangeFunction = request -> {
+            capturedRequest.set(request);
+            return Mono.just(ClientResponse
+                    .create(HttpStatus.PRECONDITION_FAILED)
+                    .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                    .body("""
+                            {"status": 412, "error": "Precondition Failed", "message": "stale version"}
+                            """)
+                    .build());
+        };
+
+        ProductDbClient client = new ProductDbClient(WebClient.builder().exchangeFunction(exchangeFunction), noHedging());
+
+        assertThatThrownBy(() -> client.updateProduct(42L, new ProductDto(), "\"42-1\"").block())
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(ex -> assertThat(((ResponseStatusException) ex).getStatusCode())
+                        .isEqualTo(HttpStatus.PRECONDITION_FAILED));
+        assertThat(capturedRequest.get().headers().getFirst(HttpHeaders.IF_MATCH)).isEqualTo("\"42-1\"");
+    }
+
+    @Test
+    void deleteProductsShouldSendIdsAsDeleteBody() {
+        AtomicReference<ClientRequest> capturedRequest = new AtomicReference<>();
+
+        ExchangeFunction exchangeFunction = request -> {
+            capturedRequest.set(request);
+            return Mono.just(ClientResponse
+                    .create(HttpStatus.OK)
+                    .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                    .body("""
+                            {"succeeded": 1, "failed": 0, "results": [{"index": 0, "id": 7, "status": 204}]}
+                            """)
+                    .build());
+        };
+
+        ProductDbClient client = new ProductDbClient(WebClient.builder().exchangeFunction(exchangeFunction), noHedging());
+
+        BatchResponse<ProductDto> response = client.deleteProducts(List.of(7L)).block();
+
+        assertThat(capturedRequest.get().method()).isEqualTo(HttpMethod.DELETE);
+        assertThat(capturedRequest.get().url().getPath()).isEqualTo("/products/batch");
+        assertThat(response).isNotNull();
+        assertThat(response.succeeded()).isEqualTo(1);
+        assertThat(response.results().getFirst().id()).isEqualTo(7L);
+    }
+
+    @Test
+    void exportProductsShouldRelayBodyAsDataBuffers() {
+        AtomicReference<ClientRequest> capturedRequest = new AtomicReference<>();
+
+        ExchangeFunction exchangeFunction = request -> {
+            capturedRequest.set(request);
+            return Mono.just(ClientResponse
+                    .create(HttpStatus.OK)
+                    .header("Content-Type", MediaType.APPLICATION_NDJSON_VALUE)
+                    .body("{\"id\":1}\n{\"id\":2}\n")
+                    .build());
+        };
+
+        ProductDbClient client = new ProductDbClient(WebClient.builder().exchangeFunction(exchangeFunction), noHedging());
+
+        String body = client.exportProducts()
+                .map(buffer -> {
+                    String chunk = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return chunk;
+                })
+                .collect(Collectors.joining())
+                .block();
+
+        assertThat(capturedRequest.get().url().getPath()).isEqualTo("/products/export");
+        assertThat(capturedRequest.get().headers().getAccept()).containsExactly(MediaType.APPLICATION_NDJSON);
+        assertThat(body).isEqualTo("{\"id\":1}\n{\"id\":2}\n");
+    }
 }
@@ -0,0 +1,216 @@
+package com.example.api.products.client;
+
+import com.example.common.loadbalancer.InstanceLoadTracker;
+import com.example.common.loadbalancer.LatencyAwareLoadBalancer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestHedgerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RequestHedger hedger(double budgetPercent) {
+        return new RequestHedger(meterRegistry, true, 0.95,
+                Duration.ofMillis(50), Duration.ofMillis(10), Duration.ofSeconds(1), budgetPercent);
+    }
+
+    private double count(String outcome) {
+        var counter = meterRegistry.find(RequestHedger.METRIC_NAME).tag("outcome", outcome).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    // First call answers after firstDelay, every later call after laterDelay.
+    private static Supplier<Mono<String>> calls(AtomicInteger invocations, Duration firstDelay, Duration laterDelay) {
+        return () -> {
+            int attempt = invocations.incrementAndGet();
+            return Mono.delay(attempt == 1 ? firstDelay : laterDelay).map(tick -> attempt == 1 ? "primary" : "hedge");
+        };
+    }
+
+    @Test
+    void slowPrimaryShouldBeOvertakenByTheHedgeAndCancelled() {
+        AtomicInteger invocations = new AtomicInteger();
+        AtomicBoolean primaryCancelled = new AtomicBoolean();
+        Supplier<Mono<String>> call = () -> {
+            int attempt = invocations.incrementAndGet();
+            return attempt == 1
+                    ? Mono.delay(Duration.ofSeconds(2)).map(tick -> "primary").doOnCancel(() -> primaryCancelled.set(true))
+                    : Mono.just("hedge");
+        };
+
+        String result = hedger(100).hedge("get", call).block(Duration.ofSeconds(1));
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(invocations).hasValue(2);
+        assertThat(primaryCancelled).isTrue();
+        assertThat(count("fired")).isEqualTo(1);
+        assertThat(count("won")).isEqualTo(1);
+    }
+
+    @Test
+    void hedgeShouldGoToAnotherInstanceThanThePrimary() {
+        LatencyAwareLoadBalancer balancer = new LatencyAwareLoadBalancer(
+                ServiceInstanceListSuppliers.toProvider("product-service",
+                        new DefaultServiceInstance("a", "product-service", "localhost", 8081, false),
+                        new DefaultServiceInstance("b", "product-service", "localhost", 8082, false)),
+                "product-service",
+                new InstanceLoadTracker(Duration.ofSeconds(10), Duration.ofSeconds(1), Duration.ofSeconds(30)));
+        RequestHedger hedger = hedger(100);
+
+        for (int round = 0; round < 20; round++) {
+            List<String> chosen = new ArrayList<>();
+            Supplier<Mono<String>> call = () -> balancer.choose(new DefaultRequest<>())
+                    .flatMap(response -> {
+                        chosen.add(response.getServer().getInstanceId());
+                        return chosen.size() == 1
+                                ? Mono.delay(Duration.ofSeconds(2)).map(tick -> "primary")
+                                : Mono.just("hedge");
+                    });
+
+            assertThat(hedger.hedge("get", call).block(Duration.ofSeconds(1))).isEqualTo("hedge");
+            assertThat(chosen).containsExactlyInAnyOrder("a", "b");
+        }
+    }
+
+    @Test
+    void fastPrimaryShouldNotBeHedged() {
+        AtomicInteger invocations = new AtomicInteger();
+
+        String result = hedger(100).hedge("get", calls(invocations, Duration.ZERO, Duration.ZERO)).block();
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(invocations).hasValue(1);
+        assertThat(count("fired")).isZero();
+    }
+
+    @Test
+    void hedgesShouldStayWithinTheBudget() {
+        RequestHedger hedger = hedger(50);
+        AtomicInteger invocations = new AtomicInteger();
+
+        // Two requests earn one hedge: the first slow request cannot hedge yet, the second can.
+        assertThat(hedger.hedge("get", calls(invocations, Duration.ofMillis(150), Duration.ZERO)).block())
+                .isEqualTo("primary");
+        invocations.set(0);
+        assertThat(hedger.hedge("get", calls(invocations, Duration.ofMillis(150), Duration.ZERO)).block())
+                .isEqualTo("hedge");
+
+        assertThat(count("budget_exhausted")).isEqualTo(1);
+        assertThat(count("fired")).isEqualTo(1);
+    }
+
+    @Test
+    void primaryErrorShouldBeReturnedWithoutWaitingForTheHedge() {
+        RequestHedger hedger = hedger(100);
+
+        assertThatThrownBy(() -> hedger.hedge("get", () -> Mono.<String>error(new IllegalStateException("404")))
+                .block(Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(count("fired")).isZero();
+    }
+
+    @Test
+    void transientPrimaryErrorAfterTheHedgeFiredShouldLetTheHedgeAnswer() {
+        AtomicInteger invocations = new AtomicInteger();
+        Supplier<Mono<String>> call = () -> invocations.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(80)).then(Mono.error(
+                        new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "primary failed")))
+                : Mono.delay(Duration.ofMillis(100)).map(tick -> "hedge");
+
+        assertThat(hedger(100).hedge("get", call).block(Duration.ofSeconds(1))).isEqualTo("hedge");
+        assertThat(count("won")).isEqualTo(1);
+    }
+
+    @Test
+    void primaryErrorShouldBeReturnedWhenTheHedgeFailsToo() {
+        AtomicInteger invocations = new AtomicInteger();
+        ResponseStatusException primaryError = new ResponseStatusException(HttpStatus.BAD_GATEWAY, "primary failed");
+        Supplier<Mono<String>> call = () -> invocations.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(80)).then(Mono.error(primaryError))
+                : Mono.delay(Duration.ofMillis(100)).then(Mono.error(new IllegalStateException("hedge failed")));
+
+        assertThatThrownBy(() -> hedger(100).hedge("get", call).block(Duration.ofSeconds(1)))
+                .isSameAs(primaryError);
+    }
+
+    @Test
+    void clientErrorShouldFailFastEvenWithAHedgeInFlight() {
+        AtomicInteger invocations = new AtomicInteger();
+        AtomicBoolean hedgeCancelled = new AtomicBoolean();
+        Supplier<Mono<String>> call = () -> invocations.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(80)).then(Mono.error(
+                        new ResponseStatusException(HttpStatus.NOT_FOUND, "no such product")))
+                : Mono.delay(Duration.ofSeconds(2)).map(tick -> "hedge").doOnCancel(() -> hedgeCancelled.set(true));
+
+        assertThatThrownBy(() -> hedger(100).hedge("get", call).block(Duration.ofSeconds(1)))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("404");
+        assertThat(count("fired")).isEqualTo(1);
+        assertThat(hedgeCancelled).isTrue();
+    }
+
+    @Test
+    void emptyPrimaryShouldCompleteWithoutWaitingForTheHedge() {
+        AtomicInteger invocations = new AtomicInteger();
+
+        assertThat(hedger(100).hedge("get", () -> {
+            invocations.incrementAndGet();
+            return Mono.<String>empty();
+        }).block(Duration.ofSeconds(1))).isNull();
+        assertThat(invocations).hasValue(1);
+    }
+
+    @Test
+    void failingHedgeShouldLeaveThePrimaryToFinish() {
+        AtomicInteger invocations = new AtomicInteger();
+        Supplier<Mono<String>> call = () -> invocations.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(150)).map(tick -> "primary")
+                : Mono.error(new IllegalStateException("hedge failed"));
+
+        assertThat(hedger(100).hedge("get", call).block(Duration.ofSeconds(1))).isEqualTo("primary");
+        assertThat(count("fired")).isEqualTo(1);
+        assertThat(count("won")).isZero();
+    }
+
+    @Test
+    void delayShouldFollowTheObservedLatencyPercentile() {
+        RequestHedger hedger = hedger(100);
+        assertThat(hedger.delay("search")).isEqualTo(Duration.ofMillis(50));
+
+        for (int i = 0; i < 64; i++) {
+            hedger.hedge("search", () -> Mono.just("fast")).block();
+        }
+
+        // Every call answered immediately, so the percentile is clamped to the minimum delay.
+        assertThat(hedger.delay("search")).isEqualTo(Duration.ofMillis(10));
+        assertThat(meterRegistry.get(RequestHedger.METRIC_NAME + ".delay").tag("operation", "search").gauge().value())
+                .isEqualTo(10);
+    }
+
+    @Test
+    void disabledHedgerShouldCallOnce() {
+        RequestHedger hedger = new RequestHedger(meterRegistry, false, 0.95,
+                Duration.ofMillis(1), Duration.ofMillis(1), Duration.ofMillis(1), 100);
+        AtomicInteger invocations = new AtomicInteger();
+
+        assertThat(hedger.hedge("get", calls(invocations, Duration.ofMillis(50), Duration.ZERO)).block())
+                .isEqualTo("primary");
+        assertThat(invocations).hasValue(1);
+    }
+}
@@ -26,5 +26,26 @@ class PageResponseTest {
         assertThat(dto.totalElements()).isEqualTo(100L);
         assertThat(dto.totalPages()).isEqualTo(5);
         assertThat(dto.last()).isFalse();
+        assertThat(dto.hasNext()).isTrue();
+    }
+
+    @Test
+    void sliceStyleResponseShouldLeaveTotalsEmpty() {
+        var dto = new PageResponse<>(
+                List.of("A"),
+                0,
+                1,
+                null,
+                null,
+                false,
+                true,
+                false
+        );
+
+        assertThat(dto.totalElements()).isNull();
+        assertThat(dto.totalPages()).isNull();
+        assertThat(dto.last()).isFalse();
+        assertThat(dto.hasNext()).isTrue();
+        assertThat(dto.approximateTotal()).isFalse();
     }
 }
@@ -23,5 +23,25 @@ class ProductSearchCriteriaTest {
         assertThat(criteria.sort()).containsExactly("name,desc", "price,asc");
         assertThat(criteria.name()).isEqualTo("Laptop");
         assertThat(criteria.category()).isEqualTo("Electronics");
+        assertThat(criteria.withTotal()).isTrue();
+    }
+
+    @Test
+    void constructorShouldStoreWithTotalFlag() {
+        var criteria = new ProductSearchCriteria(0, 10, List.of("name"), null, null, false);
+
+        assertThat(criteria.withTotal()).isFalse();
+    }
+
+    @Test
+    void coalescingKeyShouldOnlyFoldBlankFiltersAndMissingSort() {
+        var criteria = new ProductSearchCriteria(1, 20, List.of(" name,desc "), " Laptop ", " ", false);
+
+        assertThat(criteria.coalescingKey())
+                .isEqualTo(new ProductSearchCriteria(1, 20, List.of(" name,desc "), " Laptop ", null, false));
+        assertThat(criteria.coalescingKey()).isNotEqualTo(
+                new ProductSearchCriteria(1, 20, List.of("name,desc"), "Laptop", null, false).coalescingKey());
+        assertThat(new ProductSearchCriteria(0, 10, null, "", null).coalescingKey())
+                .isEqualTo(new ProductSearchCriteria(0, 10, List.of(), null, null));
     }
 }
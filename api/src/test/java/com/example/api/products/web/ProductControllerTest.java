@@ -3,20 +3,31 @@ package com.example.api.products.web;
 import com.example.api.products.application.ProductService;
 import com.example.api.products.dto.ProductDto;
 import com.example.api.products.dto.ProductSearchCriteria;
+import com.example.common.product.dto.BatchItemResult;
+import com.example.common.product.dto.BatchResponse;
+import com.example.common.product.dto.CursorPageResponse;
 import com.example.common.product.dto.PageResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.http.ResponseEntity;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -24,11 +35,12 @@ class ProductControllerTest {
 
     private WebTestClient webTestClient;
     private ProductService productService;
+    private ProductController controller;
 
     @BeforeEach
     void setUp() {
         productService = Mockito.mock(ProductService.class);
-        ProductController controller = new ProductController(productService);
+        controller = new ProductController(productService, 5);
         webTestClient = WebTestClient.bindToController(controller).build();
     }
 
@@ -54,8 +66,8 @@ class ProductControllerTest {
                 true
         );
 
-        when(productService.getProducts(any(ProductSearchCriteria.class)))
-                .thenReturn(Mono.just(pageResponse));
+        when(productService.getProducts(any(ProductSearchCriteria.class), isNull()))
+                .thenReturn(Mono.just(ResponseEntity.ok(pageResponse)));
 
         webTestClient.get()
                 .uri(uriBuilder -> uriBuilder
@@ -79,7 +91,7 @@ class ProductControllerTest {
 
         ArgumentCaptor<ProductSearchCriteria> captor =
                 ArgumentCaptor.forClass(ProductSearchCriteria.class);
-        verify(productService).getProducts(captor.capture());
+        verify(productService).getProducts(captor.capture(), isNull());
 
         ProductSearchCriteria criteria = captor.getValue();
         assertThat(criteria.page()).isEqualTo(0);
@@ -89,20 +101,118 @@ class ProductControllerTest {
         assertThat(criteria.category()).isEqualTo("Electronics");
     }
 
+    @Test
+    void getProductsShouldPassWithTotalFlag() {
+        PageResponse<ProductDto> pageResponse = new PageResponse<>(
+                List.of(sampleProduct()),
+                0,
+                10,
+                null,
+                null,
+                false,
+                true,
+                false
+        );
+
+        when(productService.getProducts(any(ProductSearchCriteria.class), isNull()))
+                .thenReturn(Mono.just(ResponseEntity.ok(pageResponse)));
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/products")
+                        .queryParam("withTotal", "false")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalElements").doesNotExist()
+                .jsonPath("$.hasNext").isEqualTo(true);
+
+        ArgumentCaptor<ProductSearchCriteria> captor =
+                ArgumentCaptor.forClass(ProductSearchCriteria.class);
+        verify(productService).getProducts(captor.capture(), isNull());
+
+        assertThat(captor.getValue().withTotal()).isFalse();
+    }
+
+    @Test
+    void getProductsWithAfterShouldUseCursorMode() {
+        CursorPageResponse<ProductDto> cursorPage = new CursorPageResponse<>(
+                List.of(sampleProduct()),
+                1,
+                "next-cursor",
+                false
+        );
+
+        when(productService.getProductsAfter(any(ProductSearchCriteria.class), eq("cursor-1"), isNull()))
+                .thenReturn(Mono.just(ResponseEntity.ok(cursorPage)));
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/products")
+                        .queryParam("after", "cursor-1")
+                        .queryParam("size", "1")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content[0].id").isEqualTo(1)
+                .jsonPath("$.pageSize").isEqualTo(1)
+                .jsonPath("$.nextCursor").isEqualTo("next-cursor")
+                .jsonPath("$.last").isEqualTo(false);
+
+        ArgumentCaptor<ProductSearchCriteria> captor =
+                ArgumentCaptor.forClass(ProductSearchCriteria.class);
+        verify(productService).getProductsAfter(captor.capture(), eq("cursor-1"), isNull());
+
+        ProductSearchCriteria criteria = captor.getValue();
+        assertThat(criteria.size()).isEqualTo(1);
+        assertThat(criteria.sort()).containsExactly("name");
+    }
+
     @Test
     void getByIdShouldReturnSingleProduct() {
         ProductDto dto = sampleProduct();
-        when(productService.getProduct(1L)).thenReturn(Mono.just(dto));
+        when(productService.getProduct(1L, null)).thenReturn(Mono.just(ResponseEntity.ok(dto)));
 
         webTestClient.get()
                 .uri("/products/1")
                 .exchange()
                 .expectStatus().isOk()
+                .expectHeader().cacheControl(CacheControl.maxAge(Duration.ofSeconds(5)).sMaxAge(Duration.ofSeconds(5)))
                 .expectBody()
                 .jsonPath("$.id").isEqualTo(1)
                 .jsonPath("$.name").isEqualTo("Sample");
 
-        verify(productService).getProduct(1L);
+        verify(productService).getProduct(1L, null);
+    }
+
+    @Test
+    void getByIdShouldForwardIfNoneMatchAndRelayNotModified() {
+        when(productService.getProduct(1L, "\"1-3\""))
+                .thenReturn(Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"1-3\"").build()));
+
+        webTestClient.get()
+                .uri("/products/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1-3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1-3\"")
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void getByIdShouldPassUpstreamEtagThrough() {
+        when(productService.getProduct(1L, null))
+                .thenReturn(Mono.just(ResponseEntity.ok().eTag("\"1-4\"").body(sampleProduct())));
+
+        webTestClient.get()
+                .uri("/products/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1-4\"")
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1);
     }
 
     @Test
@@ -131,19 +241,62 @@ class ProductControllerTest {
         ProductDto dto = sampleProduct();
         dto.setName("Updated");
 
-        when(productService.update(1L, dto)).thenReturn(Mono.just(dto));
+        when(productService.update(1L, dto, "\"1-3\""))
+                .thenReturn(Mono.just(ResponseEntity.ok().eTag("\"1-4\"").body(dto)));
 
         webTestClient.put()
                 .uri("/products/1")
+                .header(HttpHeaders.IF_MATCH, "\"1-3\"")
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(dto)
                 .exchange()
                 .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1-4\"")
                 .expectBody()
                 .jsonPath("$.id").isEqualTo(1)
                 .jsonPath("$.name").isEqualTo("Updated");
 
-        verify(productService).update(1L, dto);
+        verify(productService).update(1L, dto, "\"1-3\"");
+    }
+
+    @Test
+    void batchCreateShouldReturnPerItemResults() {
+        ProductDto dto = sampleProduct();
+        BatchResponse<ProductDto> response = BatchResponse.of(List.of(
+                new BatchItemResult<>(0, 1L, 201, null, dto),
+                new BatchItemResult<>(1, null, 400, "name must not be blank", null)));
+
+        when(productService.createAll(any())).thenReturn(Mono.just(response));
+
+        webTestClient.post()
+                .uri("/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(dto, new ProductDto()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.succeeded").isEqualTo(1)
+                .jsonPath("$.failed").isEqualTo(1)
+                .jsonPath("$.results[1].message").isEqualTo("name must not be blank");
+    }
+
+    @Test
+    void batchDeleteShouldPassIdsThrough() {
+        when(productService.deleteAll(List.of(1L, 2L)))
+                .thenReturn(Mono.just(BatchResponse.of(List.of(
+                        new BatchItemResult<>(0, 1L, 204, null, null),
+                        new BatchItemResult<>(1, 2L, 404, "Product with id 2 not found.", null)))));
+
+        webTestClient.method(HttpMethod.DELETE)
+                .uri("/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(1L, 2L))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.results[1].status").isEqualTo(404);
+
+        verify(productService).deleteAll(List.of(1L, 2L));
     }
 
     @Test
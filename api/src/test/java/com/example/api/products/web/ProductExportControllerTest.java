@@ -0,0 +1,40 @@
+package com.example.api.products.web;
+
+import com.example.api.products.application.ProductService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.Mockito.when;
+
+class ProductExportControllerTest {
+
+    // StreamingResponseBody is a servlet return type, so this one runs through MockMvc instead of WebFlux.
+    @Test
+    void exportShouldCopyUpstreamChunksToTheResponse() throws Exception {
+        ProductService productService = Mockito.mock(ProductService.class);
+        DefaultDataBufferFactory buffers = new DefaultDataBufferFactory();
+        when(productService.export()).thenReturn(Flux.just(
+                buffers.wrap("{\"id\":1}\n{\"id\"".getBytes(StandardCharsets.UTF_8)),
+                buffers.wrap(":2}\n".getBytes(StandardCharsets.UTF_8))));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ProductExportController(productService)).build();
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/products/export"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.api.products.web;
+
+import com.example.api.products.application.ProductService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.Mockito.when;
+
+class ReactiveProductExportControllerTest {
+
+    @Test
+    void exportShouldStreamUpstreamChunksToTheResponse() {
+        ProductService productService = Mockito.mock(ProductService.class);
+        DefaultDataBufferFactory buffers = new DefaultDataBufferFactory();
+        when(productService.export()).thenReturn(Flux.just(
+                buffers.wrap("{\"id\":1}\n{\"id\"".getBytes(StandardCharsets.UTF_8)),
+                buffers.wrap(":2}\n".getBytes(StandardCharsets.UTF_8))));
+        WebTestClient client = WebTestClient.bindToController(new ReactiveProductExportController(productService))
+                .build();
+
+        client.get()
+                .uri("/products/export")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).isEqualTo("{\"id\":1}\n{\"id\":2}\n");
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.api.web;
 
+import com.example.api.products.client.ConcurrencyLimitExceededException;
 import com.example.common.CorrelationIdConstants;
 import com.example.common.error.ApiErrorResponse;
 import org.junit.jupiter.api.AfterEach;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -103,4 +105,30 @@ class GlobalExceptionHandlerTest {
         assertThat(body.correlationId()).isEqualTo("CID-XYZ");
         assertThat(body.fieldErrors()).isNull();
     }
+
+    @Test
+    void shouldReturnServiceUnavailable_WhenCallIsShedLocally() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRequestURI("/products/42");
+
+        ResponseEntity<ApiErrorResponse> response =
+                handler.handleShedLoad(new ConcurrencyLimitExceededException(20), request);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(503);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().error()).isEqualTo("Service Unavailable");
+    }
+
+    @Test
+    void shouldReturnGatewayTimeout_WhenTimeLimiterFires() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRequestURI("/products/42");
+
+        ResponseEntity<ApiErrorResponse> response =
+                handler.handleTimeout(new TimeoutException("TimeLimiter 'dbService' recorded a timeout"), request);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(504);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().status()).isEqualTo(504);
+    }
 }
@@ -0,0 +1,88 @@
+package com.example.api.web;
+
+import com.example.api.products.client.ConcurrencyLimitExceededException;
+import com.example.common.CorrelationIdConstants;
+import com.example.common.error.ApiErrorResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.util.context.Context;
+
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveGlobalExceptionHandlerTest {
+
+    private final ReactiveGlobalExceptionHandler handler = new ReactiveGlobalExceptionHandler();
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request);
+    }
+
+    @Test
+    void shouldReturnBadRequestWithFieldErrors_WhenValidationFails() throws Exception {
+        var bindingResult = new BeanPropertyBindingResult(new Object(), "productDto");
+        bindingResult.addError(new FieldError("productDto", "name", "must not be blank"));
+        MethodParameter parameter = new MethodParameter(Object.class.getMethod("equals", Object.class), 0);
+
+        ResponseEntity<ApiErrorResponse> response = handler
+                .handleValidation(new WebExchangeBindException(parameter, bindingResult),
+                        exchange(MockServerHttpRequest.post("/products")))
+                .block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody().message()).isEqualTo("Validation failed");
+        assertThat(response.getBody().path()).isEqualTo("/products");
+        assertThat(response.getBody().fieldErrors()).containsExactlyEntriesOf(Map.of("name", "must not be blank"));
+    }
+
+    @Test
+    void shouldTakeTheCorrelationIdFromTheReactorContext_WhenTheRequestHasNone() {
+        ResponseEntity<ApiErrorResponse> response = handler
+                .handleGeneric(new IllegalStateException("boom"), exchange(MockServerHttpRequest.get("/products")))
+                .contextWrite(Context.of(CorrelationIdConstants.CONTEXT_KEY, "ctx-id"))
+                .block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(response.getBody().message()).isEqualTo("boom");
+        assertThat(response.getBody().correlationId()).isEqualTo("ctx-id");
+    }
+
+    @Test
+    void shouldPreferTheCorrelationIdHeader() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/products/1")
+                .header(CorrelationIdConstants.HEADER_NAME, "header-id"));
+
+        ResponseEntity<ApiErrorResponse> response = handler
+                .handleResponseStatus(new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"), exchange)
+                .contextWrite(Context.of(CorrelationIdConstants.CONTEXT_KEY, "ctx-id"))
+                .block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(response.getBody().message()).isEqualTo("Product not found");
+        assertThat(response.getBody().correlationId()).isEqualTo("header-id");
+    }
+
+    @Test
+    void shouldMapShedLoadAndTimeouts() {
+        ResponseEntity<ApiErrorResponse> shed = handler
+                .handleShedLoad(new ConcurrencyLimitExceededException(10), exchange(MockServerHttpRequest.get("/products")))
+                .block();
+        ResponseEntity<ApiErrorResponse> timeout = handler
+                .handleTimeout(new TimeoutException("slow"), exchange(MockServerHttpRequest.get("/products")))
+                .block();
+
+        assertThat(shed.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(shed.getBody().correlationId()).isEqualTo("N/A");
+        assertThat(timeout.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+    }
+}
@@ -3,6 +3,8 @@ package com.example.common;
 public final class CorrelationIdConstants {
     public static final String HEADER_NAME = "X-Correlation-Id";
     public static final String MDC_KEY = "correlationId";
+    // Reactor Context key on WebFlux, where a request is not tied to one thread.
+    public static final String CONTEXT_KEY = "correlationId";
 
     private CorrelationIdConstants() {}
 }
\ No newline at end of file
@@ -8,7 +8,6 @@ import org.slf4j.MDC;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.UUID;
 
 import static com.example.common.CorrelationIdConstants.HEADER_NAME;
 import static com.example.common.CorrelationIdConstants.MDC_KEY;
@@ -24,7 +23,7 @@ public class CorrelationIdFilter extends OncePerRequestFilter {
 
         String correlationId = request.getHeader(HEADER_NAME);
         if (correlationId == null || correlationId.isBlank()) {
-            correlationId = UUID.randomUUID().toString();
+            correlationId = CorrelationIds.newId();
         }
 
         MDC.put(MDC_KEY, correlationId);
@@ -0,0 +1,34 @@
+package com.example.common;
+
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import static com.example.common.CorrelationIdConstants.CONTEXT_KEY;
+import static com.example.common.CorrelationIdConstants.HEADER_NAME;
+
+// WebFlux counterpart of CorrelationIdFilter. A request hops between event-loop threads, so the id travels in the
+// Reactor Context of the request instead of the MDC; services that want it in their logs restore the MDC from the
+// Context with context-propagation. Runs first so that even requests rejected by security carry the header.
+public class CorrelationIdWebFilter implements WebFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String correlationId = exchange.getRequest().getHeaders().getFirst(HEADER_NAME);
+        if (correlationId == null || correlationId.isBlank()) {
+            correlationId = CorrelationIds.newId();
+        }
+
+        exchange.getResponse().getHeaders().set(HEADER_NAME, correlationId);
+
+        return chain.filter(exchange).contextWrite(Context.of(CONTEXT_KEY, correlationId));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
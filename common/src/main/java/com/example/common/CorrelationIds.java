@@ -0,0 +1,20 @@
+package com.example.common;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Correlation ids only need to be unique enough to tell requests apart in logs, not unguessable, so they come from
+// ThreadLocalRandom instead of the SecureRandom behind UUID.randomUUID(), which is shared, synchronized and can
+// block on entropy. They keep the random (version 4) UUID format so existing consumers still parse them.
+public final class CorrelationIds {
+
+    private CorrelationIds() {}
+
+    public static String newId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = random.nextLong() & ~0xF000L | 0x4000L;
+        long lsb = random.nextLong() & ~(0xC000L << 48) | 0x8000L << 48;
+        // The UUID does not escape, and its toString fills the string's bytes directly.
+        return new UUID(msb, lsb).toString();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.common.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Instances already picked for one logical request, such as a read and its hedge. Callers put one into the Reactor
+// Context of every attempt under CONTEXT_KEY; LatencyAwareLoadBalancer then skips the instances an earlier attempt
+// went to while another one is available, and adds its own pick.
+public final class DistinctInstances {
+
+    public static final String CONTEXT_KEY = DistinctInstances.class.getName();
+
+    private final Set<String> picked = ConcurrentHashMap.newKeySet();
+
+    boolean contains(ServiceInstance instance) {
+        return picked.contains(InstanceLoadTracker.key(instance));
+    }
+
+    void add(ServiceInstance instance) {
+        picked.add(InstanceLoadTracker.key(instance));
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.common.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// Load of every instance as seen by this client, fed by the load balancer lifecycle of each call: a peak-sensitive
+// EWMA of its response times (a slower response replaces the average at once, faster ones pull it down gradually,
+// and it decays towards zero over time so an instance that was avoided gets tried again) and its outstanding calls.
+// Cancelled calls (hedged, cut by a time limiter) never complete here, so outstanding calls are forgotten after
+// stale-after; until then their age counts as latency, which is what makes a stalled replica visible right away.
+// Instances that leave discovery are dropped the next time the balancer picks for their service.
+public class InstanceLoadTracker implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final double decayNanos;
+    private final long failurePenaltyNanos;
+    private final long staleAfterNanos;
+    private final LongSupplier clock;
+
+    private final Map<String, InstanceLoad> loads = new ConcurrentHashMap<>();
+
+    public InstanceLoadTracker(Duration decay, Duration failurePenalty, Duration staleAfter) {
+        this(decay, failurePenalty, staleAfter, System::nanoTime);
+    }
+
+    InstanceLoadTracker(Duration decay, Duration failurePenalty, Duration staleAfter, LongSupplier clock) {
+        this.decayNanos = decay.toNanos();
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+        this.staleAfterNanos = staleAfter.toNanos();
+        this.clock = clock;
+    }
+
+    // Expected wait for one more call: the latency times the calls that would be queued with it, so an idle
+    // instance is cheaper than a busy one of the same speed. Instances never called yet cost nothing.
+    public double cost(ServiceInstance instance) {
+        InstanceLoad load = loads.get(key(instance));
+        return load != null ? load.cost(clock.getAsLong()) : 0;
+    }
+
+    int outstanding(ServiceInstance instance) {
+        InstanceLoad load = loads.get(key(instance));
+        return load != null ? load.outstanding() : 0;
+    }
+
+    // Forgets the instances of this service that are no longer listed, so replicas that come and go (scale-downs,
+    // redeploys with new ports) do not pile up. A call still in flight to a dropped instance is simply not recorded.
+    public void retain(String serviceId, List<ServiceInstance> instances) {
+        Set<String> listed = new HashSet<>();
+        for (ServiceInstance instance : instances) {
+            listed.add(key(instance));
+        }
+        // Discovery clients differ in how they case service ids (Eureka upper-cases them).
+        loads.keySet().removeIf(key -> !listed.contains(key)
+                && key.length() > serviceId.length()
+                && key.charAt(serviceId.length()) == '@'
+                && key.regionMatches(true, 0, serviceId, 0, serviceId.length()));
+    }
+
+    int tracked() {
+        return loads.size();
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse != null && lbResponse.hasServer()) {
+            loads.computeIfAbsent(key(lbResponse.getServer()), key -> new InstanceLoad())
+                    .start(request, clock.getAsLong());
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        InstanceLoad load = loads.get(key(lbResponse.getServer()));
+        if (load != null) {
+            load.complete(completionContext.getLoadBalancerRequest(), clock.getAsLong(), isFailure(completionContext));
+        }
+    }
+
+    private static boolean isFailure(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            return true;
+        }
+        return completionContext.getClientResponse() instanceof ResponseData response
+                && response.getHttpStatus() != null
+                && response.getHttpStatus().is5xxServerError();
+    }
+
+    static String key(ServiceInstance instance) {
+        return instance.getServiceId() + "@" + instance.getHost() + ":" + instance.getPort();
+    }
+
+    private final class InstanceLoad {
+
+        // By identity: the same Request object is handed to onStartRequest and onComplete.
+        private final Map<Object, Long> outstanding = new IdentityHashMap<>();
+        private double latencyNanos;
+        private long updatedAt = clock.getAsLong();
+
+        synchronized void start(Object request, long now) {
+            outstanding.put(request, now);
+        }
+
+        synchronized void complete(Object request, long now, boolean failed) {
+            Long startedAt = outstanding.remove(request);
+            if (startedAt == null) {
+                return;
+            }
+            long latency = now - startedAt;
+            observe(failed ? Math.max(latency, failurePenaltyNanos) : latency, now);
+        }
+
+        synchronized double cost(long now) {
+            observe(0, now);
+            long oldestAge = 0;
+            Iterator<Long> startedAt = outstanding.values().iterator();
+            while (startedAt.hasNext()) {
+                long age = now - startedAt.next();
+                if (age > staleAfterNanos) {
+                    startedAt.remove();
+                } else {
+                    oldestAge = Math.max(oldestAge, age);
+                }
+            }
+            return Math.max(latencyNanos, oldestAge) * (outstanding.size() + 1);
+        }
+
+        synchronized int outstanding() {
+            return outstanding.size();
+        }
+
+        private void observe(long sampleNanos, long now) {
+            if (sampleNanos > latencyNanos) {
+                latencyNanos = sampleNanos;
+            } else {
+                double weight = Math.exp(-Math.max(0, now - updatedAt) / decayNanos);
+                latencyNanos = latencyNanos * weight + sampleNanos * (1 - weight);
+            }
+            updatedAt = now;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.common.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Power of two choices: two distinct instances are drawn at random and the one with the lower cost in the
+// InstanceLoadTracker gets the call. Comparing only two keeps the pick cheap and avoids every client herding onto
+// the single least-loaded instance, while a slow or overloaded replica almost never wins a comparison. Attempts that
+// carry DistinctInstances in their Reactor Context (hedges) are kept off the instances their siblings went to.
+@Slf4j
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final InstanceLoadTracker loadTracker;
+
+    public LatencyAwareLoadBalancer(
+            ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+            String serviceId,
+            InstanceLoadTracker loadTracker
+    ) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.loadTracker = loadTracker;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier =
+                serviceInstanceListSupplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return Mono.deferContextual(context -> supplier.get(request)
+                .next()
+                .map(instances -> {
+                    loadTracker.retain(serviceId, instances);
+                    DistinctInstances distinct = context.getOrDefault(DistinctInstances.CONTEXT_KEY, null);
+                    Response<ServiceInstance> response = choose(instances, distinct);
+                    if (response.hasServer()) {
+                        if (distinct != null) {
+                            distinct.add(response.getServer());
+                        }
+                        if (supplier instanceof SelectedInstanceCallback callback) {
+                            callback.selectedServiceInstance(response.getServer());
+                        }
+                    }
+                    return response;
+                }));
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances, DistinctInstances distinct) {
+        if (instances.isEmpty()) {
+            log.warn("No servers available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+        if (distinct != null) {
+            List<ServiceInstance> unpicked = instances.stream()
+                    .filter(instance -> !distinct.contains(instance))
+                    .toList();
+            if (!unpicked.isEmpty()) {
+                instances = unpicked;
+            }
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.getFirst());
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return new DefaultResponse(loadTracker.cost(b) < loadTracker.cost(a) ? b : a);
+    }
+}
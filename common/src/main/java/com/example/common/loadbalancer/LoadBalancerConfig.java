@@ -0,0 +1,27 @@
+package com.example.common.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// Replaces round-robin with the latency-aware balancer for every load-balanced client of the importing service
+// (@Import it on the application class). The defaults live here rather than in each service's application.yml;
+// override them under load-balancer.latency-aware.* or as LOAD_BALANCER_LATENCY_AWARE_* environment variables.
+@Configuration
+@ConditionalOnProperty(prefix = "load-balancer.latency-aware", name = "enabled", matchIfMissing = true)
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+    @Bean
+    public InstanceLoadTracker instanceLoadTracker(
+            @Value("${load-balancer.latency-aware.decay:10s}") Duration decay,
+            @Value("${load-balancer.latency-aware.failure-penalty:1s}") Duration failurePenalty,
+            @Value("${load-balancer.latency-aware.stale-after:30s}") Duration staleAfter
+    ) {
+        return new InstanceLoadTracker(decay, failurePenalty, staleAfter);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.common.product.dto;
+
+public record BatchItemResult<T>(
+        int index,
+        Long id,
+        int status,
+        String message,
+        T item
+) {
+
+    public boolean succeeded() {
+        return status >= 200 && status < 300;
+    }
+}
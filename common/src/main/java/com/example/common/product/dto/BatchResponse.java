@@ -0,0 +1,15 @@
+package com.example.common.product.dto;
+
+import java.util.List;
+
+public record BatchResponse<T>(
+        int succeeded,
+        int failed,
+        List<BatchItemResult<T>> results
+) {
+
+    public static <T> BatchResponse<T> of(List<BatchItemResult<T>> results) {
+        int succeeded = (int) results.stream().filter(BatchItemResult::succeeded).count();
+        return new BatchResponse<>(succeeded, results.size() - succeeded, results);
+    }
+}
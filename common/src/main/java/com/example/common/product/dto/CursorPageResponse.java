@@ -0,0 +1,10 @@
+package com.example.common.product.dto;
+
+import java.util.List;
+
+public record CursorPageResponse<T>(
+        List<T> content,
+        int pageSize,
+        String nextCursor,
+        boolean last
+) {}
@@ -6,7 +6,21 @@ public record PageResponse<T>(
         List<T> content,
         int pageNumber,
         int pageSize,
-        long totalElements,
-        int totalPages,
-        boolean last
-) {}
+        Long totalElements,
+        Integer totalPages,
+        boolean last,
+        boolean hasNext,
+        boolean approximateTotal
+) {
+
+    public PageResponse(
+            List<T> content,
+            int pageNumber,
+            int pageSize,
+            long totalElements,
+            int totalPages,
+            boolean last
+    ) {
+        this(content, pageNumber, pageSize, totalElements, totalPages, last, !last, false);
+    }
+}
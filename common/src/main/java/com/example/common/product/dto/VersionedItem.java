@@ -0,0 +1,8 @@
+package com.example.common.product.dto;
+
+// An item together with the ETag a single-item read would have returned for it.
+public record VersionedItem<T>(
+        String etag,
+        T item
+) {
+}
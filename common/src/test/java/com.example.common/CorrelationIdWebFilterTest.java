@@ -0,0 +1,46 @@
+package com.example.common;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.example.common.CorrelationIdConstants.CONTEXT_KEY;
+import static com.example.common.CorrelationIdConstants.HEADER_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorrelationIdWebFilterTest {
+
+    private final CorrelationIdWebFilter filter = new CorrelationIdWebFilter();
+
+    private static String run(CorrelationIdWebFilter filter, MockServerWebExchange exchange) {
+        AtomicReference<String> inContext = new AtomicReference<>();
+        filter.filter(exchange, e -> Mono.deferContextual(context -> {
+            inContext.set(context.getOrDefault(CONTEXT_KEY, null));
+            return Mono.empty();
+        })).block();
+        return inContext.get();
+    }
+
+    @Test
+    void shouldPropagateExistingCorrelationIdToContextAndResponse() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/products").header(HEADER_NAME, "cid-123").build());
+
+        assertThat(run(filter, exchange)).isEqualTo("cid-123");
+        assertThat(exchange.getResponse().getHeaders().getFirst(HEADER_NAME)).isEqualTo("cid-123");
+    }
+
+    @Test
+    void shouldGenerateCorrelationIdWhenHeaderMissing() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/products").build());
+
+        String generated = run(filter, exchange);
+
+        assertThat(UUID.fromString(generated)).isNotNull();
+        assertThat(exchange.getResponse().getHeaders().getFirst(HEADER_NAME)).isEqualTo(generated);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorrelationIdsTest {
+
+    @Test
+    void idsShouldBeRandomVersionFourUuids() {
+        for (int i = 0; i < 1_000; i++) {
+            UUID id = UUID.fromString(CorrelationIds.newId());
+
+            assertThat(id.version()).isEqualTo(4);
+            assertThat(id.variant()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void idsShouldNotRepeat() {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(CorrelationIds.newId());
+        }
+
+        assertThat(ids).hasSize(100_000);
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.common.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyAwareLoadBalancerTest {
+
+    private static final String SERVICE_ID = "product-service";
+
+    private final ServiceInstance fast = instance(8081);
+    private final ServiceInstance slow = instance(8082);
+    private final ServiceInstance other = instance(8083);
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final InstanceLoadTracker tracker = new InstanceLoadTracker(
+            Duration.ofSeconds(10), Duration.ofSeconds(1), Duration.ofSeconds(30), now::get);
+
+    private static ServiceInstance instance(int port) {
+        return new DefaultServiceInstance(SERVICE_ID + "-" + port, SERVICE_ID, "localhost", port, false);
+    }
+
+    private LatencyAwareLoadBalancer balancer(ServiceInstance... instances) {
+        return new LatencyAwareLoadBalancer(
+                ServiceInstanceListSuppliers.toProvider(SERVICE_ID, instances), SERVICE_ID, tracker);
+    }
+
+    private Request<Object> start(ServiceInstance instance) {
+        Request<Object> request = new DefaultRequest<>();
+        tracker.onStartRequest(request, new DefaultResponse(instance));
+        return request;
+    }
+
+    private void complete(Request<Object> request, ServiceInstance instance, CompletionContext.Status status) {
+        tracker.onComplete(new CompletionContext<>(status, request, new DefaultResponse(instance)));
+    }
+
+    private void call(ServiceInstance instance, Duration latency) {
+        Request<Object> request = start(instance);
+        now.addAndGet(latency.toNanos());
+        complete(request, instance, CompletionContext.Status.SUCCESS);
+    }
+
+    private Map<ServiceInstance, Integer> picks(LatencyAwareLoadBalancer balancer, int calls) {
+        Map<ServiceInstance, Integer> picks = new HashMap<>();
+        for (int i = 0; i < calls; i++) {
+            Response<ServiceInstance> response = balancer.choose(new DefaultRequest<>()).block();
+            picks.merge(response.getServer(), 1, Integer::sum);
+        }
+        return picks;
+    }
+
+    @Test
+    void slowInstanceShouldNeverWinAComparison() {
+        call(fast, Duration.ofMillis(5));
+        call(other, Duration.ofMillis(5));
+        call(slow, Duration.ofMillis(500));
+
+        Map<ServiceInstance, Integer> picks = picks(balancer(fast, slow, other), 300);
+
+        assertThat(picks).doesNotContainKey(slow);
+        assertThat(picks.get(fast)).isPositive();
+        assertThat(picks.get(other)).isPositive();
+    }
+
+    @Test
+    void outstandingCallsShouldMakeAnEquallyFastInstanceMoreExpensive() {
+        call(fast, Duration.ofMillis(5));
+        call(other, Duration.ofMillis(5));
+        for (int i = 0; i < 5; i++) {
+            start(fast);
+        }
+
+        assertThat(tracker.cost(fast)).isGreaterThan(tracker.cost(other));
+        assertThat(picks(balancer(fast, other), 50)).containsOnlyKeys(other);
+    }
+
+    @Test
+    void stalledCallsShouldCountWithTheirAgeUntilTheyGoStale() {
+        call(fast, Duration.ofMillis(5));
+        call(slow, Duration.ofMillis(5));
+        start(slow);
+
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertThat(tracker.cost(slow)).isGreaterThan(tracker.cost(fast));
+        assertThat(tracker.outstanding(slow)).isEqualTo(1);
+
+        // Never completed, e.g. cancelled by a hedge: forgotten after stale-after.
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        tracker.cost(slow);
+        assertThat(tracker.outstanding(slow)).isZero();
+    }
+
+    @Test
+    void failuresShouldCostAtLeastThePenalty() {
+        Request<Object> request = start(slow);
+        now.addAndGet(Duration.ofMillis(1).toNanos());
+        complete(request, slow, CompletionContext.Status.FAILED);
+
+        assertThat(tracker.cost(slow)).isGreaterThanOrEqualTo(Duration.ofMillis(999).toNanos());
+    }
+
+    @Test
+    void latencyShouldDecaySoAnAvoidedInstanceIsTriedAgain() {
+        call(fast, Duration.ofMillis(20));
+        call(slow, Duration.ofMillis(500));
+        assertThat(tracker.cost(slow)).isGreaterThan(tracker.cost(fast));
+
+        // Nothing went to the slow instance for a while; its old latency fades and a fresh fast call still counts.
+        now.addAndGet(Duration.ofSeconds(60).toNanos());
+        call(fast, Duration.ofMillis(20));
+
+        assertThat(tracker.cost(slow)).isLessThan(tracker.cost(fast));
+    }
+
+    @Test
+    void fasterResponsesShouldPullTheAverageDownGradually() {
+        call(slow, Duration.ofMillis(500));
+        double peak = tracker.cost(slow);
+
+        call(slow, Duration.ofMillis(5));
+
+        assertThat(tracker.cost(slow)).isLessThan(peak).isGreaterThan(Duration.ofMillis(400).toNanos());
+    }
+
+    @Test
+    void instancesThatLeaveDiscoveryShouldBeForgotten() {
+        ServiceInstance elsewhere = new DefaultServiceInstance("api-service-8080", "api-service", "localhost", 8080, false);
+        call(fast, Duration.ofMillis(5));
+        call(slow, Duration.ofMillis(500));
+        call(elsewhere, Duration.ofMillis(5));
+
+        picks(balancer(fast, other), 1);
+
+        assertThat(tracker.tracked()).isEqualTo(2);
+        assertThat(tracker.cost(slow)).isZero();
+        assertThat(tracker.cost(fast)).isPositive();
+        assertThat(tracker.cost(elsewhere)).isPositive();
+    }
+
+    @Test
+    void evictionShouldIgnoreTheCaseOfTheServiceId() {
+        ServiceInstance registered = new DefaultServiceInstance("x", SERVICE_ID.toUpperCase(), "localhost", 9000, false);
+        call(registered, Duration.ofMillis(5));
+
+        tracker.retain(SERVICE_ID, List.of(fast));
+
+        assertThat(tracker.tracked()).isZero();
+    }
+
+    @Test
+    void attemptsSharingDistinctInstancesShouldGoToDifferentInstances() {
+        LatencyAwareLoadBalancer balancer = balancer(fast, slow, other);
+
+        for (int i = 0; i < 50; i++) {
+            DistinctInstances distinct = new DistinctInstances();
+            Set<ServiceInstance> picked = new HashSet<>();
+            for (int attempt = 0; attempt < 3; attempt++) {
+                picked.add(balancer.choose(new DefaultRequest<>())
+                        .contextWrite(Context.of(DistinctInstances.CONTEXT_KEY, distinct))
+                        .block()
+                        .getServer());
+            }
+            assertThat(picked).containsExactlyInAnyOrder(fast, slow, other);
+        }
+    }
+
+    @Test
+    void distinctAttemptsShouldShareTheOnlyInstanceLeft() {
+        DistinctInstances distinct = new DistinctInstances();
+        LatencyAwareLoadBalancer balancer = balancer(fast);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            assertThat(balancer.choose(new DefaultRequest<>())
+                    .contextWrite(Context.of(DistinctInstances.CONTEXT_KEY, distinct))
+                    .block()
+                    .getServer())
+                    .isEqualTo(fast);
+        }
+    }
+
+    @Test
+    void shouldHandleSingleAndMissingInstances() {
+        assertThat(balancer(fast).choose(new DefaultRequest<>()).block().getServer()).isEqualTo(fast);
+        assertThat(balancer().choose(new DefaultRequest<>()).block().hasServer()).isFalse();
+    }
+}
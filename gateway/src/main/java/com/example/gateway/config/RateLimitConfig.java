@@ -0,0 +1,104 @@
+package com.example.gateway.config;
+
+import com.example.gateway.ratelimit.HazelcastRateLimitStore;
+import com.example.gateway.ratelimit.InMemoryRateLimitStore;
+import com.example.gateway.ratelimit.JwtSubject;
+import com.example.gateway.ratelimit.RateLimitPolicies;
+import com.example.gateway.ratelimit.RateLimitPolicy;
+import com.example.gateway.ratelimit.RateLimitStore;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.core.HazelcastInstance;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    // rate-limit.capacity/refill-tokens/refill-duration stay the per-IP limit for requests no policy matches.
+    @Bean
+    public RateLimitPolicies rateLimitPolicies(
+            RateLimitProperties properties,
+            @Value("${rate-limit.capacity:20}") long capacity,
+            @Value("${rate-limit.refill-tokens:20}") long refillTokens,
+            @Value("${rate-limit.refill-duration:1s}") Duration refillDuration) {
+        return new RateLimitPolicies(properties.policies(),
+                RateLimitPolicy.perIp(capacity, refillTokens, refillDuration));
+    }
+
+    // The same JWT_SECRET api-service verifies tokens with; subject policies need it to trust a token's subject.
+    @Bean
+    public JwtSubject jwtSubject(@Value("${jwt.secret:}") String secret) {
+        return new JwtSubject(secret);
+    }
+
+    // max-buckets caps the keys kept per policy.
+    @Bean
+    @ConditionalOnProperty(name = "rate-limit.store", havingValue = "memory", matchIfMissing = true)
+    public RateLimitStore inMemoryRateLimitStore(@Value("${rate-limit.max-buckets:100000}") long maxBuckets) {
+        return new InMemoryRateLimitStore(maxBuckets);
+    }
+
+    // Every gateway replica runs an embedded Hazelcast member; Spring Boot starts it from the Config below.
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "rate-limit.store", havingValue = "hazelcast")
+    static class HazelcastRateLimitConfig {
+
+        @Bean
+        public Config hazelcastConfig(
+                @Value("${rate-limit.hazelcast.cluster-name:gateway}") String clusterName,
+                @Value("${rate-limit.hazelcast.port:5701}") int port,
+                @Value("${rate-limit.hazelcast.members:127.0.0.1}") List<String> members,
+                @Value("${rate-limit.max-buckets:100000}") int maxBuckets,
+                RateLimitPolicies policies) {
+            HazelcastRateLimitStore.validate(policies);
+            Config config = new Config();
+            config.setClusterName(clusterName);
+            config.setProperty("hazelcast.logging.type", "slf4j");
+            config.setProperty("hazelcast.phone.home.enabled", "false");
+            config.getNetworkConfig().setPort(port).setPortAutoIncrement(true);
+
+            JoinConfig join = config.getNetworkConfig().getJoin();
+            join.getMulticastConfig().setEnabled(false);
+            join.getAutoDetectionConfig().setEnabled(false);
+            join.getTcpIpConfig().setEnabled(true).setMembers(members);
+
+            // Close to the in-memory bounds: idle entries go once the slowest policy would be back at full capacity,
+            // and the entry count per member is capped.
+            long timeToRefill = policies.all().stream()
+                    .map(RateLimitPolicy::idleTimeout)
+                    .max(Duration::compareTo)
+                    .orElseThrow()
+                    .toSeconds();
+            config.addMapConfig(new MapConfig(HazelcastRateLimitStore.MAP_NAME)
+                    .setBackupCount(1)
+                    .setMaxIdleSeconds((int) Math.max(1, timeToRefill))
+                    .setEvictionConfig(new EvictionConfig()
+                            .setEvictionPolicy(EvictionPolicy.LRU)
+                            .setMaxSizePolicy(MaxSizePolicy.PER_NODE)
+                            .setSize(maxBuckets)));
+            return config;
+        }
+
+        @Bean
+        public RateLimitStore hazelcastRateLimitStore(
+                HazelcastInstance hazelcastInstance,
+                @Value("${rate-limit.lease-size:5}") long leaseSize,
+                @Value("${rate-limit.lease-ttl:1s}") Duration leaseTtl,
+                @Value("${rate-limit.max-buckets:100000}") long maxBuckets) {
+            return new HazelcastRateLimitStore(hazelcastInstance.getMap(HazelcastRateLimitStore.MAP_NAME),
+                    leaseSize, leaseTtl, maxBuckets);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.gateway.config;
+
+import com.example.gateway.ratelimit.RateLimitPolicy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+// rate-limit.policies from application.yml; the scalar rate-limit.* settings stay with the beans that use them.
+@ConfigurationProperties(prefix = "rate-limit")
+public record RateLimitProperties(List<RateLimitPolicy> policies) {
+
+    public RateLimitProperties {
+        policies = policies == null ? List.of() : List.copyOf(policies);
+    }
+}
@@ -1,44 +1,35 @@
 package com.example.gateway.filters;
 
+import com.example.common.CorrelationIds;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
-import org.springframework.http.server.reactive.ServerHttpRequest;
-import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.UUID;
-
 import static com.example.common.CorrelationIdConstants.HEADER_NAME;
 
+// Makes sure every request has a correlation id without copying it: a client-supplied id is already on the request
+// and is proxied as is, a generated one is kept as an exchange attribute and added to the proxied request's
+// headers by CorrelationIdHeadersFilter, which the routing filter builds anyway.
 @Component
 public class CorrelationIdGatewayFilter implements GlobalFilter, Ordered {
 
+    public static final String CORRELATION_ID_ATTR = CorrelationIdGatewayFilter.class.getName() + ".generated";
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        ServerHttpRequest request = exchange.getRequest();
-
-        String correlationId = request.getHeaders().getFirst(HEADER_NAME);
+        String correlationId = exchange.getRequest().getHeaders().getFirst(HEADER_NAME);
 
         if (correlationId == null || correlationId.isBlank()) {
-            correlationId = UUID.randomUUID().toString();
+            correlationId = CorrelationIds.newId();
+            exchange.getAttributes().put(CORRELATION_ID_ATTR, correlationId);
         }
 
-        String finalCorrelationId = correlationId;
-        ServerHttpRequest mutatedRequest = request.mutate()
-                .headers(headers -> headers.set(HEADER_NAME, finalCorrelationId))
-                .build();
-
-        ServerHttpResponse response = exchange.getResponse();
-        response.getHeaders().set(HEADER_NAME, correlationId);
-
-        ServerWebExchange mutatedExchange = exchange.mutate()
-                .request(mutatedRequest)
-                .build();
+        exchange.getResponse().getHeaders().set(HEADER_NAME, correlationId);
 
-        return chain.filter(mutatedExchange);
+        return chain.filter(exchange);
     }
 
     @Override
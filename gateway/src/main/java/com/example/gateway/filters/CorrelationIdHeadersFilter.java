@@ -0,0 +1,37 @@
+package com.example.gateway.filters;
+
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import static com.example.common.CorrelationIdConstants.HEADER_NAME;
+import static com.example.gateway.filters.CorrelationIdGatewayFilter.CORRELATION_ID_ATTR;
+
+// Adds a correlation id generated by CorrelationIdGatewayFilter to the headers sent upstream. Runs after the
+// built-in header filters, which hand over their own writable copy of the request headers, so it normally writes
+// into that copy; only if it sees the (read-only) request headers themselves does it copy.
+@Component
+public class CorrelationIdHeadersFilter implements HttpHeadersFilter, Ordered {
+
+    @Override
+    public HttpHeaders filter(HttpHeaders input, ServerWebExchange exchange) {
+        String generated = exchange.getAttribute(CORRELATION_ID_ATTR);
+        if (generated == null) {
+            return input;
+        }
+        HttpHeaders headers = input;
+        if (input == exchange.getRequest().getHeaders()) {
+            headers = new HttpHeaders();
+            headers.addAll(input);
+        }
+        headers.set(HEADER_NAME, generated);
+        return headers;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
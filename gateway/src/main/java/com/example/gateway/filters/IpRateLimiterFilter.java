@@ -1,7 +1,12 @@
 package com.example.gateway.filters;
 
+import com.example.gateway.ratelimit.JwtSubject;
+import com.example.gateway.ratelimit.RateLimitPolicies;
+import com.example.gateway.ratelimit.RateLimitPolicy;
+import com.example.gateway.ratelimit.RateLimitStore;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -12,43 +17,79 @@ import reactor.core.publisher.Mono;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+// Applies the first rate-limit policy matching the route and method, or the per-IP default. Runs on the event loop
+// for every request, so picking the policy and the key stays free of per-request collections and parsing beyond the
+// bearer token payload.
 @Component
 public class IpRateLimiterFilter implements GlobalFilter, Ordered {
 
-    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
-
-    private final long capacity;
-    private final long refillTokens;
-    private final Duration refillDuration;
-
-    public IpRateLimiterFilter(
-            @Value("${rate-limit.capacity:20}") long capacity,
-            @Value("${rate-limit.refill-tokens:20}") long refillTokens,
-            @Value("${rate-limit.refill-duration:1s}") Duration refillDuration) {
-        this.capacity = capacity;
-        this.refillTokens = refillTokens;
-        this.refillDuration = refillDuration;
+    static final String API_KEY_HEADER = "X-API-Key";
+
+    private final RateLimitStore store;
+    private final RateLimitPolicies policies;
+    private final JwtSubject jwtSubject;
+    private final Set<String> apiKeys;
+
+    // api-keys lists the keys the gateway issues; only those get a bucket of their own.
+    public IpRateLimiterFilter(RateLimitStore store,
+                               RateLimitPolicies policies,
+                               JwtSubject jwtSubject,
+                               @Value("${rate-limit.api-keys:}") List<String> apiKeys) {
+        this.store = store;
+        this.policies = policies;
+        this.jwtSubject = jwtSubject;
+        this.apiKeys = apiKeys.stream()
+                .map(String::trim)
+                .filter(key -> !key.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
     }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange,
                              org.springframework.cloud.gateway.filter.GatewayFilterChain chain) {
-        String ip = resolveClientIp(exchange.getRequest());
-        TokenBucket bucket = buckets.computeIfAbsent(ip, k -> new TokenBucket(capacity, refillTokens, refillDuration));
-
-        if (bucket.tryConsume()) {
-            exchange.getResponse().getHeaders().add("X-RateLimit-Remaining", String.valueOf(bucket.getTokens()));
-            exchange.getResponse().getHeaders().add("X-RateLimit-Limit", String.valueOf(capacity));
-            return chain.filter(exchange);
-        } else {
-            exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
-            exchange.getResponse().getHeaders().add("Retry-After", String.valueOf(refillDuration.toSeconds()));
-            return exchange.getResponse().setComplete();
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        RateLimitPolicy policy = policies.resolve(route != null ? route.getId() : null, request.getMethod());
+
+        return store.tryConsume(policy, resolveKey(policy, request)).flatMap(remaining -> {
+            if (remaining >= 0) {
+                exchange.getResponse().getHeaders().add("X-RateLimit-Remaining", String.valueOf(remaining));
+                exchange.getResponse().getHeaders().add("X-RateLimit-Limit", String.valueOf(policy.capacity()));
+                return chain.filter(exchange);
+            } else {
+                exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                exchange.getResponse().getHeaders().add("Retry-After",
+                        String.valueOf(Math.max(1, policy.refillDuration().toSeconds())));
+                return exchange.getResponse().setComplete();
+            }
+        });
+    }
+
+    // Subject and API key are prefixed so they can never share a bucket with an IP. Only a verified subject or a known
+    // API key is trusted as a key: anything a client can make up falls back to its IP, so it cannot fill the store.
+    private String resolveKey(RateLimitPolicy policy, ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        switch (policy.key()) {
+            case SUBJECT -> {
+                String subject = jwtSubject.fromAuthorization(headers.getFirst(HttpHeaders.AUTHORIZATION));
+                if (subject != null) {
+                    return "sub:" + subject;
+                }
+            }
+            case API_KEY -> {
+                String apiKey = headers.getFirst(API_KEY_HEADER);
+                if (apiKey != null && apiKeys.contains(apiKey)) {
+                    return "key:" + apiKey;
+                }
+            }
         }
+        return resolveClientIp(request);
     }
 
     private String resolveClientIp(ServerHttpRequest request) {
@@ -83,45 +124,4 @@ public class IpRateLimiterFilter implements GlobalFilter, Ordered {
     public int getOrder() {
         return -100; // early in chain
     }
-
-    static class TokenBucket {
-        private final long capacity;
-        private final long refillTokens;
-        private final long refillNanos;
-        private long tokens;
-        private long lastRefillNanos;
-
-        TokenBucket(long capacity, long refillTokens, Duration refillDuration) {
-            this.capacity = capacity;
-            this.refillTokens = refillTokens;
-            this.refillNanos = refillDuration.toNanos();
-            this.tokens = capacity;
-            this.lastRefillNanos = System.nanoTime();
-        }
-
-        synchronized boolean tryConsume() {
-            refill();
-            if (tokens > 0) {
-                tokens--;
-                return true;
-            }
-            return false;
-        }
-
-        synchronized long getTokens() {
-            refill();
-            return tokens;
-        }
-
-        private void refill() {
-            long now = System.nanoTime();
-            long elapsed = now - lastRefillNanos;
-            if (elapsed >= refillNanos) {
-                long periods = elapsed / refillNanos;
-                long add = periods * refillTokens;
-                tokens = Math.min(capacity, tokens + add);
-                lastRefillNanos += periods * refillNanos;
-            }
-        }
-    }
 }
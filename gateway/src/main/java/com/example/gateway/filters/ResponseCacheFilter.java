@@ -0,0 +1,341 @@
+package com.example.gateway.filters;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    static final String ROUTE_METADATA_KEY = "response-cache";
+    static final String CACHE_STATUS_HEADER = "X-Cache";
+    static final String CACHE_NAME = "gatewayResponses";
+
+    private static final List<String> STORED_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CONTENT_ENCODING,
+            HttpHeaders.CONTENT_LANGUAGE,
+            HttpHeaders.CACHE_CONTROL,
+            HttpHeaders.ETAG,
+            HttpHeaders.LAST_MODIFIED,
+            HttpHeaders.VARY);
+
+    private final Cache<String, CachedResponse> responses;
+    private final Map<String, CompletableFuture<Optional<CachedResponse>>> inFlight = new ConcurrentHashMap<>();
+    private final long maxEntryBytes;
+    private final Duration maxTtl;
+    private final Counter coalesced;
+
+    public ResponseCacheFilter(
+            @Value("${response-cache.max-size:64MB}") DataSize maxSize,
+            @Value("${response-cache.max-entry-size:1MB}") DataSize maxEntrySize,
+            @Value("${response-cache.max-ttl:60s}") Duration maxTtl,
+            MeterRegistry meterRegistry) {
+        this.maxEntryBytes = maxEntrySize.toBytes();
+        this.maxTtl = maxTtl;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse entry) -> key.length() + entry.body().length)
+                .expireAfter(Expiry.<String, CachedResponse>creating((key, entry) -> entry.ttl()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, CACHE_NAME);
+        this.coalesced = Counter.builder("gateway.response.cache.coalesced")
+                .description("Requests that waited for an in-flight upstream call instead of making their own")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET || !isEnabled(exchange.getAttribute(GATEWAY_ROUTE_ATTR))) {
+            return chain.filter(exchange);
+        }
+
+        String requestCacheControl = request.getHeaders().getCacheControl();
+        if (requestCacheControl != null && requestCacheControl.contains("no-store")) {
+            return chain.filter(exchange);
+        }
+
+        String key = cacheKey(request);
+        if (requestCacheControl != null && requestCacheControl.contains("no-cache")) {
+            return fetch(exchange, chain, key, new CompletableFuture<>());
+        }
+
+        CachedResponse cached = responses.getIfPresent(key);
+        if (cached != null && cached.matches(request.getHeaders())) {
+            return write(exchange, cached);
+        }
+
+        CompletableFuture<Optional<CachedResponse>> leader = new CompletableFuture<>();
+        CompletableFuture<Optional<CachedResponse>> existing = inFlight.putIfAbsent(key, leader);
+        if (existing == null) {
+            return fetch(exchange, chain, key, leader)
+                    .doFinally(signal -> inFlight.remove(key, leader));
+        }
+
+        coalesced.increment();
+        return Mono.fromFuture(existing, true)
+                .flatMap(entry -> entry.isPresent() && entry.get().matches(request.getHeaders())
+                        ? write(exchange, entry.get())
+                        : chain.filter(exchange));
+    }
+
+    private Mono<Void> fetch(ServerWebExchange exchange, GatewayFilterChain chain, String key,
+                             CompletableFuture<Optional<CachedResponse>> result) {
+        exchange.getResponse().getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+
+        ServerHttpResponse original = exchange.getResponse();
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(original) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                Duration ttl = cacheableFor(getStatusCode(), getHeaders());
+                if (ttl == null) {
+                    result.complete(Optional.empty());
+                    return super.writeWith(body);
+                }
+                // A declared length over the limit is streamed straight through. Otherwise the body is copied while
+                // it streams to the client, and copying stops once it passes the limit, so no more than
+                // max-entry-size is ever held per response.
+                if (getHeaders().getContentLength() > maxEntryBytes) {
+                    result.complete(Optional.empty());
+                    return super.writeWith(body);
+                }
+                BoundedBody copy = new BoundedBody(maxEntryBytes);
+                return super.writeWith(Flux.from(body)
+                        .doOnNext(copy::append)
+                        .doOnComplete(() -> {
+                            byte[] bytes = copy.bytes();
+                            if (bytes != null) {
+                                CachedResponse entry = CachedResponse.of(
+                                        getStatusCode(), getHeaders(), exchange.getRequest().getHeaders(), bytes, ttl);
+                                responses.put(key, entry);
+                                result.complete(Optional.of(entry));
+                            } else {
+                                result.complete(Optional.empty());
+                            }
+                        }));
+            }
+        };
+
+        return chain.filter(exchange.mutate().response(capturing).build())
+                .doFinally(signal -> result.complete(Optional.empty()));
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.addAll(cached.headers());
+        headers.set(HttpHeaders.AGE, String.valueOf(cached.ageSeconds()));
+        headers.set(CACHE_STATUS_HEADER, "HIT");
+
+        String etag = cached.headers().getETag();
+        if (etag != null && exchange.getRequest().getHeaders().getIfNoneMatch().contains(etag)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(cached.status());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private Duration cacheableFor(HttpStatusCode status, HttpHeaders headers) {
+        if (status == null || status.value() != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return null;
+        }
+        String vary = headers.getFirst(HttpHeaders.VARY);
+        if (vary != null && vary.contains("*")) {
+            return null;
+        }
+
+        Long maxAge = null;
+        Long sharedMaxAge = null;
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null) {
+            return null;
+        }
+        for (String directive : cacheControl.toLowerCase().split(",")) {
+            String value = directive.trim();
+            if (value.equals("no-store") || value.equals("no-cache") || value.equals("private")) {
+                return null;
+            } else if (value.startsWith("s-maxage=")) {
+                sharedMaxAge = parseSeconds(value.substring("s-maxage=".length()));
+            } else if (value.startsWith("max-age=")) {
+                maxAge = parseSeconds(value.substring("max-age=".length()));
+            }
+        }
+
+        Long seconds = sharedMaxAge != null ? sharedMaxAge : maxAge;
+        if (seconds == null || seconds <= 0) {
+            return null;
+        }
+        Duration ttl = Duration.ofSeconds(seconds);
+        return ttl.compareTo(maxTtl) > 0 ? maxTtl : ttl;
+    }
+
+    private static Long parseSeconds(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean isEnabled(Route route) {
+        if (route == null) {
+            return false;
+        }
+        return Boolean.parseBoolean(String.valueOf(route.getMetadata().get(ROUTE_METADATA_KEY)));
+    }
+
+    // Path + query parameters sorted by name + a digest of the credentials, so users never see each other's
+    // responses. The parameters stay percent-encoded: decoded, ?name=a%26b and ?name=a&b=... would share a key.
+    static String cacheKey(ServerHttpRequest request) {
+        List<String> parameters = new ArrayList<>();
+        String rawQuery = request.getURI().getRawQuery();
+        if (rawQuery != null) {
+            for (String parameter : rawQuery.split("&")) {
+                if (!parameter.isEmpty()) {
+                    parameters.add(parameter);
+                }
+            }
+        }
+        // Stable sort on the name only, so repeated parameters keep their order.
+        parameters.sort(Comparator.comparing(parameter -> parameter.split("=", 2)[0]));
+
+        StringBuilder key = new StringBuilder(request.getPath().value());
+        if (!parameters.isEmpty()) {
+            key.append('?').append(String.join("&", parameters));
+        }
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        return key.append('#').append(authorization == null ? "anonymous" : sha256(authorization)).toString();
+    }
+
+    // The request header values a response with Vary was chosen by, e.g. "accept-language=de" for Vary:
+    // Accept-Language. An entry is only served to requests with the same values.
+    static String variantOf(List<String> vary, HttpHeaders requestHeaders) {
+        StringJoiner variant = new StringJoiner("\n");
+        vary.forEach(name -> variant.add(name.toLowerCase(Locale.ROOT) + "="
+                + String.join(",", requestHeaders.getOrEmpty(name))));
+        return variant.toString();
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return -50; // after rate limiting, before the response is written (-1)
+    }
+
+    // Copies the bytes of each buffer without consuming it, until more than the limit has gone past.
+    private static final class BoundedBody {
+
+        private final long limit;
+        private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        BoundedBody(long limit) {
+            this.limit = limit;
+        }
+
+        void append(DataBuffer buffer) {
+            if (bytes == null) {
+                return;
+            }
+            int readable = buffer.readableByteCount();
+            if (bytes.size() + (long) readable > limit) {
+                bytes = null;
+                return;
+            }
+            int position = buffer.readPosition();
+            byte[] chunk = new byte[readable];
+            buffer.read(chunk);
+            buffer.readPosition(position);
+            bytes.writeBytes(chunk);
+        }
+
+        // The whole body, or null once it went over the limit.
+        byte[] bytes() {
+            return bytes != null ? bytes.toByteArray() : null;
+        }
+    }
+
+    record CachedResponse(
+            HttpStatusCode status,
+            HttpHeaders headers,
+            String variant,
+            byte[] body,
+            Duration ttl,
+            long storedAtNanos
+    ) {
+
+        static CachedResponse of(HttpStatusCode status, HttpHeaders source, HttpHeaders requestHeaders,
+                                 byte[] body, Duration ttl) {
+            HttpHeaders headers = new HttpHeaders();
+            STORED_HEADERS.forEach(name -> {
+                List<String> values = source.get(name);
+                if (values != null) {
+                    headers.put(name, values);
+                }
+            });
+            String variant = variantOf(source.getVary(), requestHeaders);
+            return new CachedResponse(
+                    status, HttpHeaders.readOnlyHttpHeaders(headers), variant, body, ttl, System.nanoTime());
+        }
+
+        // Only one variant is kept per key: a request for another one misses and its response replaces this entry.
+        boolean matches(HttpHeaders requestHeaders) {
+            return variant.equals(variantOf(headers.getVary(), requestHeaders));
+        }
+
+        long ageSeconds() {
+            return Duration.ofNanos(System.nanoTime() - storedAtNanos).toSeconds();
+        }
+    }
+}
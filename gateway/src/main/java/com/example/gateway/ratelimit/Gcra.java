@@ -0,0 +1,49 @@
+package com.example.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Generic cell rate algorithm: a token bucket's rate and burst expressed as one theoretical arrival time (TAT).
+// Every unit pushes the TAT one emission interval further; a request is let through while the TAT stays within
+// capacity intervals of now. Unlike the token bucket it refills continuously instead of once per refill period.
+class Gcra implements Limiter {
+
+    private final long emissionNanos;
+    private final long toleranceNanos;
+    private final long originNanos;
+    private final Ticker ticker;
+    private final AtomicLong tat = new AtomicLong();
+
+    Gcra(long capacity, long refillTokens, Duration refillDuration, Ticker ticker) {
+        this.emissionNanos = emissionNanos(refillTokens, refillDuration);
+        this.toleranceNanos = capacity * emissionNanos;
+        this.ticker = ticker;
+        this.originNanos = ticker.read();
+    }
+
+    @Override
+    public long tryConsume(long cost) {
+        long now = ticker.read() - originNanos;
+        while (true) {
+            long current = tat.get();
+            long available = available(current, now, emissionNanos, toleranceNanos);
+            if (available < cost) {
+                return -1;
+            }
+            if (tat.compareAndSet(current, Math.max(current, now) + cost * emissionNanos)) {
+                return available - cost;
+            }
+        }
+    }
+
+    // Units that can be taken at now given the TAT.
+    static long available(long tat, long now, long emissionNanos, long toleranceNanos) {
+        return Math.max(0, (now + toleranceNanos - Math.max(tat, now)) / emissionNanos);
+    }
+
+    static long emissionNanos(long refillTokens, Duration refillDuration) {
+        return Math.max(1, refillDuration.toNanos() / refillTokens);
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.IMap;
+import reactor.core.publisher.Mono;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Limiter state shared by all gateway replicas in a Hazelcast IMap, so N replicas still enforce one limit. A replica
+// does not go to the cluster for every request: it leases up to lease-size units at once and serves requests from
+// that local lease until it is used up, with at most one lease request per key in flight. Each grant of leased units
+// that is not used within lease-ttl of being granted is dropped rather than handed back, which can only make the
+// effective limit stricter.
+// Token-bucket and GCRA state is one long per key; sliding-window-log policies need the memory store.
+public class HazelcastRateLimitStore implements RateLimitStore {
+
+    public static final String MAP_NAME = "gateway-rate-limit";
+
+    private final IMap<String, Long> buckets;
+    private final Map<String, Cache<String, Lease>> leases = new ConcurrentHashMap<>();
+    private final long leaseSize;
+    private final Duration leaseTtl;
+    private final long maxBuckets;
+    private final LongSupplier currentTimeMillis;
+
+    public HazelcastRateLimitStore(IMap<String, Long> buckets, long leaseSize, Duration leaseTtl, long maxBuckets) {
+        this(buckets, leaseSize, leaseTtl, maxBuckets, System::currentTimeMillis);
+    }
+
+    HazelcastRateLimitStore(IMap<String, Long> buckets, long leaseSize, Duration leaseTtl, long maxBuckets,
+                            LongSupplier currentTimeMillis) {
+        this.buckets = buckets;
+        this.leaseSize = Math.max(1, leaseSize);
+        this.leaseTtl = leaseTtl;
+        this.maxBuckets = maxBuckets;
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    public static void validate(RateLimitPolicies policies) {
+        for (RateLimitPolicy policy : policies.all()) {
+            if (policy.algorithm() == RateLimitPolicy.Algorithm.SLIDING_WINDOW_LOG) {
+                throw new IllegalArgumentException("rate-limit policy " + policy.id()
+                        + ": sliding-window-log is only supported by rate-limit.store=memory");
+            }
+        }
+    }
+
+    @Override
+    public Mono<Long> tryConsume(RateLimitPolicy policy, String key) {
+        return Mono.defer(() -> {
+            Lease lease = leases(policy).get(key, k -> new Lease(leaseTtl.toMillis(), currentTimeMillis));
+            long cost = policy.cost();
+            long remaining = lease.take(cost);
+            if (remaining >= 0) {
+                return Mono.just(remaining);
+            }
+            return Mono.fromCompletionStage(lease.renew(() -> buckets.submitToKey(policy.id() + ':' + key,
+                            new LeaseTokens(policy.algorithm(), policy.capacity(), policy.refillTokens(),
+                                    policy.refillDuration().toMillis(), cost, Math.max(leaseSize, cost),
+                                    currentTimeMillis.getAsLong()))))
+                    .then(Mono.fromSupplier(() -> lease.take(cost)));
+        });
+    }
+
+    private Cache<String, Lease> leases(RateLimitPolicy policy) {
+        Cache<String, Lease> cache = leases.get(policy.id());
+        return cache != null ? cache : leases.computeIfAbsent(policy.id(), id -> Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                // A lease in use is kept; its grants expire on their own. An idle one holds nothing worth keeping.
+                .expireAfterAccess(leaseTtl)
+                .build());
+    }
+
+    // Units this replica holds for one key, as grants that each expire lease-ttl after they were made, plus what the
+    // cluster had left at the last grant; the sum is the X-RateLimit-Remaining estimate. Requests use the oldest grant
+    // first, so the units closest to expiry go first.
+    private static final class Lease {
+
+        private final long ttlMillis;
+        private final LongSupplier currentTimeMillis;
+        private final ArrayDeque<Grant> grants = new ArrayDeque<>();
+        private long tokens;
+        private long clusterRemaining;
+        private CompletableFuture<Void> renewal;
+
+        Lease(long ttlMillis, LongSupplier currentTimeMillis) {
+            this.ttlMillis = ttlMillis;
+            this.currentTimeMillis = currentTimeMillis;
+        }
+
+        synchronized long take(long cost) {
+            long now = currentTimeMillis.getAsLong();
+            while (!grants.isEmpty() && grants.peekFirst().expiresAtMillis <= now) {
+                tokens -= grants.pollFirst().units;
+            }
+            if (tokens < cost) {
+                return -1;
+            }
+            tokens -= cost;
+            long left = cost;
+            while (left > 0) {
+                Grant oldest = grants.peekFirst();
+                long used = Math.min(left, oldest.units);
+                oldest.units -= used;
+                left -= used;
+                if (oldest.units == 0) {
+                    grants.pollFirst();
+                }
+            }
+            return tokens + clusterRemaining;
+        }
+
+        private synchronized void grant(long units, long remaining) {
+            clusterRemaining = remaining;
+            if (units > 0) {
+                grants.addLast(new Grant(units, currentTimeMillis.getAsLong() + ttlMillis));
+                tokens += units;
+            }
+        }
+
+        // Concurrent requests that find the lease empty share one round trip to the cluster.
+        synchronized CompletionStage<Void> renew(Supplier<CompletionStage<Long>> leaseTokens) {
+            // A finished renewal can still be here until its completion callback has run.
+            if (renewal == null || renewal.isDone()) {
+                CompletableFuture<Void> next = leaseTokens.get()
+                        .thenAccept(result -> grant(result >>> 32, result & 0xFFFF_FFFFL))
+                        .toCompletableFuture();
+                renewal = next;
+                next.whenComplete((ignored, error) -> clearRenewal(next));
+            }
+            return renewal;
+        }
+
+        private synchronized void clearRenewal(CompletableFuture<Void> completed) {
+            if (renewal == completed) {
+                renewal = null;
+            }
+        }
+    }
+
+    private static final class Grant {
+
+        private long units;
+        private final long expiresAtMillis;
+
+        Grant(long units, long expiresAtMillis) {
+            this.units = units;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    // Runs on the member owning the key: brings the shared state up to the wall clock and grants up to amount
+    // units, or none when fewer than cost are left so a heavy request does not waste them. Returns the granted
+    // units in the high and the units left in the low 32 bits.
+    record LeaseTokens(RateLimitPolicy.Algorithm algorithm, long capacity, long refillTokens, long refillMillis,
+                       long cost, long amount, long nowMillis)
+            implements EntryProcessor<String, Long, Long>, Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 2L;
+
+        @Override
+        public Long process(Map.Entry<String, Long> entry) {
+            return algorithm == RateLimitPolicy.Algorithm.GCRA ? gcra(entry) : tokenBucket(entry);
+        }
+
+        private long tokenBucket(Map.Entry<String, Long> entry) {
+            long period = nowMillis / Math.max(1, refillMillis);
+            Long current = entry.getValue();
+            long state = current == null
+                    ? TokenBucket.pack(period, capacity)
+                    : TokenBucket.refill(current, period, capacity, refillTokens);
+            long tokens = TokenBucket.tokens(state);
+            long granted = tokens < cost ? 0 : Math.min(amount, tokens);
+            entry.setValue(state - granted);
+            return granted << 32 | (tokens - granted);
+        }
+
+        // The shared TAT is in wall-clock nanos.
+        private long gcra(Map.Entry<String, Long> entry) {
+            long emission = Gcra.emissionNanos(refillTokens, Duration.ofMillis(refillMillis));
+            long now = nowMillis * 1_000_000;
+            Long current = entry.getValue();
+            long tat = current == null ? now : current;
+            long available = Gcra.available(tat, now, emission, capacity * emission);
+            long granted = available < cost ? 0 : Math.min(amount, available);
+            entry.setValue(Math.max(tat, now) + granted * emission);
+            return granted << 32 | (available - granted);
+        }
+    }
+}
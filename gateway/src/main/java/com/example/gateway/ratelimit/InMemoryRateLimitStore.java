@@ -0,0 +1,53 @@
+package com.example.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Limiters in this gateway's heap, one bounded cache per policy so that scanners or spoofed X-Forwarded-For values
+// cannot grow it forever; a key idle long enough to be back at full capacity is no different from a new one, so it
+// expires after that.
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final Map<String, Cache<String, Limiter>> limiters = new ConcurrentHashMap<>();
+    private final long maxBuckets;
+    private final Ticker ticker;
+
+    public InMemoryRateLimitStore(long maxBuckets) {
+        this(maxBuckets, Ticker.systemTicker());
+    }
+
+    InMemoryRateLimitStore(long maxBuckets, Ticker ticker) {
+        this.maxBuckets = maxBuckets;
+        this.ticker = ticker;
+    }
+
+    @Override
+    public Mono<Long> tryConsume(RateLimitPolicy policy, String key) {
+        return Mono.just(limiters(policy).get(key, k -> Limiter.create(policy, ticker)).tryConsume(policy.cost()));
+    }
+
+    private Cache<String, Limiter> limiters(RateLimitPolicy policy) {
+        Cache<String, Limiter> cache = limiters.get(policy.id());
+        return cache != null ? cache : limiters.computeIfAbsent(policy.id(), id -> Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(policy.idleTimeout())
+                .ticker(ticker)
+                .build());
+    }
+
+    long bucketCount(RateLimitPolicy policy) {
+        Cache<String, Limiter> cache = limiters(policy);
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    public static Duration timeToRefill(long capacity, long refillTokens, Duration refillDuration) {
+        return refillDuration.multipliedBy((capacity + refillTokens - 1) / refillTokens);
+    }
+}
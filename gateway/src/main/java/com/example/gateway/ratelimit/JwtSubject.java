@@ -0,0 +1,120 @@
+package com.example.gateway.ratelimit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+// Reads the "sub" claim of a bearer JWT for keying rate limits, after checking its HS256 signature with the secret
+// api-service verifies tokens with. Only a signed subject gets a bucket of its own; anything else is keyed by client
+// IP, so forged tokens cannot mint fresh buckets. Expiry is left to api-service: an expired token still names a real
+// subject. A scan over the decoded segments instead of a JSON parse keeps it to the decode buffers and the subject.
+public final class JwtSubject {
+
+    private static final String BEARER = "Bearer ";
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final byte[] ALG_CLAIM = "\"alg\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SUB_CLAIM = "\"sub\"".getBytes(StandardCharsets.US_ASCII);
+
+    private final SecretKeySpec key;
+    // Mac instances are not thread-safe; one per event-loop thread.
+    private final ThreadLocal<Mac> macs;
+
+    // A blank secret verifies nothing: every subject policy then falls back to the client IP.
+    public JwtSubject(String secret) {
+        this.key = secret == null || secret.isBlank()
+                ? null
+                : new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_SHA256);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    // The subject, or null when the header holds no correctly signed HS256 JWT with a plain string subject.
+    public String fromAuthorization(String authorization) {
+        if (key == null
+                || authorization == null
+                || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return null;
+        }
+        int start = authorization.indexOf('.', BEARER.length());
+        int end = start < 0 ? -1 : authorization.indexOf('.', start + 1);
+        if (end < 0) {
+            return null;
+        }
+        byte[] header;
+        byte[] payload;
+        byte[] signature;
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            header = decoder.decode(authorization.substring(BEARER.length(), start));
+            payload = decoder.decode(authorization.substring(start + 1, end));
+            signature = decoder.decode(authorization.substring(end + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!"HS256".equals(stringClaim(header, ALG_CLAIM)) || !verify(authorization, end, signature)) {
+            return null;
+        }
+        return stringClaim(payload, SUB_CLAIM);
+    }
+
+    private boolean verify(String authorization, int end, byte[] signature) {
+        Mac mac = macs.get();
+        byte[] signingInput = authorization.substring(BEARER.length(), end).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(mac.doFinal(signingInput), signature);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static String stringClaim(byte[] json, byte[] claimName) {
+        int claim = indexOf(json, claimName);
+        if (claim < 0) {
+            return null;
+        }
+        int i = skipWhitespace(json, claim + claimName.length);
+        if (i >= json.length || json[i] != ':') {
+            return null;
+        }
+        i = skipWhitespace(json, i + 1);
+        if (i >= json.length || json[i] != '"') {
+            return null;
+        }
+        int from = ++i;
+        while (i < json.length && json[i] != '"') {
+            if (json[i] == '\\') {
+                return null;
+            }
+            i++;
+        }
+        return i < json.length && i > from ? new String(json, from, i - from, StandardCharsets.UTF_8) : null;
+    }
+
+    private static int skipWhitespace(byte[] bytes, int i) {
+        while (i < bytes.length && (bytes[i] == ' ' || bytes[i] == '\t' || bytes[i] == '\n' || bytes[i] == '\r')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int indexOf(byte[] bytes, byte[] pattern) {
+        outer:
+        for (int i = 0; i <= bytes.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (bytes[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+
+// The per-key state of one rate-limit algorithm in this gateway's heap. Implementations allocate nothing per call.
+interface Limiter {
+
+    // Units left after taking cost, or -1 when fewer than cost are available; nothing is taken then.
+    long tryConsume(long cost);
+
+    static Limiter create(RateLimitPolicy policy, Ticker ticker) {
+        return switch (policy.algorithm()) {
+            case TOKEN_BUCKET ->
+                    new TokenBucket(policy.capacity(), policy.refillTokens(), policy.refillDuration(), ticker);
+            case GCRA -> new Gcra(policy.capacity(), policy.refillTokens(), policy.refillDuration(), ticker);
+            case SLIDING_WINDOW_LOG -> new SlidingWindowLog(policy.capacity(), policy.refillDuration(), ticker);
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.gateway.ratelimit;
+
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// The configured policies in order, the first match wins; requests nothing matches fall back to the per-IP default.
+// Resolving walks a plain array and compares route id and method, so it allocates nothing per request.
+public class RateLimitPolicies {
+
+    private final RateLimitPolicy[] policies;
+    private final RateLimitPolicy fallback;
+
+    public RateLimitPolicies(List<RateLimitPolicy> policies, RateLimitPolicy fallback) {
+        Set<String> ids = new HashSet<>(Set.of(fallback.id()));
+        for (RateLimitPolicy policy : policies) {
+            if (!ids.add(policy.id())) {
+                throw new IllegalArgumentException("Duplicate rate-limit policy id " + policy.id());
+            }
+        }
+        this.policies = policies.toArray(RateLimitPolicy[]::new);
+        this.fallback = fallback;
+    }
+
+    public RateLimitPolicy resolve(String routeId, HttpMethod method) {
+        for (RateLimitPolicy policy : policies) {
+            if (policy.matches(routeId, method)) {
+                return policy;
+            }
+        }
+        return fallback;
+    }
+
+    public List<RateLimitPolicy> all() {
+        List<RateLimitPolicy> all = new ArrayList<>(List.of(policies));
+        all.add(fallback);
+        return all;
+    }
+}
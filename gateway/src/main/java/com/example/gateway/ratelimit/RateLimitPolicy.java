@@ -0,0 +1,73 @@
+package com.example.gateway.ratelimit;
+
+import org.springframework.http.HttpMethod;
+
+import java.time.Duration;
+
+// One rate-limit rule from rate-limit.policies. A request is matched on route id and HTTP method (either left out
+// matches everything), counted against the key the policy names and takes cost units from it:
+//   token-bucket        capacity tokens, refill-tokens more every refill-duration
+//   gcra                the same rate and burst as a token bucket, kept as a single theoretical arrival time
+//   sliding-window-log  at most capacity units in any refill-duration window; 8 bytes per unit of capacity per key
+public record RateLimitPolicy(
+        String id,
+        String routeId,
+        HttpMethod method,
+        Key key,
+        Algorithm algorithm,
+        long capacity,
+        long refillTokens,
+        Duration refillDuration,
+        long cost) {
+
+    // A sliding-window log keeps one timestamp per unit of capacity for every key.
+    static final long MAX_LOG_CAPACITY = 10_000;
+
+    public enum Key {
+        IP, SUBJECT, API_KEY
+    }
+
+    public enum Algorithm {
+        TOKEN_BUCKET, GCRA, SLIDING_WINDOW_LOG
+    }
+
+    public RateLimitPolicy {
+        if (id == null || id.isBlank()) {
+            throw new IllegalArgumentException("rate-limit policies need an id");
+        }
+        key = key == null ? Key.IP : key;
+        algorithm = algorithm == null ? Algorithm.TOKEN_BUCKET : algorithm;
+        refillTokens = refillTokens == 0 ? capacity : refillTokens;
+        refillDuration = refillDuration == null ? Duration.ofSeconds(1) : refillDuration;
+        cost = cost == 0 ? 1 : cost;
+
+        String name = "rate-limit policy " + id;
+        TokenBucket.validate(capacity, refillTokens);
+        if (algorithm == Algorithm.SLIDING_WINDOW_LOG && capacity > MAX_LOG_CAPACITY) {
+            throw new IllegalArgumentException(name + ": a sliding-window-log holds at most " + MAX_LOG_CAPACITY);
+        }
+        if (refillDuration.isNegative() || refillDuration.isZero()) {
+            throw new IllegalArgumentException(name + ": refill-duration must be positive");
+        }
+        if (cost < 1 || cost > capacity) {
+            throw new IllegalArgumentException(name + ": cost must be between 1 and the capacity");
+        }
+    }
+
+    // The policy for everything no other policy matches: the global per-IP token bucket.
+    public static RateLimitPolicy perIp(long capacity, long refillTokens, Duration refillDuration) {
+        return new RateLimitPolicy("default", null, null, Key.IP, Algorithm.TOKEN_BUCKET,
+                capacity, refillTokens, refillDuration, 1);
+    }
+
+    boolean matches(String requestRouteId, HttpMethod requestMethod) {
+        return (routeId == null || routeId.equals(requestRouteId)) && (method == null || method.equals(requestMethod));
+    }
+
+    // How long an untouched key takes to be back at full capacity; after that its state can be forgotten.
+    public Duration idleTimeout() {
+        return algorithm == Algorithm.SLIDING_WINDOW_LOG
+                ? refillDuration
+                : InMemoryRateLimitStore.timeToRefill(capacity, refillTokens, refillDuration);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.gateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+// Where the per-key limiter state behind IpRateLimiterFilter lives. Selected with rate-limit.store: "memory"
+// (default) keeps it in this gateway's heap, "hazelcast" shares it between all gateway replicas.
+public interface RateLimitStore {
+
+    // Takes the policy's cost from the given key under that policy: the units left afterwards, or -1 when there
+    // are not enough.
+    Mono<Long> tryConsume(RateLimitPolicy policy, String key);
+}
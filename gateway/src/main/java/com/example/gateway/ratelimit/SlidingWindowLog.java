@@ -0,0 +1,55 @@
+package com.example.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+// Exact sliding window: a ring of the timestamps of the last capacity units, oldest at head. Taking cost units
+// needs the cost-th oldest timestamp to have left the window; remaining units are found by binary search over the
+// ring, which is sorted from head. The ring is preallocated, so a call allocates nothing; the short critical
+// section is guarded by the log itself.
+class SlidingWindowLog implements Limiter {
+
+    private final long[] log;
+    private final long windowNanos;
+    private final Ticker ticker;
+    private int head;
+
+    SlidingWindowLog(long capacity, Duration window, Ticker ticker) {
+        this.log = new long[(int) capacity];
+        this.windowNanos = window.toNanos();
+        this.ticker = ticker;
+        Arrays.fill(log, Long.MIN_VALUE);
+    }
+
+    @Override
+    public synchronized long tryConsume(long cost) {
+        long now = ticker.read();
+        long expired = now - windowNanos;
+        int capacity = log.length;
+        if (cost > capacity || log[(head + (int) cost - 1) % capacity] > expired) {
+            return -1;
+        }
+        for (int i = 0; i < cost; i++) {
+            log[head] = now;
+            head = (head + 1) % capacity;
+        }
+        return countExpired(expired);
+    }
+
+    // Entries from head onwards that are at or before expired, i.e. free to be taken again.
+    private long countExpired(long expired) {
+        int low = 0;
+        int high = log.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (log[(head + mid) % log.length] <= expired) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free bucket: the token count and the refill period it was last brought up to date in are packed into
+// one long and updated with compare-and-set, so every request does a single refill and a single CAS.
+class TokenBucket implements Limiter {
+
+    private static final int TOKEN_BITS = 20;
+    static final long MAX_CAPACITY = (1L << TOKEN_BITS) - 1;
+
+    private final long capacity;
+    private final long refillTokens;
+    private final long refillNanos;
+    private final long originNanos;
+    private final Ticker ticker;
+    private final AtomicLong state;
+
+    TokenBucket(long capacity, long refillTokens, Duration refillDuration, Ticker ticker) {
+        this.capacity = capacity;
+        this.refillTokens = refillTokens;
+        this.refillNanos = refillDuration.toNanos();
+        this.ticker = ticker;
+        this.originNanos = ticker.read();
+        this.state = new AtomicLong(pack(0, capacity));
+    }
+
+    @Override
+    public long tryConsume(long cost) {
+        long period = (ticker.read() - originNanos) / refillNanos;
+        while (true) {
+            long current = state.get();
+            long refilled = refill(current, period, capacity, refillTokens);
+            long tokens = tokens(refilled);
+            if (tokens < cost) {
+                return -1;
+            }
+            if (state.compareAndSet(current, refilled - cost)) {
+                return tokens - cost;
+            }
+        }
+    }
+
+    // The packed state brought up to the given refill period.
+    static long refill(long state, long period, long capacity, long refillTokens) {
+        long lastPeriod = state >>> TOKEN_BITS;
+        if (period <= lastPeriod) {
+            return state;
+        }
+        // Capping the periods keeps a long idle gap from overflowing; capacity periods refill any bucket.
+        long tokens = Math.min(capacity, tokens(state) + Math.min(period - lastPeriod, capacity) * refillTokens);
+        return pack(period, tokens);
+    }
+
+    static long tokens(long state) {
+        return state & MAX_CAPACITY;
+    }
+
+    static long pack(long period, long tokens) {
+        return period << TOKEN_BITS | tokens;
+    }
+
+    static void validate(long capacity, long refillTokens) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("rate-limit.capacity must be between 1 and " + MAX_CAPACITY);
+        }
+        if (refillTokens < 1) {
+            throw new IllegalArgumentException("rate-limit.refill-tokens must be positive");
+        }
+    }
+}
@@ -18,6 +18,8 @@ import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import java.util.concurrent.TimeUnit;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest(
@@ -96,6 +98,33 @@ class GatewayToApiIntegrationTest {
                 .isEqualTo(correlationId);
     }
 
+    @Test
+    void shouldForwardAGeneratedCorrelationIdUpstream() throws Exception {
+        apiServer.enqueue(
+                new MockResponse()
+                        .setBody(RESPONSE_BODY)
+                        .addHeader("Content-Type", "application/json")
+        );
+
+        String returned = webTestClient.get()
+                .uri("/api/products?page=1&size=5")
+                .header("X-Forwarded-For", "203.0.113.20")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders()
+                .getFirst(CorrelationIdConstants.HEADER_NAME);
+
+        // Other tests leave their requests on the mock server too.
+        RecordedRequest recorded = apiServer.takeRequest(5, TimeUnit.SECONDS);
+        while (recorded != null && !"/products?page=1&size=5".equals(recorded.getPath())) {
+            recorded = apiServer.takeRequest(5, TimeUnit.SECONDS);
+        }
+        assertThat(recorded).isNotNull();
+        assertThat(returned).isNotBlank();
+        assertThat(recorded.getHeader(CorrelationIdConstants.HEADER_NAME)).isEqualTo(returned);
+    }
+
     @Test
     void shouldReturn429WhenRateLimitExceeded() {
         String clientIp = "203.0.113.10";
@@ -129,6 +158,32 @@ class GatewayToApiIntegrationTest {
         assertThat(after - before).isEqualTo(1);
     }
 
+    @Test
+    void shouldServeRepeatedCacheableReadsFromGatewayCache() {
+        int before = apiServer.getRequestCount();
+
+        apiServer.enqueue(
+                new MockResponse()
+                        .setBody(RESPONSE_BODY)
+                        .addHeader("Content-Type", "application/json")
+                        .addHeader("Cache-Control", "max-age=30")
+        );
+
+        String[] expected = {"MISS", "HIT"};
+        for (int i = 0; i < expected.length; i++) {
+            webTestClient.get()
+                    .uri("/cached/products/42")
+                    .header("X-Forwarded-For", "198.51.100." + i)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().valueEquals("X-Cache", expected[i])
+                    .expectBody()
+                    .jsonPath("$.pageSize").isEqualTo(10);
+        }
+
+        assertThat(apiServer.getRequestCount() - before).isEqualTo(1);
+    }
+
     @TestConfiguration
     static class TestRoutesConfig {
 
@@ -142,6 +197,11 @@ class GatewayToApiIntegrationTest {
             }
 
             return builder.routes()
+                    .route("cached-route", r -> r
+                            .path("/cached/**")
+                            .filters(f -> f.stripPrefix(1))
+                            .metadata("response-cache", true)
+                            .uri(apiBaseUrl))
                     .route("api-route", r -> r
                             .path("/api/**")
                             .filters(f -> f.stripPrefix(1))
@@ -0,0 +1,28 @@
+package com.example.gateway.config;
+
+import com.example.common.loadbalancer.InstanceLoadTracker;
+import com.example.common.loadbalancer.LatencyAwareLoadBalancer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "spring.cloud.discovery.client.simple.instances.api-service[0].uri=http://localhost:8081"
+})
+class LoadBalancerConfigTest {
+
+    @Autowired
+    private LoadBalancerClientFactory loadBalancerClientFactory;
+
+    @Test
+    void apiServiceRoutesShouldUseTheLatencyAwareBalancer() {
+        assertThat(loadBalancerClientFactory.getInstance("api-service")).isInstanceOf(LatencyAwareLoadBalancer.class);
+        assertThat(loadBalancerClientFactory.getInstances("api-service", LoadBalancerLifecycle.class).values())
+                .hasAtLeastOneElementOfType(InstanceLoadTracker.class);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.gateway.config;
+
+import com.example.gateway.ratelimit.HazelcastRateLimitStore;
+import com.example.gateway.ratelimit.RateLimitPolicies;
+import com.example.gateway.ratelimit.RateLimitPolicy;
+import com.example.gateway.ratelimit.RateLimitStore;
+import com.hazelcast.core.HazelcastInstance;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "rate-limit.store=hazelcast",
+        "rate-limit.hazelcast.port=5901"
+})
+class RateLimitConfigTest {
+
+    @Autowired
+    private RateLimitStore rateLimitStore;
+
+    @Autowired
+    private RateLimitPolicies rateLimitPolicies;
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    @Test
+    void hazelcastStoreShouldRunOnTheEmbeddedMember() {
+        assertThat(rateLimitStore).isInstanceOf(HazelcastRateLimitStore.class);
+        assertThat(hazelcastInstance.getConfig().getMapConfig(HazelcastRateLimitStore.MAP_NAME).getMaxIdleSeconds())
+                .isEqualTo(1);
+
+        RateLimitPolicy fallback = rateLimitPolicies.resolve("api-service", HttpMethod.POST);
+        assertThat(rateLimitStore.tryConsume(fallback, "10.0.0.1").block()).isEqualTo(19);
+    }
+
+    @Test
+    void policiesShouldBeBoundFromApplicationYml() {
+        RateLimitPolicy search = rateLimitPolicies.resolve("api-products-search", HttpMethod.GET);
+
+        assertThat(search.id()).isEqualTo("product-search");
+        assertThat(search.key()).isEqualTo(RateLimitPolicy.Key.SUBJECT);
+        assertThat(search.algorithm()).isEqualTo(RateLimitPolicy.Algorithm.GCRA);
+        assertThat(search.cost()).isEqualTo(4);
+        assertThat(rateLimitStore.tryConsume(search, "sub:alice").block()).isEqualTo(36);
+
+        assertThat(rateLimitPolicies.resolve("api-products", HttpMethod.GET).id()).isEqualTo("product-reads");
+        assertThat(rateLimitPolicies.resolve("api-products-search", HttpMethod.HEAD).id()).isEqualTo("default");
+    }
+}
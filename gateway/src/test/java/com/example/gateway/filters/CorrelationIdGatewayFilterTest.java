@@ -2,7 +2,7 @@ package com.example.gateway.filters;
 
 import com.example.common.CorrelationIdConstants;
 import org.junit.jupiter.api.Test;
-import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
 import org.springframework.mock.web.server.MockServerWebExchange;
 import reactor.core.publisher.Mono;
@@ -14,6 +14,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 class CorrelationIdGatewayFilterTest {
 
     private final CorrelationIdGatewayFilter filter = new CorrelationIdGatewayFilter();
+    private final CorrelationIdHeadersFilter headersFilter = new CorrelationIdHeadersFilter();
 
     @Test
     void shouldGenerateCorrelationIdIfMissing() {
@@ -21,10 +22,13 @@ class CorrelationIdGatewayFilterTest {
         MockServerWebExchange exchange = MockServerWebExchange.from(request);
 
         filter.filter(exchange, ex -> {
-            ServerHttpRequest mutated = ex.getRequest();
-            String header = mutated.getHeaders().getFirst(CorrelationIdConstants.HEADER_NAME);
-            assertThat(header).isNotBlank();
-            assertThat(UUID.fromString(header)).isNotNull(); // valid UUID
+            // Not copied onto the request; the id is added to the proxied headers instead.
+            assertThat(ex).isSameAs(exchange);
+            String generated = ex.getAttribute(CorrelationIdGatewayFilter.CORRELATION_ID_ATTR);
+            assertThat(UUID.fromString(generated)).isNotNull(); // valid UUID
+
+            HttpHeaders proxied = headersFilter.filter(ex.getRequest().getHeaders(), ex);
+            assertThat(proxied.getFirst(CorrelationIdConstants.HEADER_NAME)).isEqualTo(generated);
             return Mono.empty();
         }).block();
 
@@ -32,6 +36,7 @@ class CorrelationIdGatewayFilterTest {
                 exchange.getResponse().getHeaders().getFirst(CorrelationIdConstants.HEADER_NAME);
 
         assertThat(responseHeader).isNotBlank();
+        assertThat(responseHeader).isEqualTo(exchange.getAttribute(CorrelationIdGatewayFilter.CORRELATION_ID_ATTR));
         UUID.fromString(responseHeader);
     }
 
@@ -46,10 +51,11 @@ class CorrelationIdGatewayFilterTest {
         MockServerWebExchange exchange = MockServerWebExchange.from(request);
 
         filter.filter(exchange, ex -> {
-            String mutatedHeader =
-                    ex.getRequest().getHeaders().getFirst(CorrelationIdConstants.HEADER_NAME);
+            assertThat(ex).isSameAs(exchange);
+            assertThat(ex.getRequest().getHeaders().getFirst(CorrelationIdConstants.HEADER_NAME)).isEqualTo(cid);
 
-            assertThat(mutatedHeader).isEqualTo(cid);
+            HttpHeaders proxied = headersFilter.filter(ex.getRequest().getHeaders(), ex);
+            assertThat(proxied).isSameAs(ex.getRequest().getHeaders());
             return Mono.empty();
         }).block();
 
@@ -58,4 +64,20 @@ class CorrelationIdGatewayFilterTest {
 
         assertThat(responseCid).isEqualTo(cid);
     }
+
+    @Test
+    void generatedIdShouldBeWrittenIntoTheCopyEarlierHeaderFiltersMade() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/test").header("Accept", "application/json").build());
+        filter.filter(exchange, ex -> Mono.empty()).block();
+        HttpHeaders copy = new HttpHeaders();
+        copy.addAll(exchange.getRequest().getHeaders());
+
+        HttpHeaders proxied = headersFilter.filter(copy, exchange);
+
+        assertThat(proxied).isSameAs(copy);
+        assertThat(proxied.getFirst(CorrelationIdConstants.HEADER_NAME))
+                .isEqualTo(exchange.getAttribute(CorrelationIdGatewayFilter.CORRELATION_ID_ATTR));
+        assertThat(exchange.getRequest().getHeaders().getFirst(CorrelationIdConstants.HEADER_NAME)).isNull();
+    }
 }
@@ -1,22 +1,78 @@
 package com.example.gateway.filters;
 
+import com.example.gateway.ratelimit.InMemoryRateLimitStore;
+import com.example.gateway.ratelimit.JwtSubject;
+import com.example.gateway.ratelimit.RateLimitPolicies;
+import com.example.gateway.ratelimit.RateLimitPolicy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
 import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
 
 class IpRateLimiterFilterTest {
 
+    private static final RateLimitPolicy SEARCH = new RateLimitPolicy("search", "products-search", HttpMethod.GET,
+            RateLimitPolicy.Key.SUBJECT, RateLimitPolicy.Algorithm.GCRA, 10, 10, Duration.ofMinutes(1), 4);
+    private static final RateLimitPolicy PARTNERS = new RateLimitPolicy("partners", "partners", null,
+            RateLimitPolicy.Key.API_KEY, RateLimitPolicy.Algorithm.SLIDING_WINDOW_LOG, 3, 0, Duration.ofSeconds(5), 1);
+
+    private static final String SECRET = "test-secret-32-bytes-minimum-key!!";
+
     private IpRateLimiterFilter filter;
 
     @BeforeEach
     void setUp() {
-        filter = new IpRateLimiterFilter(2, 1, java.time.Duration.ofSeconds(1));
+        filter = new IpRateLimiterFilter(new InMemoryRateLimitStore(100), new RateLimitPolicies(
+                List.of(SEARCH, PARTNERS), RateLimitPolicy.perIp(2, 1, Duration.ofSeconds(1))),
+                new JwtSubject(SECRET), List.of("partner-1", "partner-2"));
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request, String routeId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async()
+                .id(routeId)
+                .uri("http://localhost")
+                .predicate((ServerWebExchange e) -> true)
+                .build());
+        return exchange;
+    }
+
+    private static String bearer(String subject) {
+        return bearer(subject, SECRET);
+    }
+
+    private static String bearer(String subject, String secret) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = encoder.encodeToString(
+                ("{\"sub\":\"" + subject + "\",\"exp\":4102444800}").getBytes(StandardCharsets.UTF_8));
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            String signature = encoder.encodeToString(
+                    mac.doFinal((header + "." + payload).getBytes(StandardCharsets.US_ASCII)));
+            return "Bearer " + header + "." + payload + "." + signature;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     @Test
@@ -86,4 +142,106 @@ class IpRateLimiterFilterTest {
         assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
         assertThat(exchange.getResponse().getHeaders().getFirst("Retry-After")).isEqualTo("1");
     }
+
+    @Test
+    void shouldAskTheStoreOncePerRequestWithTheClientIp() {
+        List<String> keys = new ArrayList<>();
+        var storeFilter = new IpRateLimiterFilter((policy, key) -> {
+            keys.add(key);
+            return Mono.just(7L);
+        }, new RateLimitPolicies(List.of(), RateLimitPolicy.perIp(20, 20, Duration.ofSeconds(1))),
+                new JwtSubject(SECRET), List.of());
+        var exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/").header("X-Real-IP", "10.1.1.1").build());
+
+        storeFilter.filter(exchange, e -> Mono.empty()).block();
+
+        assertThat(keys).containsExactly("10.1.1.1");
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-RateLimit-Remaining")).isEqualTo("7");
+    }
+
+    @Test
+    void matchingPolicyShouldApplyItsCostAndLimitPerSubject() {
+        String alice = bearer("alice");
+        List<String> remaining = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            var exchange = exchange(MockServerHttpRequest.get("/api/products").header(HttpHeaders.AUTHORIZATION, alice),
+                    "products-search");
+            filter.filter(exchange, e -> Mono.empty()).block();
+            remaining.add(exchange.getResponse().getHeaders().getFirst("X-RateLimit-Remaining"));
+        }
+
+        // Ten units, four per search: two searches, then rejected.
+        assertThat(remaining).containsExactly("6", "2", null);
+
+        // Same client IP, different subject: its own limit.
+        var bob = exchange(MockServerHttpRequest.get("/api/products").header(HttpHeaders.AUTHORIZATION, bearer("bob")),
+                "products-search");
+        filter.filter(bob, e -> Mono.empty()).block();
+        assertThat(bob.getResponse().getStatusCode()).isNull();
+        assertThat(bob.getResponse().getHeaders().getFirst("X-RateLimit-Limit")).isEqualTo("10");
+    }
+
+    @Test
+    void requestsWithoutTheConfiguredKeyShouldFallBackToTheClientIp() {
+        for (int i = 0; i < 2; i++) {
+            var exchange = exchange(MockServerHttpRequest.get("/api/products").header("X-Real-IP", "10.2.2.2"),
+                    "products-search");
+            filter.filter(exchange, e -> Mono.empty()).block();
+            assertThat(exchange.getResponse().getStatusCode()).isNull();
+        }
+
+        var exchange = exchange(MockServerHttpRequest.get("/api/products").header("X-Real-IP", "10.2.2.2"),
+                "products-search");
+        filter.filter(exchange, e -> Mono.empty()).block();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void forgedTokensAndUnknownApiKeysShouldBeKeyedByTheClientIp() {
+        List<String> keys = new ArrayList<>();
+        var keyFilter = new IpRateLimiterFilter((policy, key) -> {
+            keys.add(key);
+            return Mono.just(1L);
+        }, new RateLimitPolicies(List.of(SEARCH, PARTNERS), RateLimitPolicy.perIp(2, 1, Duration.ofSeconds(1))),
+                new JwtSubject(SECRET), List.of("partner-1"));
+
+        for (String token : List.of(bearer("alice"), bearer("mallory", "guessed-secret-32-bytes-long!!!!"))) {
+            keyFilter.filter(exchange(MockServerHttpRequest.get("/api/products")
+                    .header(HttpHeaders.AUTHORIZATION, token)
+                    .header("X-Real-IP", "10.3.3.3"), "products-search"), e -> Mono.empty()).block();
+        }
+        for (String apiKey : List.of("partner-1", "made-up")) {
+            keyFilter.filter(exchange(MockServerHttpRequest.post("/partners")
+                    .header("X-API-Key", apiKey)
+                    .header("X-Real-IP", "10.3.3.3"), "partners"), e -> Mono.empty()).block();
+        }
+
+        assertThat(keys).containsExactly("sub:alice", "10.3.3.3", "key:partner-1", "10.3.3.3");
+    }
+
+    @Test
+    void apiKeyPolicyShouldRejectPastItsWindowAndAnswerWithItsRetryAfter() {
+        for (int i = 0; i < 3; i++) {
+            var exchange = exchange(MockServerHttpRequest.post("/partners").header("X-API-Key", "partner-1"),
+                    "partners");
+            filter.filter(exchange, e -> Mono.empty()).block();
+            assertThat(exchange.getResponse().getStatusCode()).isNull();
+        }
+
+        var exchange = exchange(MockServerHttpRequest.post("/partners").header("X-API-Key", "partner-1"), "partners");
+        filter.filter(exchange, e -> Mono.empty()).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(exchange.getResponse().getHeaders().getFirst("Retry-After")).isEqualTo("5");
+    }
+
+    @Test
+    void unmatchedMethodShouldUseTheDefaultPolicy() {
+        var exchange = exchange(MockServerHttpRequest.head("/api/products"), "products-search");
+
+        filter.filter(exchange, e -> Mono.empty()).block();
+
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-RateLimit-Limit")).isEqualTo("2");
+    }
 }
@@ -0,0 +1,220 @@
+package com.example.gateway.filters;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class ResponseCacheFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ResponseCacheFilter filter;
+    private AtomicInteger upstreamCalls;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new ResponseCacheFilter(DataSize.ofMegabytes(1), DataSize.ofKilobytes(1), Duration.ofSeconds(60), meterRegistry);
+        upstreamCalls = new AtomicInteger();
+    }
+
+    @Test
+    void shouldServeRepeatedReadsFromCache() {
+        GatewayFilterChain chain = upstream("max-age=30", "\"v1\"", Duration.ZERO);
+
+        MockServerWebExchange first = exchange(MockServerHttpRequest.get("/products?size=10&page=0"), true);
+        filter.filter(first, chain).block();
+        MockServerWebExchange second = exchange(MockServerHttpRequest.get("/products?page=0&size=10"), true);
+        filter.filter(second, chain).block();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(first.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(second.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("{\"ok\":true}");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "gatewayResponses").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAnswerMatchingIfNoneMatchWith304FromCache() {
+        GatewayFilterChain chain = upstream("max-age=30", "\"v1\"", Duration.ZERO);
+        filter.filter(exchange(MockServerHttpRequest.get("/products/1"), true), chain).block();
+
+        MockServerWebExchange conditional = exchange(
+                MockServerHttpRequest.get("/products/1").header(HttpHeaders.IF_NONE_MATCH, "\"v1\""), true);
+        filter.filter(conditional, chain).block();
+
+        assertThat(conditional.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void shouldNotShareEntriesAcrossCredentials() {
+        GatewayFilterChain chain = upstream("max-age=30", null, Duration.ZERO);
+
+        filter.filter(exchange(MockServerHttpRequest.get("/products/1").header(HttpHeaders.AUTHORIZATION, "Bearer a"), true), chain).block();
+        filter.filter(exchange(MockServerHttpRequest.get("/products/1").header(HttpHeaders.AUTHORIZATION, "Bearer b"), true), chain).block();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void shouldHonourCacheControl() {
+        GatewayFilterChain noStore = upstream("no-store", null, Duration.ZERO);
+        filter.filter(exchange(MockServerHttpRequest.get("/products/1"), true), noStore).block();
+        filter.filter(exchange(MockServerHttpRequest.get("/products/1"), true), noStore).block();
+        assertThat(upstreamCalls).hasValue(2);
+
+        GatewayFilterChain cacheable = upstream("max-age=30", null, Duration.ZERO);
+        filter.filter(exchange(MockServerHttpRequest.get("/products/2"), true), cacheable).block();
+        filter.filter(exchange(MockServerHttpRequest.get("/products/2").header(HttpHeaders.CACHE_CONTROL, "no-cache"), true), cacheable).block();
+        assertThat(upstreamCalls).hasValue(4);
+    }
+
+    @Test
+    void shouldBypassRoutesWithoutFlag() {
+        GatewayFilterChain chain = upstream("max-age=30", null, Duration.ZERO);
+
+        filter.filter(exchange(MockServerHttpRequest.get("/products/1"), false), chain).block();
+        filter.filter(exchange(MockServerHttpRequest.get("/products/1"), false), chain).block();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void shouldCoalesceConcurrentMisses() {
+        GatewayFilterChain chain = upstream("max-age=30", null, Duration.ofMillis(100));
+
+        MockServerWebExchange first = exchange(MockServerHttpRequest.get("/products/1"), true);
+        MockServerWebExchange second = exchange(MockServerHttpRequest.get("/products/1"), true);
+        Mono.when(filter.filter(first, chain), filter.filter(second, chain)).block();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("{\"ok\":true}");
+        assertThat(meterRegistry.get("gateway.response.cache.coalesced").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldStreamBodiesOverTheEntryLimitWithoutCachingThem() {
+        // 1 KB entry limit: three 512-byte chunks pass it on the third, with and without a declared length.
+        byte[] chunk = "x".repeat(512).getBytes(StandardCharsets.UTF_8);
+        for (boolean declaredLength : new boolean[] {false, true}) {
+            String path = "/products/export?declared=" + declaredLength;
+            GatewayFilterChain chain = exchange -> {
+                upstreamCalls.incrementAndGet();
+                var response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.OK);
+                response.getHeaders().setCacheControl("max-age=30");
+                if (declaredLength) {
+                    response.getHeaders().setContentLength(chunk.length * 3L);
+                }
+                return response.writeWith(Flux.range(0, 3).map(i -> response.bufferFactory().wrap(chunk)));
+            };
+
+            MockServerWebExchange first = exchange(MockServerHttpRequest.get(path), true);
+            filter.filter(first, chain).block();
+            MockServerWebExchange second = exchange(MockServerHttpRequest.get(path), true);
+            filter.filter(second, chain).block();
+
+            assertThat(first.getResponse().getBodyAsString().block()).hasSize(chunk.length * 3);
+            assertThat(second.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        }
+        assertThat(upstreamCalls).hasValue(4);
+    }
+
+    @Test
+    void cacheKeyShouldSortQueryAndHideCredentials() {
+        String key = ResponseCacheFilter.cacheKey(MockServerHttpRequest.get("/products?size=5&page=1&sort=name&sort=price")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer secret").build());
+
+        assertThat(key).startsWith("/products?page=1&size=5&sort=name&sort=price#");
+        assertThat(key).doesNotContain("secret");
+    }
+
+    @Test
+    void cacheKeyShouldKeepEncodedDelimitersApart() {
+        // A URI, not a template, so the request keeps the escapes a client sent.
+        String encoded = ResponseCacheFilter.cacheKey(MockServerHttpRequest
+                .method(HttpMethod.GET, URI.create("/products?name=a%26category%3Db")).build());
+        String split = ResponseCacheFilter.cacheKey(MockServerHttpRequest
+                .method(HttpMethod.GET, URI.create("/products?name=a&category=b")).build());
+
+        assertThat(encoded).startsWith("/products?name=a%26category%3Db#");
+        assertThat(encoded).isNotEqualTo(split);
+    }
+
+    @Test
+    void shouldOnlyServeAVariedResponseToTheSameVariant() {
+        GatewayFilterChain chain = exchange -> {
+            upstreamCalls.incrementAndGet();
+            var response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setCacheControl("max-age=30");
+            response.getHeaders().setVary(List.of(HttpHeaders.ACCEPT_LANGUAGE));
+            String language = exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_LANGUAGE);
+            byte[] body = language.getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        };
+
+        MockServerWebExchange german = exchange(
+                MockServerHttpRequest.get("/products/1").header(HttpHeaders.ACCEPT_LANGUAGE, "de"), true);
+        filter.filter(german, chain).block();
+        MockServerWebExchange english = exchange(
+                MockServerHttpRequest.get("/products/1").header(HttpHeaders.ACCEPT_LANGUAGE, "en"), true);
+        filter.filter(english, chain).block();
+        MockServerWebExchange englishAgain = exchange(
+                MockServerHttpRequest.get("/products/1").header(HttpHeaders.ACCEPT_LANGUAGE, "en"), true);
+        filter.filter(englishAgain, chain).block();
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(english.getResponse().getBodyAsString().block()).isEqualTo("en");
+        assertThat(englishAgain.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(englishAgain.getResponse().getBodyAsString().block()).isEqualTo("en");
+    }
+
+    private GatewayFilterChain upstream(String cacheControl, String etag, Duration delay) {
+        return exchange -> Mono.delay(delay).then(Mono.defer(() -> {
+            upstreamCalls.incrementAndGet();
+            var response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setCacheControl(cacheControl);
+            if (etag != null) {
+                response.getHeaders().setETag(etag);
+            }
+            byte[] body = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        }));
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request, boolean cacheEnabled) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        Route route = Route.async()
+                .id("products")
+                .uri("http://localhost")
+                .predicate((ServerWebExchange e) -> true)
+                .metadata(Map.of(ResponseCacheFilter.ROUTE_METADATA_KEY, cacheEnabled))
+                .build();
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.gateway.ratelimit;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// Two gateway replicas as two embedded Hazelcast members in one JVM.
+class HazelcastRateLimitStoreTest {
+
+    private static HazelcastInstance first;
+    private static HazelcastInstance second;
+
+    private static final RateLimitPolicy POLICY = new RateLimitPolicy("per-ip", null, null, RateLimitPolicy.Key.IP,
+            RateLimitPolicy.Algorithm.TOKEN_BUCKET, 20, 20, Duration.ofSeconds(1), 1);
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @BeforeAll
+    static void startCluster() {
+        String clusterName = "rate-limit-test-" + UUID.randomUUID();
+        first = Hazelcast.newHazelcastInstance(config(clusterName));
+        second = Hazelcast.newHazelcastInstance(config(clusterName));
+        assertThat(first.getCluster().getMembers()).hasSize(2);
+    }
+
+    @AfterAll
+    static void stopCluster() {
+        second.shutdown();
+        first.shutdown();
+    }
+
+    private static Config config(String clusterName) {
+        Config config = new Config();
+        config.setClusterName(clusterName);
+        config.setProperty("hazelcast.logging.type", "slf4j");
+        config.setProperty("hazelcast.phone.home.enabled", "false");
+        config.getNetworkConfig().setPort(5801).setPortAutoIncrement(true);
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getAutoDetectionConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).setMembers(List.of("127.0.0.1"));
+        return config;
+    }
+
+    private HazelcastRateLimitStore store(IMap<String, Long> buckets, long leaseSize) {
+        return new HazelcastRateLimitStore(buckets, leaseSize, Duration.ofMinutes(1), 1_000, now::get);
+    }
+
+    private static IMap<String, Long> buckets(HazelcastInstance member) {
+        return member.getMap(HazelcastRateLimitStore.MAP_NAME);
+    }
+
+    private static long consume(RateLimitStore store, String key) {
+        return store.tryConsume(POLICY, key).block();
+    }
+
+    @Test
+    void replicasShouldShareOneLimit() {
+        String key = "10.0.0." + UUID.randomUUID();
+        HazelcastRateLimitStore replicaA = store(buckets(first), 5);
+        HazelcastRateLimitStore replicaB = store(buckets(second), 5);
+
+        long granted = 0;
+        for (int i = 0; i < 30; i++) {
+            if (consume(i % 2 == 0 ? replicaA : replicaB, key) >= 0) {
+                granted++;
+            }
+        }
+
+        assertThat(granted).isEqualTo(20);
+    }
+
+    @Test
+    void tokensShouldBeLeasedInChunksInsteadOfPerRequest() {
+        String key = "10.0.1." + UUID.randomUUID();
+        IMap<String, Long> buckets = mock(IMap.class, delegatesTo(buckets(first)));
+        HazelcastRateLimitStore replica = store(buckets, 5);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(consume(replica, key)).isNotNegative();
+        }
+
+        verify(buckets, times(2)).submitToKey(anyString(), any());
+    }
+
+    @Test
+    void leasedTokensShouldExpirePerGrant() {
+        String key = "10.0.4." + UUID.randomUUID();
+        IMap<String, Long> buckets = mock(IMap.class, delegatesTo(buckets(first)));
+        HazelcastRateLimitStore replica = store(buckets, 5);
+
+        // First grant at 0s, used up; second grant at 50s, one of five used.
+        for (int i = 0; i < 6; i++) {
+            consume(replica, key);
+            if (i == 4) {
+                now.addAndGet(Duration.ofSeconds(50).toMillis());
+            }
+        }
+        verify(buckets, times(2)).submitToKey(anyString(), any());
+
+        // Past the first grant's ttl the second one is still served locally.
+        now.addAndGet(Duration.ofSeconds(20).toMillis());
+        assertThat(consume(replica, key)).isNotNegative();
+        verify(buckets, times(2)).submitToKey(anyString(), any());
+
+        // Past the second grant's ttl its three unused units are gone and the cluster is asked again.
+        now.addAndGet(Duration.ofSeconds(41).toMillis());
+        assertThat(consume(replica, key)).isNotNegative();
+        verify(buckets, times(3)).submitToKey(anyString(), any());
+    }
+
+    @Test
+    void remainingShouldIncludeWhatTheClusterHasLeft() {
+        String key = "10.0.2." + UUID.randomUUID();
+        HazelcastRateLimitStore replica = store(buckets(first), 5);
+
+        // Five leased, one used here, fifteen still in the shared bucket.
+        assertThat(consume(replica, key)).isEqualTo(19);
+        assertThat(consume(replica, key)).isEqualTo(18);
+    }
+
+    @Test
+    void sharedBucketShouldRefillPerPeriod() {
+        String key = "10.0.3." + UUID.randomUUID();
+        HazelcastRateLimitStore replica = store(buckets(second), 20);
+
+        for (int i = 0; i < 20; i++) {
+            consume(replica, key);
+        }
+        assertThat(consume(replica, key)).isEqualTo(-1);
+
+        now.addAndGet(Duration.ofSeconds(1).toMillis());
+        assertThat(consume(replica, key)).isEqualTo(19);
+    }
+
+    @Test
+    void concurrentRequestsOnAnEmptyLeaseShouldShareOneRoundTrip() {
+        String key = "10.0.4." + UUID.randomUUID();
+        IMap<String, Long> buckets = mock(IMap.class, delegatesTo(buckets(first)));
+        HazelcastRateLimitStore replica = store(buckets, 5);
+
+        List<Long> results = Flux.range(0, 5)
+                .flatMap(i -> replica.tryConsume(POLICY, key))
+                .collectList()
+                .block();
+
+        assertThat(results).allMatch(remaining -> remaining >= 0);
+        verify(buckets, times(1)).submitToKey(anyString(), any());
+    }
+
+    @Test
+    void gcraPoliciesShouldShareOneWeightedLimitAcrossReplicas() {
+        String key = "10.0.5." + UUID.randomUUID();
+        RateLimitPolicy search = new RateLimitPolicy("search", null, null, RateLimitPolicy.Key.IP,
+                RateLimitPolicy.Algorithm.GCRA, 20, 20, Duration.ofSeconds(1), 4);
+        HazelcastRateLimitStore replicaA = store(buckets(first), 5);
+        HazelcastRateLimitStore replicaB = store(buckets(second), 5);
+
+        long granted = 0;
+        for (int i = 0; i < 10; i++) {
+            if ((i % 2 == 0 ? replicaA : replicaB).tryConsume(search, key).block() >= 0) {
+                granted++;
+            }
+        }
+
+        // Twenty units at four per request; leases of five strand a unit per renewal, so fewer rather than more.
+        assertThat(granted).isBetween(3L, 5L);
+
+        now.addAndGet(Duration.ofSeconds(1).toMillis());
+        assertThat(replicaA.tryConsume(search, key).block()).isNotNegative();
+    }
+
+    @Test
+    void slidingWindowLogPoliciesShouldBeRejectedUpFront() {
+        RateLimitPolicy log = new RateLimitPolicy("log", null, null, RateLimitPolicy.Key.IP,
+                RateLimitPolicy.Algorithm.SLIDING_WINDOW_LOG, 10, 0, Duration.ofSeconds(1), 1);
+
+        assertThatThrownBy(() -> HazelcastRateLimitStore.validate(new RateLimitPolicies(List.of(log), POLICY)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("log");
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryRateLimitStoreTest {
+
+    private static RateLimitPolicy policy(RateLimitPolicy.Algorithm algorithm, long capacity, long refillTokens,
+                                          Duration refillDuration, long cost) {
+        return new RateLimitPolicy(algorithm.name(), null, null, RateLimitPolicy.Key.IP, algorithm,
+                capacity, refillTokens, refillDuration, cost);
+    }
+
+    private static RateLimitPolicy tokenBucket(long capacity, long refillTokens) {
+        return policy(RateLimitPolicy.Algorithm.TOKEN_BUCKET, capacity, refillTokens, Duration.ofSeconds(1), 1);
+    }
+
+    private static long consume(InMemoryRateLimitStore store, RateLimitPolicy policy, String key) {
+        return store.tryConsume(policy, key).block();
+    }
+
+    @Test
+    void remainingTokensShouldCountDownAndRefillPerPeriod() {
+        AtomicLong now = new AtomicLong();
+        var store = new InMemoryRateLimitStore(100, now::get);
+        RateLimitPolicy policy = tokenBucket(3, 2);
+
+        assertThat(consume(store, policy, "10.0.0.1")).isEqualTo(2);
+        assertThat(consume(store, policy, "10.0.0.1")).isEqualTo(1);
+        assertThat(consume(store, policy, "10.0.0.1")).isZero();
+        assertThat(consume(store, policy, "10.0.0.1")).isEqualTo(-1);
+
+        now.addAndGet(Duration.ofMillis(999).toNanos());
+        assertThat(consume(store, policy, "10.0.0.1")).isEqualTo(-1);
+
+        now.addAndGet(Duration.ofMillis(1).toNanos());
+        assertThat(consume(store, policy, "10.0.0.1")).isEqualTo(1);
+
+        // Three periods would add six tokens, but the bucket holds at most three.
+        now.addAndGet(Duration.ofSeconds(3).toNanos());
+        assertThat(consume(store, policy, "10.0.0.1")).isEqualTo(2);
+    }
+
+    @Test
+    void idleBucketsShouldExpireOnceTheyWouldBeFullAgain() {
+        AtomicLong now = new AtomicLong();
+        var store = new InMemoryRateLimitStore(100, now::get);
+        RateLimitPolicy policy = tokenBucket(4, 1);
+
+        consume(store, policy, "10.0.0.1");
+        consume(store, policy, "10.0.0.2");
+        assertThat(store.bucketCount(policy)).isEqualTo(2);
+
+        now.addAndGet(Duration.ofSeconds(3).toNanos());
+        consume(store, policy, "10.0.0.2");
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        assertThat(store.bucketCount(policy)).isEqualTo(1);
+    }
+
+    @Test
+    void bucketCountShouldStayBelowTheCapUnderSpoofedAddresses() {
+        var store = new InMemoryRateLimitStore(100);
+        RateLimitPolicy policy = tokenBucket(2, 1);
+
+        for (int i = 0; i < 1_000; i++) {
+            consume(store, policy, "spoofed-" + i);
+        }
+
+        assertThat(store.bucketCount(policy)).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void concurrentConsumersShouldNeverGetMoreThanTheCapacity() throws Exception {
+        var bucket = new TokenBucket(1_000, 1, Duration.ofHours(1), System::nanoTime);
+        AtomicLong granted = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<CompletableFuture<Void>> workers = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                workers.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        if (bucket.tryConsume(1) >= 0) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).get();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(granted).hasValue(1_000);
+        assertThat(bucket.tryConsume(1)).isEqualTo(-1);
+    }
+
+    @Test
+    void capacityAboveWhatTheBucketCanPackShouldBeRejected() {
+        assertThatThrownBy(() -> tokenBucket(TokenBucket.MAX_CAPACITY + 1, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void costShouldTakeSeveralTokensAndNeverOverdraw() {
+        var store = new InMemoryRateLimitStore(100, new AtomicLong()::get);
+        RateLimitPolicy policy = policy(RateLimitPolicy.Algorithm.TOKEN_BUCKET, 10, 10, Duration.ofSeconds(1), 4);
+
+        assertThat(consume(store, policy, "10.0.0.1")).isEqualTo(6);
+        assertThat(consume(store, policy, "10.0.0.1")).isEqualTo(2);
+        assertThat(consume(store, policy, "10.0.0.1")).isEqualTo(-1);
+    }
+
+    @Test
+    void gcraShouldRefillContinuouslyOneEmissionIntervalAtATime() {
+        AtomicLong now = new AtomicLong();
+        var store = new InMemoryRateLimitStore(100, now::get);
+        RateLimitPolicy policy = policy(RateLimitPolicy.Algorithm.GCRA, 4, 4, Duration.ofSeconds(1), 1);
+
+        for (int i = 3; i >= 0; i--) {
+            assertThat(consume(store, policy, "10.0.0.1")).isEqualTo(i);
+        }
+        assertThat(consume(store, policy, "10.0.0.1")).isEqualTo(-1);
+
+        // One unit comes back every 250ms rather than all of them at the end of the period.
+        now.addAndGet(Duration.ofMillis(249).toNanos());
+        assertThat(consume(store, policy, "10.0.0.1")).isEqualTo(-1);
+        now.addAndGet(Duration.ofMillis(1).toNanos());
+        assertThat(consume(store, policy, "10.0.0.1")).isZero();
+
+        // A long pause refills up to the burst, never beyond.
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertThat(consume(store, policy, "10.0.0.1")).isEqualTo(3);
+    }
+
+    @Test
+    void slidingWindowLogShouldOnlyFreeUnitsOnceTheyLeaveTheWindow() {
+        AtomicLong now = new AtomicLong(Duration.ofHours(1).toNanos());
+        var store = new InMemoryRateLimitStore(100, now::get);
+        RateLimitPolicy policy = policy(RateLimitPolicy.Algorithm.SLIDING_WINDOW_LOG, 5, 0, Duration.ofSeconds(10), 2);
+
+        assertThat(consume(store, policy, "10.0.0.1")).isEqualTo(3);
+        now.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertThat(consume(store, policy, "10.0.0.1")).isEqualTo(1);
+        assertThat(consume(store, policy, "10.0.0.1")).isEqualTo(-1);
+
+        // The first two units leave the window ten seconds after they were taken, the next two four seconds later.
+        now.addAndGet(Duration.ofSeconds(6).toNanos());
+        assertThat(consume(store, policy, "10.0.0.1")).isEqualTo(1);
+        assertThat(consume(store, policy, "10.0.0.1")).isEqualTo(-1);
+        now.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertThat(consume(store, policy, "10.0.0.1")).isEqualTo(1);
+    }
+
+    @Test
+    void policiesShouldKeepSeparateStateForTheSameKey() {
+        var store = new InMemoryRateLimitStore(100, new AtomicLong()::get);
+        RateLimitPolicy strict = tokenBucket(1, 1);
+        RateLimitPolicy lenient = policy(RateLimitPolicy.Algorithm.GCRA, 5, 5, Duration.ofSeconds(1), 1);
+
+        assertThat(consume(store, strict, "10.0.0.1")).isZero();
+        assertThat(consume(store, strict, "10.0.0.1")).isEqualTo(-1);
+        assertThat(consume(store, lenient, "10.0.0.1")).isEqualTo(4);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtSubjectTest {
+
+    static final String SECRET = "test-secret-32-bytes-minimum-key!!";
+
+    private final JwtSubject jwtSubject = new JwtSubject(SECRET);
+
+    static String bearer(String payload) {
+        return bearer("{\"alg\":\"HS256\",\"typ\":\"JWT\"}", payload, SECRET);
+    }
+
+    static String bearer(String header, String payload, String secret) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String signingInput = encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8))
+                + "." + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return "Bearer " + signingInput + "."
+                    + encoder.encodeToString(mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void shouldReadTheSubjectClaim() {
+        assertThat(jwtSubject.fromAuthorization(bearer("{\"iat\":1, \"sub\" : \"alice\",\"roles\":[\"USER\"]}")))
+                .isEqualTo("alice");
+        assertThat(jwtSubject.fromAuthorization(bearer("{\"sub\":\"zoë\"}"))).isEqualTo("zoë");
+    }
+
+    @Test
+    void shouldReturnNullForAnythingElse() {
+        assertThat(jwtSubject.fromAuthorization(null)).isNull();
+        assertThat(jwtSubject.fromAuthorization("Basic dXNlcjpwYXNz")).isNull();
+        assertThat(jwtSubject.fromAuthorization("Bearer opaque-token")).isNull();
+        assertThat(jwtSubject.fromAuthorization("Bearer a.!!!.c")).isNull();
+        assertThat(jwtSubject.fromAuthorization(bearer("{\"iss\":\"api\"}"))).isNull();
+        assertThat(jwtSubject.fromAuthorization(bearer("{\"sub\":42}"))).isNull();
+    }
+
+    @Test
+    void shouldRejectTokensItCannotVerify() {
+        String payload = "{\"sub\":\"alice\"}";
+        String signed = bearer(payload);
+
+        // Signed with another secret, not signed at all, or a payload swapped in under a valid signature.
+        assertThat(jwtSubject.fromAuthorization(
+                bearer("{\"alg\":\"HS256\"}", payload, "another-secret-32-bytes-long!!!"))).isNull();
+        assertThat(jwtSubject.fromAuthorization(signed.substring(0, signed.lastIndexOf('.') + 1))).isNull();
+        String forged = bearer("{\"sub\":\"mallory\"}");
+        assertThat(jwtSubject.fromAuthorization(forged.substring(0, forged.lastIndexOf('.'))
+                + signed.substring(signed.lastIndexOf('.')))).isNull();
+
+        // Only HS256: "none" and other algorithms are not accepted even with a matching HMAC.
+        assertThat(jwtSubject.fromAuthorization(bearer("{\"alg\":\"none\"}", payload, SECRET))).isNull();
+        assertThat(jwtSubject.fromAuthorization(bearer("{\"alg\":\"HS512\"}", payload, SECRET))).isNull();
+    }
+
+    @Test
+    void withoutASecretNothingShouldVerify() {
+        assertThat(new JwtSubject("").fromAuthorization(bearer("{\"sub\":\"alice\"}"))).isNull();
+        assertThat(new JwtSubject(null).fromAuthorization(bearer("{\"sub\":\"alice\"}"))).isNull();
+    }
+}
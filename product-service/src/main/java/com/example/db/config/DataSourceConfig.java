@@ -0,0 +1,116 @@
+package com.example.db.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Replaces Boot's auto-configured pool so its size can be derived from the machine and the database, and so
+// connection acquisition can be logged on the requesting thread. Anything set under spring.datasource.hikari is
+// bound after this method returns and still wins, as it does for the auto-configured pool.
+@Slf4j
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            @Value("${product.datasource.pool.max-size:0}") int maxSize,
+            @Value("${product.datasource.pool.database-max-connections:100}") int databaseMaxConnections,
+            @Value("${product.datasource.pool.service-instances:1}") int serviceInstances,
+            @Value("${product.datasource.pool.slow-acquire-threshold:50ms}") Duration slowAcquireThreshold) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+
+        int poolSize = maxSize > 0
+                ? maxSize
+                : poolSize(Runtime.getRuntime().availableProcessors(), databaseMaxConnections, serviceInstances);
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setMetricsTrackerFactory(new SlowAcquireMetricsTrackerFactory(
+                new MicrometerMetricsTrackerFactory(meterRegistry), slowAcquireThreshold));
+
+        log.info("Database pool sized to {} connections (cpus={}, database-max-connections={}, service-instances={})",
+                poolSize, Runtime.getRuntime().availableProcessors(), databaseMaxConnections, serviceInstances);
+        return dataSource;
+    }
+
+    // Replica pools copy the primary pool's settings. With replicas enabled, JPA, Flyway and JdbcTemplate use the
+    // routing data source below; the primary pool stays a bean of its own for metrics and health.
+    @Bean
+    @ConditionalOnProperty(name = "product.datasource.replicas.enabled", havingValue = "true")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primary,
+            MeterRegistry meterRegistry,
+            @Value("${product.datasource.replicas.urls:}") List<String> urls,
+            @Value("${product.datasource.replicas.migrate:false}") boolean migrate,
+            @Value("${product.datasource.replicas.health-check-interval:5s}") Duration healthCheckInterval,
+            @Value("${product.datasource.replicas.read-your-writes-window:5s}") Duration readYourWritesWindow,
+            @Value("${product.datasource.replicas.read-your-writes-max-size:100000}") long readYourWritesMaxSize) {
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            // Only for stand-ins such as a second H2 database; a real replica gets its schema from the primary.
+            if (migrate) {
+                Flyway.configure()
+                        .dataSource(url.trim(), primary.getUsername(), primary.getPassword())
+                        .locations("classpath:db/migration",
+                                "classpath:db/vendor/" + DatabaseDriver.fromJdbcUrl(url.trim()).getId())
+                        .load()
+                        .migrate();
+            }
+
+            String name = primary.getPoolName() + "-replica-" + (replicas.size() + 1);
+            HikariConfig config = new HikariConfig();
+            primary.copyStateTo(config);
+            config.setPoolName(name);
+            config.setJdbcUrl(url.trim());
+            config.setReadOnly(true);
+            // A replica that is down at startup must not stop the service; it is simply not routed to.
+            config.setInitializationFailTimeout(-1);
+            HikariDataSource replica = new HikariDataSource(config);
+            replicas.add(new ReplicaRoutingDataSource.Replica(name, replica));
+        }
+        log.info("Routing read-only transactions to {} replica(s)", replicas.size());
+
+        return new ReplicaRoutingDataSource(
+                primary,
+                replicas,
+                new ReadYourWritesWindow(readYourWritesWindow, readYourWritesMaxSize),
+                healthCheckInterval,
+                meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "product.datasource.replicas.enabled", havingValue = "true")
+    public DataSource routingDataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    // HikariCP's starting point of two connections per core plus one, but never more than this instance's share
+    // of the connections the database accepts: more connections than that only move the queue into the database.
+    static int poolSize(int cpus, int databaseMaxConnections, int serviceInstances) {
+        int perCpu = cpus * 2 + 1;
+        int share = databaseMaxConnections / Math.max(1, serviceInstances);
+        return Math.max(2, Math.min(perCpu, share));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.db.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+// Correlation ids that committed a write in the last `window`. Their reads stay on the primary until a replica
+// can be expected to have caught up, so a client never reads a product older than its own update.
+public class ReadYourWritesWindow {
+
+    private final Cache<String, Boolean> writers;
+
+    public ReadYourWritesWindow(Duration window, long maxSize) {
+        this.writers = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public void recordWrite(String correlationId) {
+        if (correlationId != null) {
+            writers.put(correlationId, Boolean.TRUE);
+        }
+    }
+
+    public boolean isRecentWriter(String correlationId) {
+        return correlationId != null && writers.getIfPresent(correlationId) != null;
+    }
+}
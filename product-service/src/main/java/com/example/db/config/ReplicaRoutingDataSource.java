@@ -0,0 +1,225 @@
+package com.example.db.config;
+
+import com.example.common.CorrelationIdConstants;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Sends read-only transactions to a healthy replica (round robin) and everything else to the primary. Reads of a
+// correlation id that wrote within the read-your-writes window, and reads while no replica is healthy, stay on the
+// primary. Must sit behind a LazyConnectionDataSourceProxy: transaction managers open the connection before the
+// transaction is marked read-only, and the proxy delays that until the first statement.
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReadYourWritesWindow readYourWrites;
+    private final Duration healthCheckInterval;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private ScheduledExecutorService healthChecks;
+
+    public ReplicaRoutingDataSource(
+            DataSource primary,
+            List<Replica> replicas,
+            ReadYourWritesWindow readYourWrites,
+            Duration healthCheckInterval,
+            MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.readYourWrites = readYourWrites;
+        this.healthCheckInterval = healthCheckInterval;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (Replica replica : this.replicas) {
+            targets.put(replica.name(), replica.dataSource());
+            Gauge.builder("product.datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                    .description("1 while the replica receives read-only transactions")
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        if (!replicas.isEmpty() && !healthCheckInterval.isZero()) {
+            healthChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-health-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // First check right away, so a replica that is down at startup is skipped before a request waits on it.
+            healthChecks.scheduleWithFixedDelay(this::checkReplicas,
+                    0, healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (healthChecks != null) {
+            healthChecks.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Replica replica = route();
+        return replica != null ? replica.name() : PRIMARY;
+    }
+
+    // A replica that cannot hand out a connection is taken out of rotation until the next successful health check,
+    // and this connection comes from the primary instead of failing the request.
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = route();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.dataSource().getConnection();
+        } catch (SQLException | RuntimeException e) {
+            replica.markDown(e);
+            return primary.getConnection();
+        }
+    }
+
+    // Runs a read on the primary even inside a read-only transaction, without counting as a write for
+    // read-your-writes. For loads whose result is shared, such as a cache fill: a replica's lagging copy would be
+    // served to every client until the entry expires. Only connections opened inside the call are affected.
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        Boolean outer = PRIMARY_READS.get();
+        PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (outer == null) {
+                PRIMARY_READS.remove();
+            }
+        }
+    }
+
+    List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource().getConnection()) {
+                if (connection.isValid(1)) {
+                    replica.markUp();
+                } else {
+                    replica.markDown(null);
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.markDown(e);
+            }
+        }
+    }
+
+    private Replica route() {
+        String correlationId = MDC.get(CorrelationIdConstants.MDC_KEY);
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteOnCommit(correlationId);
+            return null;
+        }
+        if (PRIMARY_READS.get() != null || readYourWrites.isRecentWriter(correlationId)) {
+            return null;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, size));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isHealthy()) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void recordWriteOnCommit(String correlationId) {
+        if (correlationId == null || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            readYourWrites.recordWrite(correlationId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                readYourWrites.recordWrite(correlationId);
+            }
+        });
+    }
+
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public DataSource dataSource() {
+            return dataSource;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        void markUp() {
+            if (!healthy) {
+                healthy = true;
+                log.info("Replica {} is back, routing read-only transactions to it again", name);
+            }
+        }
+
+        void markDown(Exception cause) {
+            if (healthy) {
+                healthy = false;
+                log.warn("Replica {} is unavailable, reading from the primary until it recovers: {}",
+                        name, cause != null ? cause.getMessage() : "connection not valid");
+            }
+        }
+    }
+}
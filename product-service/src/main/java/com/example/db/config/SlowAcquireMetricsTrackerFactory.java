@@ -0,0 +1,77 @@
+package com.example.db.config;
+
+import com.example.common.CorrelationIdConstants;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Hikari reports the acquire time on the thread that called getConnection, so the request's MDC (and with it the
+// correlation id) is still in place when a slow acquire is logged here.
+@Slf4j
+public class SlowAcquireMetricsTrackerFactory implements MetricsTrackerFactory {
+
+    private final MetricsTrackerFactory delegate;
+    private final long thresholdNanos;
+
+    public SlowAcquireMetricsTrackerFactory(MetricsTrackerFactory delegate, Duration threshold) {
+        this.delegate = delegate;
+        this.thresholdNanos = threshold.toNanos();
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new Tracker(delegate.create(poolName, poolStats), poolName, poolStats);
+    }
+
+    private final class Tracker implements IMetricsTracker {
+
+        private final IMetricsTracker delegate;
+        private final String poolName;
+        private final PoolStats poolStats;
+
+        private Tracker(IMetricsTracker delegate, String poolName, PoolStats poolStats) {
+            this.delegate = delegate;
+            this.poolName = poolName;
+            this.poolStats = poolStats;
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            delegate.recordConnectionCreatedMillis(connectionCreatedMillis);
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            delegate.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+            if (elapsedAcquiredNanos >= thresholdNanos) {
+                log.warn("Slow connection acquire from pool {}: {} ms, correlationId={}, active={}, idle={}, pending={}",
+                        poolName, TimeUnit.NANOSECONDS.toMillis(elapsedAcquiredNanos),
+                        MDC.get(CorrelationIdConstants.MDC_KEY), poolStats.getActiveConnections(),
+                        poolStats.getIdleConnections(), poolStats.getPendingThreads());
+            }
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            delegate.recordConnectionUsageMillis(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            delegate.recordConnectionTimeout();
+            log.warn("Timed out waiting for a connection from pool {}, correlationId={}, active={}, idle={}, pending={}",
+                    poolName, MDC.get(CorrelationIdConstants.MDC_KEY), poolStats.getActiveConnections(),
+                    poolStats.getIdleConnections(), poolStats.getPendingThreads());
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.db.diagnostics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "pinnedthreads")
+@RequiredArgsConstructor
+public class PinnedThreadsEndpoint {
+
+    private final VirtualThreadPinningMonitor monitor;
+    private final Environment environment;
+
+    @ReadOperation
+    public PinnedThreadsReport pinnedThreads() {
+        return new PinnedThreadsReport(
+                Threading.VIRTUAL.isActive(environment),
+                monitor.isRunning(),
+                monitor.threshold().toMillis(),
+                monitor.total(),
+                monitor.sites(),
+                monitor.recent());
+    }
+
+    public record PinnedThreadsReport(
+            boolean virtualThreads,
+            boolean monitoring,
+            long thresholdMs,
+            long total,
+            Map<String, Long> sites,
+            List<VirtualThreadPinningMonitor.PinnedEvent> recent) {
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.db.diagnostics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Listens to the JFR jdk.VirtualThreadPinned event, which the JVM emits when a virtual thread blocks while it cannot
+// unmount from its carrier (inside synchronized or a native frame). Each pinning site is logged once; every event is
+// timed and the most recent ones are kept for the pinnedthreads actuator endpoint.
+@Slf4j
+@Component
+public class VirtualThreadPinningMonitor {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    static final String METRIC_NAME = "product.virtual.threads.pinned";
+
+    private static final int MAX_FRAMES = 12;
+
+    private final boolean enabled;
+    private final Duration threshold;
+    private final int historySize;
+    private final Timer pinned;
+
+    private final Map<String, LongAdder> sites = new ConcurrentHashMap<>();
+    private final Deque<PinnedEvent> recent = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger recentSize = new AtomicInteger();
+
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(
+            @Value("${product.virtual-threads.pinning.enabled:${spring.threads.virtual.enabled:false}}") boolean enabled,
+            @Value("${product.virtual-threads.pinning.threshold:20ms}") Duration threshold,
+            @Value("${product.virtual-threads.pinning.history-size:50}") int historySize,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.historySize = historySize;
+        this.pinned = Timer.builder(METRIC_NAME)
+                .description("Time virtual threads spent blocked while pinned to their carrier")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || stream != null) {
+            return;
+        }
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::onEvent);
+        recording.startAsync();
+        stream = recording;
+        log.info("Watching for virtual thread pinning longer than {} ms", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        RecordingStream recording = stream;
+        if (recording != null) {
+            stream = null;
+            recording.close();
+        }
+    }
+
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    public Duration threshold() {
+        return threshold;
+    }
+
+    public long total() {
+        return pinned.count();
+    }
+
+    public Map<String, Long> sites() {
+        Map<String, Long> counts = new TreeMap<>();
+        sites.forEach((site, count) -> counts.put(site, count.sum()));
+        return counts;
+    }
+
+    public List<PinnedEvent> recent() {
+        return new ArrayList<>(recent);
+    }
+
+    private void onEvent(RecordedEvent event) {
+        List<String> frames = new ArrayList<>();
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace != null) {
+            for (RecordedFrame frame : stackTrace.getFrames()) {
+                if (frames.size() == MAX_FRAMES) {
+                    break;
+                }
+                frames.add(format(frame));
+            }
+        }
+        String thread = event.getThread() != null ? event.getThread().getJavaName() : null;
+        record(event.getStartTime(), thread, event.getDuration(), frames);
+    }
+
+    void record(Instant time, String thread, Duration duration, List<String> frames) {
+        pinned.record(duration);
+
+        String site = site(frames);
+        LongAdder count = sites.get(site);
+        if (count == null) {
+            LongAdder created = new LongAdder();
+            count = sites.putIfAbsent(site, created);
+            if (count == null) {
+                count = created;
+                log.warn("Virtual thread {} pinned for {} ms at {}", thread, duration.toMillis(), frames);
+            }
+        }
+        count.increment();
+
+        recent.addFirst(new PinnedEvent(time, thread, duration.toMillis(), site, frames));
+        if (recentSize.incrementAndGet() > historySize && recent.pollLast() != null) {
+            recentSize.decrementAndGet();
+        }
+    }
+
+    // The first frame outside the JDK is the code that took the monitor or called into native code; JDK frames on
+    // top of it are only the blocking call (Object.wait, socket read, park) and say little about who to fix.
+    private static String site(List<String> frames) {
+        for (String frame : frames) {
+            if (!frame.startsWith("java.") && !frame.startsWith("jdk.") && !frame.startsWith("sun.")) {
+                return frame;
+            }
+        }
+        return frames.isEmpty() ? "unknown" : frames.get(0);
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    public record PinnedEvent(Instant time, String thread, long durationMs, String site, List<String> stackTrace) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.db.exceptions;
+
+public class BatchSizeExceededException extends RuntimeException {
+
+    public BatchSizeExceededException(int size, int maxSize) {
+        super("Batch of " + size + " items exceeds the limit of " + maxSize + ".");
+    }
+}
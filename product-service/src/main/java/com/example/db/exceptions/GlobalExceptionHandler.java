@@ -61,6 +61,42 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(ProductVersionConflictException.class)
+    public ResponseEntity<ApiErrorResponse> handleVersionConflict(
+            ProductVersionConflictException ex,
+            HttpServletRequest request
+    ) {
+        log.warn("ProductVersionConflictException: {}", ex.getMessage());
+        return new ResponseEntity<>(
+                buildResponse(HttpStatus.PRECONDITION_FAILED, ex.getMessage(), request, null),
+                HttpStatus.PRECONDITION_FAILED
+        );
+    }
+
+    @ExceptionHandler(BatchSizeExceededException.class)
+    public ResponseEntity<ApiErrorResponse> handleBatchSizeExceeded(
+            BatchSizeExceededException ex,
+            HttpServletRequest request
+    ) {
+        log.warn("BatchSizeExceededException: {}", ex.getMessage());
+        return new ResponseEntity<>(
+                buildResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request, null),
+                HttpStatus.BAD_REQUEST
+        );
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ApiErrorResponse> handleInvalidCursor(
+            InvalidCursorException ex,
+            HttpServletRequest request
+    ) {
+        log.warn("InvalidCursorException: {}", ex.getMessage());
+        return new ResponseEntity<>(
+                buildResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request, null),
+                HttpStatus.BAD_REQUEST
+        );
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiErrorResponse> handleValidation(
             MethodArgumentNotValidException ex,
@@ -0,0 +1,8 @@
+package com.example.db.exceptions;
+
+public class ProductVersionConflictException extends RuntimeException {
+
+    public ProductVersionConflictException(Long id) {
+        super("Product with id " + id + " was modified concurrently or the If-Match version is stale.");
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.db.product.application;
+
+import com.example.common.product.dto.BatchItemResult;
+import com.example.common.product.dto.BatchResponse;
+import com.example.db.exceptions.BatchSizeExceededException;
+import com.example.db.product.domain.Product;
+import com.example.db.product.domain.ProductRepository;
+import com.example.db.product.dto.ProductBatchUpdateRequest;
+import com.example.db.product.dto.ProductCreateRequest;
+import com.example.db.product.dto.ProductResponseDto;
+import com.example.db.product.mapper.ProductMapper;
+import com.example.db.product.search.ProductSearchIndex;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.example.db.product.application.ProductService.PRODUCTS_CACHE;
+
+// One transaction per batch; inserts and updates are flushed as JDBC batches (hibernate.jdbc.batch_size).
+// The search index and caches are only touched after the transaction committed.
+@Slf4j
+@Service
+public class ProductBatchService {
+
+    private final ProductRepository productRepository;
+    private final ProductCountCache productCountCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final Validator validator;
+    private final Cache productsCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxSize;
+
+    public ProductBatchService(
+            ProductRepository productRepository,
+            ProductCountCache productCountCache,
+            ProductSearchIndex productSearchIndex,
+            Validator validator,
+            CacheManager cacheManager,
+            PlatformTransactionManager transactionManager,
+            @Value("${product.batch.max-size:1000}") int maxSize) {
+        this.productRepository = productRepository;
+        this.productCountCache = productCountCache;
+        this.productSearchIndex = productSearchIndex;
+        this.validator = validator;
+        this.productsCache = Objects.requireNonNull(cacheManager.getCache(PRODUCTS_CACHE));
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxSize = maxSize;
+    }
+
+    // Multi-get behind GET /products?ids=..: cached products are served from the products cache, the rest are
+    // loaded with one findAllById and cached. Unknown ids are left out; the order follows the request.
+    public List<Product> getProducts(List<Long> ids) {
+        checkSize(ids);
+        Map<Long, Product> found = new HashMap<>();
+        Set<Long> misses = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id == null || found.containsKey(id)) {
+                continue;
+            }
+            Product cached = productsCache.get(id, Product.class);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            productRepository.findAllById(misses).forEach(product -> {
+                productsCache.put(product.getId(), product);
+                found.put(product.getId(), product);
+            });
+        }
+        return ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public BatchResponse<ProductResponseDto> createProducts(List<ProductCreateRequest> requests) {
+        checkSize(requests);
+        List<BatchItemResult<ProductResponseDto>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+
+        List<Integer> positions = new ArrayList<>();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String violations = violations(requests.get(i));
+            if (violations != null) {
+                results.set(i, failure(i, null, HttpStatus.BAD_REQUEST, violations));
+            } else {
+                positions.add(i);
+                products.add(ProductMapper.toEntity(requests.get(i)));
+            }
+        }
+
+        List<Product> created = products.isEmpty()
+                ? List.of()
+                : transactionTemplate.execute(status -> productRepository.saveAllAndFlush(products));
+
+        for (int i = 0; i < created.size(); i++) {
+            Product product = created.get(i);
+            productSearchIndex.index(product);
+            results.set(positions.get(i), success(positions.get(i), product, HttpStatus.CREATED));
+        }
+        if (!created.isEmpty()) {
+            productCountCache.invalidateAll();
+        }
+        log.info("Batch create: {} of {} products created", created.size(), requests.size());
+        return BatchResponse.of(results);
+    }
+
+    public BatchResponse<ProductResponseDto> updateProducts(List<ProductBatchUpdateRequest> requests) {
+        checkSize(requests);
+        List<BatchItemResult<ProductResponseDto>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+
+        // Repeats of an id would pass the same version check against the same entity, and the last one would
+        // silently overwrite the others; only the first occurrence is applied.
+        Map<Long, Integer> ids = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String violations = violations(requests.get(i));
+            if (violations != null) {
+                Long id = requests.get(i) != null ? requests.get(i).id() : null;
+                results.set(i, failure(i, id, HttpStatus.BAD_REQUEST, violations));
+                continue;
+            }
+            Long id = requests.get(i).id();
+            Integer first = ids.putIfAbsent(id, i);
+            if (first != null) {
+                results.set(i, failure(i, id, HttpStatus.CONFLICT,
+                        "Duplicate id " + id + " in batch; already updated by item " + first + "."));
+            }
+        }
+
+        Map<Long, Product> updated = ids.isEmpty() ? Map.of() : transactionTemplate.execute(status -> {
+            Map<Long, Product> existing = productRepository.findAllById(ids.keySet()).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            Map<Long, Product> changed = new HashMap<>();
+            for (int i = 0; i < requests.size(); i++) {
+                if (results.get(i) != null) {
+                    continue;
+                }
+                ProductBatchUpdateRequest request = requests.get(i);
+                Product product = existing.get(request.id());
+                if (product == null) {
+                    results.set(i, failure(i, request.id(), HttpStatus.NOT_FOUND,
+                            "Product with id " + request.id() + " not found."));
+                } else if (request.version() != null && !request.version().equals(product.getVersion())) {
+                    results.set(i, failure(i, request.id(), HttpStatus.PRECONDITION_FAILED,
+                            "Product with id " + request.id() + " has version " + product.getVersion() + "."));
+                } else {
+                    ProductMapper.updateEntity(product, request.toUpdateRequest());
+                    changed.put(product.getId(), product);
+                }
+            }
+            productRepository.flush();
+            return changed;
+        });
+
+        for (int i = 0; i < requests.size(); i++) {
+            if (results.get(i) == null) {
+                results.set(i, success(i, updated.get(requests.get(i).id()), HttpStatus.OK));
+            }
+        }
+        updated.values().forEach(product -> {
+            productSearchIndex.index(product);
+            productsCache.put(product.getId(), product);
+        });
+        if (!updated.isEmpty()) {
+            productCountCache.invalidateAll();
+        }
+        log.info("Batch update: {} of {} products updated", updated.size(), requests.size());
+        return BatchResponse.of(results);
+    }
+
+    public BatchResponse<ProductResponseDto> deleteProducts(List<Long> ids) {
+        checkSize(ids);
+        Set<Long> requested = ids.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Set<Long> deleted = requested.isEmpty() ? Set.of() : transactionTemplate.execute(status -> {
+            Set<Long> existing = new HashSet<>(productRepository.findExistingIds(requested));
+            if (!existing.isEmpty()) {
+                productRepository.deleteAllByIdInBatch(existing);
+            }
+            return existing;
+        });
+
+        List<BatchItemResult<ProductResponseDto>> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                results.add(failure(i, null, HttpStatus.BAD_REQUEST, "id must not be null"));
+            } else if (deleted.contains(id)) {
+                results.add(new BatchItemResult<>(i, id, HttpStatus.NO_CONTENT.value(), null, null));
+            } else {
+                results.add(failure(i, id, HttpStatus.NOT_FOUND, "Product with id " + id + " not found."));
+            }
+        }
+        deleted.forEach(id -> {
+            productSearchIndex.remove(id);
+            productsCache.evict(id);
+        });
+        if (!deleted.isEmpty()) {
+            productCountCache.invalidateAll();
+        }
+        log.info("Batch delete: {} of {} products deleted", deleted.size(), ids.size());
+        return BatchResponse.of(results);
+    }
+
+    private void checkSize(List<?> items) {
+        if (items.size() > maxSize) {
+            throw new BatchSizeExceededException(items.size(), maxSize);
+        }
+    }
+
+    private String violations(Object request) {
+        if (request == null) {
+            return "item must not be null";
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static BatchItemResult<ProductResponseDto> success(int index, Product product, HttpStatus status) {
+        return new BatchItemResult<>(index, product.getId(), status.value(), null, ProductMapper.toDto(product));
+    }
+
+    private static BatchItemResult<ProductResponseDto> failure(int index, Long id, HttpStatus status, String message) {
+        return new BatchItemResult<>(index, id, status.value(), message, null);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.db.product.application;
+
+import com.example.db.product.domain.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.OptionalLong;
+
+@Component
+public class ProductCountCache {
+
+    static final String CACHE_NAME = "productCounts";
+
+    private final Cache<CountKey, Long> counts;
+
+    public ProductCountCache(
+            @Value("${product.count-cache.ttl:30s}") Duration ttl,
+            @Value("${product.count-cache.max-size:1000}") long maxSize,
+            MeterRegistry meterRegistry) {
+        // Adjustments must not extend the lifetime of an entry, otherwise a busy filter would never be recounted.
+        this.counts = Caffeine.newBuilder()
+                .expireAfter(Expiry.<CountKey, Long>creating((key, count) -> ttl))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, CACHE_NAME);
+    }
+
+    public OptionalLong get(String name, String category) {
+        Long count = counts.getIfPresent(CountKey.of(name, category));
+        return count != null ? OptionalLong.of(count) : OptionalLong.empty();
+    }
+
+    public void put(String name, String category, long count) {
+        counts.put(CountKey.of(name, category), count);
+    }
+
+    public void onCreated(Product product) {
+        counts.asMap().replaceAll((key, count) -> key.matches(product) ? count + 1 : count);
+    }
+
+    public void invalidateAll() {
+        counts.invalidateAll();
+    }
+
+    record CountKey(String name, String category) {
+
+        static CountKey of(String name, String category) {
+            return new CountKey(normalize(name), normalize(category));
+        }
+
+        private static String normalize(String value) {
+            return value == null || value.isBlank() ? null : value.toLowerCase(Locale.ROOT);
+        }
+
+        boolean matches(Product product) {
+            return contains(product.getName(), name) && contains(product.getCategory(), category);
+        }
+
+        private static boolean contains(String value, String term) {
+            return term == null || (value != null && value.toLowerCase(Locale.ROOT).contains(term));
+        }
+    }
+}
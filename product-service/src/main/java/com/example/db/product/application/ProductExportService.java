@@ -0,0 +1,62 @@
+package com.example.db.product.application;
+
+import com.example.db.product.domain.Product;
+import com.example.db.product.domain.ProductRepository;
+import com.example.db.product.dto.ProductResponseDto;
+import com.example.db.product.mapper.ProductMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+public class ProductExportService {
+
+    private static final int FLUSH_EVERY = 500;
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter writer;
+
+    public ProductExportService(ProductRepository productRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.writer = objectMapper.writerFor(ProductResponseDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    // Rows are written as they come off the cursor and detached right away, so memory stays flat
+    // however large the catalog is.
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream out) throws IOException {
+        long written = 0;
+        try (Stream<Product> products = productRepository.streamAllByOrderById();
+             JsonGenerator generator = writer.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            for (Iterator<Product> it = products.iterator(); it.hasNext(); ) {
+                Product product = it.next();
+                writer.writeValue(generator, ProductMapper.toDto(product));
+                generator.writeRaw('\n');
+                entityManager.detach(product);
+
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        log.info("Exported {} products", written);
+        return written;
+    }
+}
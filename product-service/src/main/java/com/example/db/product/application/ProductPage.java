@@ -0,0 +1,9 @@
+package com.example.db.product.application;
+
+import com.example.db.product.domain.Product;
+import org.springframework.data.domain.Page;
+
+public record ProductPage(
+        Page<Product> page,
+        boolean approximateTotal
+) {}
@@ -1,65 +1,289 @@
 package com.example.db.product.application;
 
+import com.example.db.config.ReplicaRoutingDataSource;
+import com.example.db.exceptions.InvalidCursorException;
 import com.example.db.exceptions.ProductNotFoundException;
+import com.example.db.exceptions.ProductVersionConflictException;
 import com.example.db.product.domain.Product;
 import com.example.db.product.domain.ProductRepository;
 import com.example.db.product.dto.ProductCreateRequest;
 import com.example.db.product.dto.ProductUpdateRequest;
+import com.example.db.product.mapper.ProductCursorMapper;
 import com.example.db.product.mapper.ProductMapper;
-import lombok.RequiredArgsConstructor;
+import com.example.db.product.search.ProductSearchIndex;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ProductService {
 
+    public static final String PRODUCTS_CACHE = "products";
+
     private final ProductRepository productRepository;
+    private final ProductCountCache productCountCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final Cache productsCache;
+    private final boolean coalesceCacheMisses;
+
+    // Concurrent misses for one product normally share a single load. That load runs inside Caffeine's compute, under
+    // a monitor, which pins a virtual thread to its carrier for the whole database call; with virtual threads each
+    // miss loads on its own instead.
+    public ProductService(
+            ProductRepository productRepository,
+            ProductCountCache productCountCache,
+            ProductSearchIndex productSearchIndex,
+            CacheManager cacheManager,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.productRepository = productRepository;
+        this.productCountCache = productCountCache;
+        this.productSearchIndex = productSearchIndex;
+        this.productsCache = Objects.requireNonNull(cacheManager.getCache(PRODUCTS_CACHE));
+        this.coalesceCacheMisses = !virtualThreads;
+    }
+
+    @Transactional(readOnly = true)
+    public ProductPage getProducts(int page, int size, List<String> sortParams, String name, String category) {
+        Pageable pageable = PageRequest.of(page, size, parseSort(sortParams));
+
+        OptionalLong cachedTotal = productCountCache.get(name, category);
+        if (cachedTotal.isEmpty()) {
+            Page<Product> result = findPage(pageable, name, category);
+            productCountCache.put(name, category, result.getTotalElements());
+            return new ProductPage(result, false);
+        }
+
+        Slice<Product> slice = findSlice(pageable, name, category);
+        long seen = pageable.getOffset() + slice.getNumberOfElements();
+
+        if (!slice.hasNext() && (slice.hasContent() || pageable.getOffset() == 0)) {
+            productCountCache.put(name, category, seen);
+            return new ProductPage(new PageImpl<>(slice.getContent(), pageable, seen), false);
+        }
+
+        long total = Math.max(cachedTotal.getAsLong(), slice.hasNext() ? seen + 1 : seen);
+        return new ProductPage(new PageImpl<>(slice.getContent(), pageable, total), true);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<Product> getProductSlice(int page, int size, List<String> sortParams, String name, String category) {
+        return findSlice(PageRequest.of(page, size, parseSort(sortParams)), name, category);
+    }
 
-    public Page<Product> getProducts(int page, int size, List<String> sortParams, String name, String category) {
+    @Transactional(readOnly = true)
+    public Window<Product> scrollProducts(String after, int size, List<String> sortParams, String name, String category) {
         Sort sort = parseSort(sortParams);
-        Pageable pageable = PageRequest.of(page, size, sort);
+        KeysetScrollPosition position = ProductCursorMapper.toScrollPosition(after);
+        validateKeyset(sort, position);
+        Limit limit = Limit.of(size);
+
+        Optional<List<Long>> indexed = productSearchIndex.search(name, category);
+        if (indexed.isPresent()) {
+            return indexed.get().isEmpty()
+                    ? Window.from(List.of(), index -> position)
+                    : productRepository.findByIdIn(indexed.get(), position, limit, sort);
+        }
 
         boolean hasName = name != null && !name.isBlank();
         boolean hasCategory = category != null && !category.isBlank();
 
         if (hasName && hasCategory) {
             return productRepository
-                    .findByNameContainingIgnoreCaseAndCategoryContainingIgnoreCase(name, category, pageable);
+                    .findByNameContainingIgnoreCaseAndCategoryContainingIgnoreCase(name, category, position, limit, sort);
         } else if (hasName) {
-            return productRepository.findByNameContainingIgnoreCase(name, pageable);
+            return productRepository.findByNameContainingIgnoreCase(name, position, limit, sort);
         } else if (hasCategory) {
-            return productRepository.findByCategoryContainingIgnoreCase(category, pageable);
+            return productRepository.findByCategoryContainingIgnoreCase(category, position, limit, sort);
         } else {
-            return productRepository.findAll(pageable);
+            return productRepository.findBy(position, limit, sort);
         }
     }
 
+    // Misses are loaded from the primary: the cached row is served to every client, and a replica's copy may still
+    // predate an update whose eviction caused the miss.
+    @Transactional(readOnly = true)
     public Product getProduct(Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new ProductNotFoundException(id));
+        if (coalesceCacheMisses) {
+            try {
+                return productsCache.get(id, () -> loadFromPrimary(id));
+            } catch (Cache.ValueRetrievalException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        Product cached = productsCache.get(id, Product.class);
+        if (cached != null) {
+            return cached;
+        }
+        Product product = loadFromPrimary(id);
+        productsCache.put(id, product);
+        return product;
     }
 
+    // The search index, the count cache and the products cache only learn about a write once it has committed, so a
+    // rolled-back write never shows up in them. Updates evict the cached product; the next read loads the committed row.
+    @Transactional
     public Product createProduct(ProductCreateRequest request) {
-        return productRepository.save(ProductMapper.toEntity(request));
+        Product created = productRepository.save(ProductMapper.toEntity(request));
+        afterCommit(() -> {
+            productSearchIndex.index(created);
+            productCountCache.onCreated(created);
+        });
+        return created;
     }
 
+    @Transactional
     public Product updateProduct(Long id, ProductUpdateRequest request) {
-        Product product = getProduct(id);
+        // Straight from the database: the cached instance is shared with readers and must not be modified.
+        Product product = findProduct(id);
+        ProductMapper.updateEntity(product, request);
+        Product updated = productRepository.save(product);
+        afterCommit(() -> onUpdated(updated));
+        return updated;
+    }
+
+    // Single UPDATE ... WHERE id = ? AND version = ?; the row is only looked up again when nothing matched.
+    @Transactional
+    public Product updateProduct(Long id, ProductUpdateRequest request, long expectedVersion) {
+        int updated = productRepository.updateIfVersionMatches(
+                id, expectedVersion, request.name(), request.category(), request.price(), request.description());
+        if (updated == 0) {
+            if (!productRepository.existsById(id)) {
+                throw new ProductNotFoundException(id);
+            }
+            throw new ProductVersionConflictException(id);
+        }
+
+        Product product = new Product();
+        product.setId(id);
+        product.setVersion(expectedVersion + 1);
         ProductMapper.updateEntity(product, request);
-        return productRepository.save(product);
+        afterCommit(() -> onUpdated(product));
+        return product;
     }
 
+    @Transactional
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        afterCommit(() -> {
+            productSearchIndex.remove(id);
+            productsCache.evict(id);
+            productCountCache.invalidateAll();
+        });
+    }
+
+    private Product findProduct(Long id) {
+        return productRepository.findById(id)
+                .orElseThrow(() -> new ProductNotFoundException(id));
+    }
+
+    private Product loadFromPrimary(Long id) {
+        return ReplicaRoutingDataSource.readFromPrimary(() -> findProduct(id));
+    }
+
+    private void onUpdated(Product product) {
+        productSearchIndex.index(product);
+        productsCache.evict(product.getId());
+        productCountCache.invalidateAll();
+    }
+
+    // Runs right away when called outside a transaction, e.g. from tests that call the service directly.
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private Page<Product> findPage(Pageable pageable, String name, String category) {
+        Optional<List<Long>> indexed = productSearchIndex.search(name, category);
+        if (indexed.isPresent()) {
+            return indexed.get().isEmpty()
+                    ? Page.empty(pageable)
+                    : productRepository.findByIdIn(indexed.get(), pageable);
+        }
+
+        boolean hasName = name != null && !name.isBlank();
+        boolean hasCategory = category != null && !category.isBlank();
+
+        if (hasName && hasCategory) {
+            return productRepository
+                    .findByNameContainingIgnoreCaseAndCategoryContainingIgnoreCase(name, category, pageable);
+        } else if (hasName) {
+            return productRepository.findByNameContainingIgnoreCase(name, pageable);
+        } else if (hasCategory) {
+            return productRepository.findByCategoryContainingIgnoreCase(category, pageable);
+        } else {
+            return productRepository.findAll(pageable);
+        }
+    }
+
+    private Slice<Product> findSlice(Pageable pageable, String name, String category) {
+        Optional<List<Long>> indexed = productSearchIndex.search(name, category);
+        if (indexed.isPresent()) {
+            return indexed.get().isEmpty()
+                    ? new SliceImpl<>(List.of(), pageable, false)
+                    : productRepository.findSliceByIdIn(indexed.get(), pageable);
+        }
+
+        boolean hasName = name != null && !name.isBlank();
+        boolean hasCategory = category != null && !category.isBlank();
+
+        if (hasName && hasCategory) {
+            return productRepository
+                    .findSliceByNameContainingIgnoreCaseAndCategoryContainingIgnoreCase(name, category, pageable);
+        } else if (hasName) {
+            return productRepository.findSliceByNameContainingIgnoreCase(name, pageable);
+        } else if (hasCategory) {
+            return productRepository.findSliceByCategoryContainingIgnoreCase(category, pageable);
+        } else {
+            return productRepository.findSliceBy(pageable);
+        }
+    }
+
+    private void validateKeyset(Sort sort, KeysetScrollPosition position) {
+        Set<String> expectedKeys = new HashSet<>();
+        for (Sort.Order order : sort) {
+            if (!ProductCursorMapper.supportsProperty(order.getProperty())) {
+                throw new InvalidCursorException(
+                        "Cursor pagination does not support sorting by '" + order.getProperty() + "'");
+            }
+            expectedKeys.add(order.getProperty());
+        }
+        expectedKeys.add("id");
+
+        if (!position.isInitial() && !position.getKeys().keySet().equals(expectedKeys)) {
+            throw new InvalidCursorException("Cursor does not match the requested sort");
+        }
     }
 
     private Sort parseSort(List<String> sortParams) {
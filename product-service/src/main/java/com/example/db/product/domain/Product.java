@@ -15,7 +15,8 @@ import java.math.BigDecimal;
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_id_seq")
+    @SequenceGenerator(name = "product_id_seq", sequenceName = "product_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -28,4 +29,8 @@ public class Product {
     private BigDecimal price;
 
     private String description;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
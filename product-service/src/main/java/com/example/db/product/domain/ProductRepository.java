@@ -1,8 +1,24 @@
 package com.example.db.product.domain;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
     Page<Product> findByNameContainingIgnoreCase(String name, Pageable pageable);
@@ -10,4 +26,48 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Page<Product> findByCategoryContainingIgnoreCase(String category, Pageable pageable);
 
     Page<Product> findByNameContainingIgnoreCaseAndCategoryContainingIgnoreCase(String name, String category, Pageable pageable);
+
+    Slice<Product> findSliceBy(Pageable pageable);
+
+    Slice<Product> findSliceByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    Slice<Product> findSliceByCategoryContainingIgnoreCase(String category, Pageable pageable);
+
+    Slice<Product> findSliceByNameContainingIgnoreCaseAndCategoryContainingIgnoreCase(String name, String category, Pageable pageable);
+
+    Page<Product> findByIdIn(Collection<Long> ids, Pageable pageable);
+
+    Slice<Product> findSliceByIdIn(Collection<Long> ids, Pageable pageable);
+
+    Window<Product> findBy(ScrollPosition position, Limit limit, Sort sort);
+
+    Window<Product> findByIdIn(Collection<Long> ids, ScrollPosition position, Limit limit, Sort sort);
+
+    Window<Product> findByNameContainingIgnoreCase(String name, ScrollPosition position, Limit limit, Sort sort);
+
+    Window<Product> findByCategoryContainingIgnoreCase(String category, ScrollPosition position, Limit limit, Sort sort);
+
+    Window<Product> findByNameContainingIgnoreCaseAndCategoryContainingIgnoreCase(String name, String category, ScrollPosition position, Limit limit, Sort sort);
+
+    // Forward-only cursor for exports; rows are fetched from the driver in chunks instead of all at once.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select p from Product p order by p.id")
+    Stream<Product> streamAllByOrderById();
+
+    @Query("select p.id from Product p where p.id in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Product p
+               set p.name = :name, p.category = :category, p.price = :price, p.description = :description,
+                   p.version = p.version + 1
+             where p.id = :id and p.version = :version
+            """)
+    int updateIfVersionMatches(Long id, long version, String name, String category, BigDecimal price, String description);
 }
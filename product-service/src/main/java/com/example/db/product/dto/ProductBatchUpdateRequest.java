@@ -0,0 +1,21 @@
+package com.example.db.product.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+
+public record ProductBatchUpdateRequest(
+        @NotNull Long id,
+        @NotBlank String name,
+        @NotBlank String category,
+        @NotNull @Positive BigDecimal price,
+        String description,
+        Long version
+) {
+
+    public ProductUpdateRequest toUpdateRequest() {
+        return new ProductUpdateRequest(name, category, price, description);
+    }
+}
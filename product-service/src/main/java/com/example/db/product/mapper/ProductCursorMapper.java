@@ -0,0 +1,86 @@
+package com.example.db.product.mapper;
+
+import com.example.db.exceptions.InvalidCursorException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+public final class ProductCursorMapper {
+
+    // Only non-null columns can take part in a keyset; nullable ones would break the seek predicate.
+    private static final Map<String, Function<String, Object>> KEYSET_PROPERTIES = Map.of(
+            "id", Long::valueOf,
+            "name", value -> value,
+            "category", value -> value,
+            "price", BigDecimal::new
+    );
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, String>> KEYS_TYPE = new TypeReference<>() {};
+
+    private ProductCursorMapper() {}
+
+    public static boolean supportsProperty(String property) {
+        return KEYSET_PROPERTIES.containsKey(property);
+    }
+
+    public static String toCursor(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalArgumentException("Only keyset positions can be encoded as a cursor");
+        }
+
+        Map<String, String> keys = new LinkedHashMap<>();
+        keyset.getKeys().forEach((property, value) -> keys.put(property, value.toString()));
+
+        try {
+            return Base64.getUrlEncoder()
+                    .withoutPadding()
+                    .encodeToString(OBJECT_MAPPER.writeValueAsBytes(keys));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to encode cursor", e);
+        }
+    }
+
+    public static KeysetScrollPosition toScrollPosition(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        Map<String, String> keys;
+        try {
+            keys = OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), KEYS_TYPE);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+
+        if (keys == null || keys.isEmpty()) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+
+        Map<String, Object> typedKeys = new LinkedHashMap<>();
+        keys.forEach((property, value) -> typedKeys.put(property, toKeyValue(property, value)));
+        return ScrollPosition.forward(typedKeys);
+    }
+
+    private static Object toKeyValue(String property, String value) {
+        Function<String, Object> parser = KEYSET_PROPERTIES.get(property);
+        if (parser == null || value == null) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+}
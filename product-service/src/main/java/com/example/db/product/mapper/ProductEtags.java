@@ -0,0 +1,47 @@
+package com.example.db.product.mapper;
+
+import com.example.db.product.domain.Product;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.OptionalLong;
+
+public final class ProductEtags {
+
+    private ProductEtags() {}
+
+    public static String strong(Product product) {
+        return "\"" + product.getId() + "-" + versionOf(product) + "\"";
+    }
+
+    // A page only changes when one of its rows or the page metadata changes, so hash ids, versions and metadata.
+    public static String weak(List<Product> content, Object... metadata) {
+        StringBuilder source = new StringBuilder();
+        for (Object part : metadata) {
+            source.append(part).append('|');
+        }
+        for (Product product : content) {
+            source.append(product.getId()).append(':').append(versionOf(product)).append(',');
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    // Only strong tags minted by strong(Product) for the same id can be used as a precondition.
+    public static OptionalLong parseVersion(String etag, Long id) {
+        String value = etag.trim();
+        String prefix = "\"" + id + "-";
+        if (!value.startsWith(prefix) || !value.endsWith("\"") || value.length() <= prefix.length() + 1) {
+            return OptionalLong.empty();
+        }
+        try {
+            return OptionalLong.of(Long.parseLong(value.substring(prefix.length(), value.length() - 1)));
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    private static long versionOf(Product product) {
+        return product.getVersion() != null ? product.getVersion() : 0L;
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.db.product.mapper;
 
+import com.example.common.product.dto.CursorPageResponse;
 import com.example.common.product.dto.PageResponse;
 import com.example.db.product.domain.Product;
 import com.example.db.product.dto.ProductCreateRequest;
 import com.example.db.product.dto.ProductResponseDto;
 import com.example.db.product.dto.ProductUpdateRequest;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 
 public final class ProductMapper {
 
@@ -37,7 +40,26 @@ public final class ProductMapper {
         );
     }
 
+    public static CursorPageResponse<ProductResponseDto> toDtoCursorPage(Window<Product> products) {
+        String nextCursor = products.hasNext() && !products.isEmpty()
+                ? ProductCursorMapper.toCursor(products.positionAt(products.size() - 1))
+                : null;
+
+        return new CursorPageResponse<>(
+                products.getContent().stream()
+                        .map(ProductMapper::toDto)
+                        .toList(),
+                products.size(),
+                nextCursor,
+                nextCursor == null
+        );
+    }
+
     public static PageResponse<ProductResponseDto> toDtoPage(Page<Product> products) {
+        return toDtoPage(products, false);
+    }
+
+    public static PageResponse<ProductResponseDto> toDtoPage(Page<Product> products, boolean approximateTotal) {
         return new PageResponse<>(
                 products.getContent().stream()
                         .map(ProductMapper::toDto)
@@ -46,7 +68,24 @@ public final class ProductMapper {
                 products.getSize(),
                 products.getTotalElements(),
                 products.getTotalPages(),
-                products.isLast()
+                products.isLast(),
+                products.hasNext(),
+                approximateTotal
+        );
+    }
+
+    public static PageResponse<ProductResponseDto> toDtoSlicePage(Slice<Product> products) {
+        return new PageResponse<>(
+                products.getContent().stream()
+                        .map(ProductMapper::toDto)
+                        .toList(),
+                products.getNumber(),
+                products.getSize(),
+                null,
+                null,
+                products.isLast(),
+                products.hasNext(),
+                false
         );
     }
 }
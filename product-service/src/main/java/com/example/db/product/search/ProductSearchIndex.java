@@ -0,0 +1,154 @@
+package com.example.db.product.search;
+
+import com.example.db.product.domain.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory trigram index over product names and categories. It only sees the writes made through this instance,
+// so it turns itself off when product.datasource.pool.service-instances says other instances share the database;
+// their writes would never reach it and it would keep answering from stale data.
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int maxMatches;
+
+    private final TrigramIndex names = new TrigramIndex();
+    private final TrigramIndex categories = new TrigramIndex();
+
+    // index/remove share the read side, rebuild takes the write side: a write landing between the clear and the
+    // SELECT reaching its row would otherwise be overwritten by the older value the SELECT read.
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    public ProductSearchIndex(
+            JdbcTemplate jdbcTemplate,
+            @Value("${product.search-index.enabled:true}") boolean enabled,
+            @Value("${product.search-index.max-matches:5000}") int maxMatches,
+            @Value("${product.datasource.pool.service-instances:1}") int serviceInstances) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled && serviceInstances <= 1;
+        this.maxMatches = maxMatches;
+        if (enabled && serviceInstances > 1) {
+            log.warn("Product search index disabled: {} service instances share the database and it would only see "
+                    + "this one's writes", serviceInstances);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            names.clear();
+            categories.clear();
+
+            jdbcTemplate.query("SELECT id, name, category FROM products", (RowCallbackHandler) rs -> {
+                long id = rs.getLong("id");
+                names.put(id, rs.getString("name"));
+                categories.put(id, rs.getString("category"));
+            });
+
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index rebuilt with {} products in {} ms",
+                names.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void index(Product product) {
+        if (!enabled || product.getId() == null) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            names.put(product.getId(), product.getName());
+            categories.put(product.getId(), product.getCategory());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        if (!enabled || id == null) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            names.remove(id);
+            categories.remove(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Empty means the filter cannot be answered here (index not built, term shorter than a trigram,
+    // or too many matches for an id lookup) and the caller should run its LIKE query instead.
+    public Optional<List<Long>> search(String name, String category) {
+        boolean hasName = name != null && !name.isBlank();
+        boolean hasCategory = category != null && !category.isBlank();
+        if (!ready || (!hasName && !hasCategory)) {
+            return Optional.empty();
+        }
+
+        long[] ids = null;
+        if (hasName) {
+            ids = names.search(name);
+            if (ids == null) {
+                return Optional.empty();
+            }
+        }
+        if (hasCategory) {
+            long[] byCategory = categories.search(category);
+            if (byCategory == null) {
+                return Optional.empty();
+            }
+            ids = ids == null ? byCategory : intersect(ids, byCategory);
+        }
+
+        if (ids.length > maxMatches) {
+            return Optional.empty();
+        }
+        return Optional.of(Arrays.stream(ids).boxed().toList());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int i = 0, j = 0, count = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[count++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.db.product.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+class TrigramIndex {
+
+    static final int GRAM = 3;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, String> values = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    void put(long id, String value) {
+        String normalized = normalize(value);
+        lock.writeLock().lock();
+        try {
+            String previous = values.put(id, normalized);
+            if (previous != null) {
+                grams(previous).forEach(gram -> removePosting(gram, id));
+            }
+            grams(normalized).forEach(gram -> postings.computeIfAbsent(gram, g -> new Postings()).add(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            String previous = values.remove(id);
+            if (previous != null) {
+                grams(previous).forEach(gram -> removePosting(gram, id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            values.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Returns ids whose value contains the term, or null when the term is too short to be served by trigrams.
+    long[] search(String term) {
+        String needle = normalize(term);
+        if (needle.length() < GRAM) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>();
+            for (String gram : grams(needle)) {
+                Postings list = postings.get(gram);
+                if (list == null) {
+                    return new long[0];
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(Postings::size));
+
+            long[] candidates = lists.getFirst().toArray();
+            for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+                candidates = lists.get(i).retain(candidates);
+            }
+
+            // Trigrams only prove the pieces are present; confirm the actual substring.
+            int matched = 0;
+            for (long id : candidates) {
+                if (values.get(id).contains(needle)) {
+                    candidates[matched++] = id;
+                }
+            }
+            return Arrays.copyOf(candidates, matched);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return values.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removePosting(String gram, long id) {
+        Postings list = postings.get(gram);
+        if (list != null && list.remove(id) && list.size() == 0) {
+            postings.remove(gram);
+        }
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    static Set<String> grams(String value) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    // Sorted, growable array of ids; ids are mostly appended in increasing order.
+    static final class Postings {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void add(long id) {
+            if (size == 0 || ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            int insertAt = -pos - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        long[] retain(long[] sortedCandidates) {
+            long[] kept = new long[sortedCandidates.length];
+            int count = 0;
+            for (long id : sortedCandidates) {
+                if (Arrays.binarySearch(ids, 0, size, id) >= 0) {
+                    kept[count++] = id;
+                }
+            }
+            return Arrays.copyOf(kept, count);
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+        }
+    }
+}
@@ -1,18 +1,36 @@
 package com.example.db.product.web;
 
+import com.example.common.product.dto.BatchResponse;
+import com.example.common.product.dto.CursorPageResponse;
 import com.example.common.product.dto.PageResponse;
+import com.example.common.product.dto.VersionedItem;
+import com.example.db.exceptions.ProductVersionConflictException;
+import com.example.db.product.application.ProductBatchService;
+import com.example.db.product.application.ProductExportService;
+import com.example.db.product.application.ProductPage;
 import com.example.db.product.application.ProductService;
+import com.example.db.product.domain.Product;
+import com.example.db.product.dto.ProductBatchUpdateRequest;
 import com.example.db.product.dto.ProductCreateRequest;
 import com.example.db.product.dto.ProductResponseDto;
 import com.example.db.product.dto.ProductUpdateRequest;
+import com.example.db.product.mapper.ProductEtags;
 import com.example.db.product.mapper.ProductMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
+import static com.example.db.product.mapper.ProductMapper.toDtoCursorPage;
 import static com.example.db.product.mapper.ProductMapper.toDtoPage;
+import static com.example.db.product.mapper.ProductMapper.toDtoSlicePage;
 
 @RestController
 @RequestMapping("/products")
@@ -20,46 +38,108 @@ import static com.example.db.product.mapper.ProductMapper.toDtoPage;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductBatchService productBatchService;
+    private final ProductExportService productExportService;
 
     @GetMapping
-    public PageResponse<ProductResponseDto> getProducts(
+    public ResponseEntity<PageResponse<ProductResponseDto>> getProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false, name = "sort") List<String> sortParams,
             @RequestParam(required = false) String name,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "true") boolean withTotal
+    ) {
+        Slice<Product> products;
+        PageResponse<ProductResponseDto> body;
+        if (!withTotal) {
+            products = productService.getProductSlice(page, size, sortParams, name, category);
+            body = toDtoSlicePage(products);
+        } else {
+            ProductPage result = productService.getProducts(page, size, sortParams, name, category);
+            products = result.page();
+            body = toDtoPage(result.page(), result.approximateTotal());
+        }
+        String etag = ProductEtags.weak(products.getContent(),
+                body.pageNumber(), body.pageSize(), body.totalElements(), body.hasNext(), body.approximateTotal());
+        return ResponseEntity.ok().eTag(etag).body(body);
+    }
+
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPageResponse<ProductResponseDto>> getProductsAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false, name = "sort") List<String> sortParams,
+            @RequestParam(required = false) String name,
             @RequestParam(required = false) String category
     ) {
-        return toDtoPage(
-                productService.getProducts(page, size, sortParams, name, category)
-        );
+        Window<Product> products = productService.scrollProducts(after, size, sortParams, name, category);
+        CursorPageResponse<ProductResponseDto> body = toDtoCursorPage(products);
+        String etag = ProductEtags.weak(products.getContent(), body.pageSize(), body.nextCursor());
+        return ResponseEntity.ok().eTag(etag).body(body);
+    }
+
+    @GetMapping(params = "ids")
+    public List<VersionedItem<ProductResponseDto>> getProductsByIds(@RequestParam List<Long> ids) {
+        return productBatchService.getProducts(ids).stream()
+                .map(product -> new VersionedItem<>(ProductEtags.strong(product), ProductMapper.toDto(product)))
+                .toList();
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(productExportService::exportNdjson);
     }
 
     @GetMapping("/{id}")
-    public ProductResponseDto getProduct(@PathVariable Long id) {
-        return ProductMapper.toDto(
-                productService.getProduct(id)
-        );
+    public ResponseEntity<ProductResponseDto> getProduct(@PathVariable Long id) {
+        return withStrongEtag(productService.getProduct(id));
     }
 
     @PostMapping
-    public ProductResponseDto createProduct(@Valid @RequestBody ProductCreateRequest request) {
-        return ProductMapper.toDto(
-                productService.createProduct(request)
-        );
+    public ResponseEntity<ProductResponseDto> createProduct(@Valid @RequestBody ProductCreateRequest request) {
+        return withStrongEtag(productService.createProduct(request));
     }
 
     @PutMapping("/{id}")
-    public ProductResponseDto updateProduct(
+    public ResponseEntity<ProductResponseDto> updateProduct(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody ProductUpdateRequest request
     ) {
-        return ProductMapper.toDto(
-                productService.updateProduct(id, request)
-        );
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return withStrongEtag(productService.updateProduct(id, request));
+        }
+        long expectedVersion = ProductEtags.parseVersion(ifMatch, id)
+                .orElseThrow(() -> new ProductVersionConflictException(id));
+        return withStrongEtag(productService.updateProduct(id, request, expectedVersion));
+    }
+
+    @PostMapping("/batch")
+    public BatchResponse<ProductResponseDto> createProducts(@RequestBody List<ProductCreateRequest> requests) {
+        return productBatchService.createProducts(requests);
+    }
+
+    @PutMapping("/batch")
+    public BatchResponse<ProductResponseDto> updateProducts(@RequestBody List<ProductBatchUpdateRequest> requests) {
+        return productBatchService.updateProducts(requests);
+    }
+
+    @DeleteMapping("/batch")
+    public BatchResponse<ProductResponseDto> deleteProducts(@RequestBody List<Long> ids) {
+        return productBatchService.deleteProducts(ids);
     }
 
     @DeleteMapping("/{id}")
     public void deleteProduct(@PathVariable Long id) {
         productService.deleteProduct(id);
     }
+
+    private static ResponseEntity<ProductResponseDto> withStrongEtag(Product product) {
+        return ResponseEntity.ok()
+                .eTag(ProductEtags.strong(product))
+                .body(ProductMapper.toDto(product));
+    }
 }
@@ -0,0 +1 @@
+ALTER TABLE products ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
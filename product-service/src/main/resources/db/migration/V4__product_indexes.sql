@@ -0,0 +1,6 @@
+-- Listing is sorted by name unless the client asks otherwise, and cursor pages order by the sort column plus id.
+-- Each index matches one of those orders, so a page is read in index order and stops at its LIMIT instead of
+-- sorting the whole table.
+CREATE INDEX IF NOT EXISTS idx_products_name_id ON products (name, id);
+CREATE INDEX IF NOT EXISTS idx_products_price_id ON products (price, id);
+CREATE INDEX IF NOT EXISTS idx_products_category_name_id ON products (category, name, id);
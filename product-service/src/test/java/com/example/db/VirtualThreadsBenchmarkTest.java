@@ -0,0 +1,97 @@
+package com.example.db;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Sends N concurrent slow requests (the chaos endpoint sleeps delayMs) to product-service on Tomcat's platform
+// thread pool and on virtual threads, and reports throughput plus the platform threads the server needed.
+// Run with: mvn -pl product-service test -Pbenchmark -Dtest=VirtualThreadsBenchmarkTest
+//           [-Dbenchmark.connections=2000] [-Dbenchmark.delay-ms=1000]
+@Tag("benchmark")
+class VirtualThreadsBenchmarkTest {
+
+    private static final int CONNECTIONS = Integer.getInteger("benchmark.connections", 2_000);
+    private static final long DELAY_MS = Long.getLong("benchmark.delay-ms", 1_000);
+
+    @Test
+    void virtualThreadsShouldNotQueueSlowRequests() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        assertThat(platform.errors()).isZero();
+        assertThat(virtual.errors()).isZero();
+        assertThat(virtual.throughput()).isGreaterThan(platform.throughput());
+    }
+
+    private static Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = start(virtualThreads);
+             ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(clientExecutor)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + port + "/dev/chaos?delayMs=" + DELAY_MS))
+                    .timeout(Duration.ofMinutes(2))
+                    .build();
+
+            // Warm up the handler path so class loading does not count against the first mode.
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+
+            int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+            ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+            long start = System.nanoTime();
+            List<CompletableFuture<Integer>> calls = new ArrayList<>(CONNECTIONS);
+            for (int i = 0; i < CONNECTIONS; i++) {
+                calls.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .thenApply(HttpResponse::statusCode)
+                        .exceptionally(error -> -1));
+            }
+            CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+            long elapsedNanos = System.nanoTime() - start;
+            int peakThreads = ManagementFactory.getThreadMXBean().getPeakThreadCount();
+
+            long errors = calls.stream().map(CompletableFuture::join).filter(status -> status != 200).count();
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            Result result = new Result(errors, CONNECTIONS / seconds);
+            System.out.printf("%-8s connections=%d delay=%dms took=%.2fs throughput=%.0f req/s errors=%d "
+                            + "platform-threads=%d->peak %d%n",
+                    virtualThreads ? "virtual" : "platform", CONNECTIONS, DELAY_MS, seconds, result.throughput(),
+                    errors, threadsBefore, peakThreads);
+            return result;
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads) {
+        return new SpringApplicationBuilder(DbServiceApplication.class).run(
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--server.port=0",
+                // Only the accept backlog is raised, so a burst of connects is not refused; Tomcat's 200 platform
+                // workers are what is being measured.
+                "--server.tomcat.accept-count=" + CONNECTIONS,
+                "--eureka.client.enabled=false",
+                "--product.search-index.enabled=false",
+                "--logging.level.root=WARN");
+    }
+
+    private record Result(long errors, double throughput) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.db.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DataSourceConfigTest {
+
+    @Test
+    void poolSizeShouldFollowCpusWhenTheDatabaseHasRoom() {
+        assertThat(DataSourceConfig.poolSize(4, 100, 1)).isEqualTo(9);
+    }
+
+    @Test
+    void poolSizeShouldNotExceedThisInstancesShareOfTheDatabase() {
+        assertThat(DataSourceConfig.poolSize(16, 100, 4)).isEqualTo(25);
+    }
+
+    @Test
+    void poolSizeShouldKeepAtLeastTwoConnections() {
+        assertThat(DataSourceConfig.poolSize(1, 10, 20)).isEqualTo(2);
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.db.config;
+
+import com.example.common.CorrelationIdConstants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two in-memory H2 databases stand in for the primary and a replica; each knows its own name.
+class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void clearMdc() {
+        MDC.clear();
+    }
+
+    @Test
+    void readOnlyTransactionsShouldGoToTheReplica() {
+        Routing routing = routing(replica);
+
+        assertThat(routing.read()).isEqualTo("replica");
+        assertThat(routing.write()).isEqualTo("primary");
+    }
+
+    @Test
+    void readsOutsideTransactionsShouldGoToThePrimary() {
+        Routing routing = routing(replica);
+
+        assertThat(routing.jdbc.queryForObject("SELECT name FROM whoami", String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    void readsAfterAWriteShouldStayOnThePrimaryForTheSameCorrelationId() {
+        Routing routing = routing(replica);
+
+        MDC.put(CorrelationIdConstants.MDC_KEY, "writer");
+        routing.write();
+        assertThat(routing.read()).isEqualTo("primary");
+
+        MDC.put(CorrelationIdConstants.MDC_KEY, "someone-else");
+        assertThat(routing.read()).isEqualTo("replica");
+    }
+
+    @Test
+    void sharedLoadsShouldReadThePrimaryWhileTheReplicaLags() {
+        Routing routing = routing(replica);
+
+        MDC.put(CorrelationIdConstants.MDC_KEY, "writer");
+        routing.transactions.executeWithoutResult(status -> routing.jdbc.update("UPDATE whoami SET name = 'updated'"));
+
+        // Another client misses the evicted entry: the replica has not caught up yet.
+        MDC.put(CorrelationIdConstants.MDC_KEY, "someone-else");
+        assertThat(routing.read()).isEqualTo("replica");
+        String loaded = routing.readOnly().execute(status -> ReplicaRoutingDataSource.readFromPrimary(
+                () -> routing.jdbc.queryForObject("SELECT name FROM whoami", String.class)));
+        assertThat(loaded).isEqualTo("updated");
+
+        // Not recorded as a write: the same client's other reads still go to the replica.
+        assertThat(routing.read()).isEqualTo("replica");
+    }
+
+    @Test
+    void rolledBackWritesShouldNotPinReadsToThePrimary() {
+        Routing routing = routing(replica);
+
+        MDC.put(CorrelationIdConstants.MDC_KEY, "writer");
+        routing.transactions.executeWithoutResult(status -> {
+            routing.jdbc.queryForObject("SELECT name FROM whoami", String.class);
+            status.setRollbackOnly();
+        });
+
+        assertThat(routing.read()).isEqualTo("replica");
+    }
+
+    @Test
+    void readsShouldFailOverToThePrimaryWhenTheReplicaIsDown() {
+        Routing routing = routing(new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/unreachable", "sa", ""));
+
+        assertThat(routing.read()).isEqualTo("primary");
+        assertThat(meterRegistry.get("product.datasource.replica.healthy").gauge().value()).isZero();
+    }
+
+    @Test
+    void healthCheckShouldBringARecoveredReplicaBack() {
+        Routing routing = routing(replica);
+        routing.dataSource.getReplicas().get(0).markDown(null);
+        assertThat(routing.read()).isEqualTo("primary");
+
+        routing.dataSource.checkReplicas();
+
+        assertThat(routing.read()).isEqualTo("replica");
+        assertThat(meterRegistry.get("product.datasource.replica.healthy").gauge().value()).isEqualTo(1);
+    }
+
+    private Routing routing(DataSource replicaDataSource) {
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(
+                primary,
+                List.of(new ReplicaRoutingDataSource.Replica("replica-1", replicaDataSource)),
+                new ReadYourWritesWindow(Duration.ofMinutes(1), 100),
+                Duration.ZERO,
+                meterRegistry);
+        dataSource.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(dataSource);
+        return new Routing(dataSource, new JdbcTemplate(proxy),
+                new TransactionTemplate(new DataSourceTransactionManager(proxy)));
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE whoami (name VARCHAR(20))");
+        jdbc.update("INSERT INTO whoami (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private record Routing(ReplicaRoutingDataSource dataSource, JdbcTemplate jdbc, TransactionTemplate transactions) {
+
+        String read() {
+            return readOnly().execute(status -> jdbc.queryForObject("SELECT name FROM whoami", String.class));
+        }
+
+        TransactionTemplate readOnly() {
+            TransactionTemplate readOnly = new TransactionTemplate(transactions.getTransactionManager());
+            readOnly.setReadOnly(true);
+            return readOnly;
+        }
+
+        String write() {
+            return transactions.execute(status -> {
+                jdbc.update("UPDATE whoami SET name = name");
+                return jdbc.queryForObject("SELECT name FROM whoami", String.class);
+            });
+        }
+    }
+}
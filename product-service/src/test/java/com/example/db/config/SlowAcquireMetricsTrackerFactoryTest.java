@@ -0,0 +1,86 @@
+package com.example.db.config;
+
+import com.example.common.CorrelationIdConstants;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.MDC;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(OutputCaptureExtension.class)
+class SlowAcquireMetricsTrackerFactoryTest {
+
+    private IMetricsTracker delegate;
+    private IMetricsTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(IMetricsTracker.class);
+        MetricsTrackerFactory delegateFactory = mock(MetricsTrackerFactory.class);
+        when(delegateFactory.create(eq("product-service"), any())).thenReturn(delegate);
+
+        tracker = new SlowAcquireMetricsTrackerFactory(delegateFactory, Duration.ofMillis(50))
+                .create("product-service", new FixedPoolStats());
+        MDC.put(CorrelationIdConstants.MDC_KEY, "corr-123");
+    }
+
+    @AfterEach
+    void clearMdc() {
+        MDC.clear();
+    }
+
+    @Test
+    void shouldLogSlowAcquireWithCorrelationId(CapturedOutput output) {
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(80));
+
+        verify(delegate).recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(80));
+        assertThat(output).contains("Slow connection acquire from pool product-service: 80 ms, correlationId=corr-123")
+                .contains("active=10, idle=0, pending=7");
+    }
+
+    @Test
+    void shouldNotLogFastAcquire(CapturedOutput output) {
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(2));
+
+        verify(delegate).recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(2));
+        assertThat(output).doesNotContain("Slow connection acquire");
+    }
+
+    @Test
+    void shouldLogTimeouts(CapturedOutput output) {
+        tracker.recordConnectionTimeout();
+
+        verify(delegate).recordConnectionTimeout();
+        assertThat(output).contains("Timed out waiting for a connection from pool product-service, correlationId=corr-123");
+    }
+
+    private static final class FixedPoolStats extends PoolStats {
+
+        private FixedPoolStats() {
+            super(0);
+        }
+
+        @Override
+        protected void update() {
+            totalConnections = 10;
+            activeConnections = 10;
+            idleConnections = 0;
+            pendingThreads = 7;
+        }
+    }
+}
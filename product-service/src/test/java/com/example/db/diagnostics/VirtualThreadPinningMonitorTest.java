@@ -0,0 +1,70 @@
+package com.example.db.diagnostics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadPinningMonitorTest {
+
+    private static final List<String> H2_FRAMES = List.of(
+            "java.lang.VirtualThread.parkOnCarrierThread:675",
+            "java.lang.VirtualThread.parkNanos:634",
+            "org.h2.engine.SessionLocal.lock:1234",
+            "org.h2.jdbc.JdbcPreparedStatement.executeQuery:130");
+
+    private SimpleMeterRegistry meterRegistry;
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new VirtualThreadPinningMonitor(false, Duration.ofMillis(20), 2, meterRegistry);
+    }
+
+    @Test
+    void shouldNotStartWhenDisabled() {
+        monitor.start();
+
+        assertThat(monitor.isRunning()).isFalse();
+    }
+
+    @Test
+    void shouldGroupEventsByFirstFrameOutsideTheJdk() {
+        monitor.record(Instant.now(), "tomcat-handler-1", Duration.ofMillis(30), H2_FRAMES);
+        monitor.record(Instant.now(), "tomcat-handler-2", Duration.ofMillis(40), H2_FRAMES);
+        monitor.record(Instant.now(), "tomcat-handler-3", Duration.ofMillis(25), List.of("java.lang.Object.wait0:-1"));
+
+        assertThat(monitor.sites()).containsExactly(
+                Map.entry("java.lang.Object.wait0:-1", 1L),
+                Map.entry("org.h2.engine.SessionLocal.lock:1234", 2L));
+    }
+
+    @Test
+    void shouldTimeEveryEvent() {
+        monitor.record(Instant.now(), "tomcat-handler-1", Duration.ofMillis(30), H2_FRAMES);
+        monitor.record(Instant.now(), "tomcat-handler-2", Duration.ofMillis(50), H2_FRAMES);
+
+        assertThat(monitor.total()).isEqualTo(2);
+        assertThat(meterRegistry.get(VirtualThreadPinningMonitor.METRIC_NAME).timer().totalTime(TimeUnit.MILLISECONDS))
+                .isEqualTo(80);
+    }
+
+    @Test
+    void shouldKeepOnlyTheMostRecentEvents() {
+        monitor.record(Instant.now(), "tomcat-handler-1", Duration.ofMillis(30), H2_FRAMES);
+        monitor.record(Instant.now(), "tomcat-handler-2", Duration.ofMillis(30), H2_FRAMES);
+        monitor.record(Instant.now(), "tomcat-handler-3", Duration.ofMillis(30), H2_FRAMES);
+
+        assertThat(monitor.recent())
+                .extracting(VirtualThreadPinningMonitor.PinnedEvent::thread)
+                .containsExactly("tomcat-handler-3", "tomcat-handler-2");
+    }
+}
@@ -32,6 +32,38 @@ class GlobalExceptionHandlerTest {
         assertThat(body.fieldErrors()).isNull();
     }
 
+    @Test
+    void handleInvalidCursorShouldReturn400WithApiErrorResponse() {
+        InvalidCursorException ex = new InvalidCursorException("Malformed cursor");
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRequestURI("/products");
+
+        ResponseEntity<ApiErrorResponse> response = handler.handleInvalidCursor(ex, request);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(400);
+        ApiErrorResponse body = response.getBody();
+        assertThat(body).as("Body must not be null").isNotNull();
+        assertThat(body.status()).isEqualTo(400);
+        assertThat(body.error()).isEqualTo("Bad Request");
+        assertThat(body.message()).isEqualTo("Malformed cursor");
+        assertThat(body.path()).isEqualTo("/products");
+    }
+
+    @Test
+    void handleVersionConflictShouldReturn412() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRequestURI("/products/5");
+
+        ResponseEntity<ApiErrorResponse> response =
+                handler.handleVersionConflict(new ProductVersionConflictException(5L), request);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(412);
+        ApiErrorResponse body = response.getBody();
+        assertThat(body).isNotNull();
+        assertThat(body.status()).isEqualTo(412);
+        assertThat(body.path()).isEqualTo("/products/5");
+    }
+
     @Test
     void handleGenericShouldReturn500WithMessage() {
         RuntimeException ex = new RuntimeException("Something went wrong");
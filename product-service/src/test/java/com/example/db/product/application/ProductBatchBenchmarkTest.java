@@ -0,0 +1,90 @@
+package com.example.db.product.application;
+
+import com.example.db.product.domain.ProductRepository;
+import com.example.db.product.dto.ProductCreateRequest;
+import com.example.db.product.search.ProductSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Run with: mvn -pl product-service test -Pbenchmark [-Dbenchmark.rows=20000]
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductBatchBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 20_000);
+    private static final int BATCH_SIZE = 1_000;
+    private static final String CATEGORY = "Batch bench";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM products WHERE category = ?", CATEGORY);
+    }
+
+    @Test
+    void batchCreateShouldBeatSingleItemCreates() {
+        ProductCountCache countCache = new ProductCountCache(Duration.ofMinutes(1), 100, new SimpleMeterRegistry());
+        ProductSearchIndex searchIndex = new ProductSearchIndex(jdbcTemplate, false, 0, 1);
+        ProductService single = new ProductService(productRepository, countCache, searchIndex,
+                new ConcurrentMapCacheManager(ProductService.PRODUCTS_CACHE), false);
+        ProductBatchService batch = new ProductBatchService(
+                productRepository,
+                countCache,
+                searchIndex,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ConcurrentMapCacheManager(ProductService.PRODUCTS_CACHE),
+                transactionManager,
+                BATCH_SIZE);
+
+        List<ProductCreateRequest> requests = IntStream.range(0, ROWS)
+                .mapToObj(i -> new ProductCreateRequest("Bench item " + i, CATEGORY, new BigDecimal("1.99"), null))
+                .toList();
+
+        long start = System.nanoTime();
+        requests.forEach(single::createProduct);
+        report("single-item create", System.nanoTime() - start);
+
+        start = System.nanoTime();
+        for (int from = 0; from < ROWS; from += BATCH_SIZE) {
+            int failed = batch.createProducts(requests.subList(from, Math.min(from + BATCH_SIZE, ROWS))).failed();
+            assertThat(failed).isZero();
+        }
+        report("batch create (" + BATCH_SIZE + ")", System.nanoTime() - start);
+
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products WHERE category = ?", Long.class, CATEGORY);
+        assertThat(count).isEqualTo(2L * ROWS);
+    }
+
+    private static void report(String scenario, long nanos) {
+        System.out.printf("%-24s rows=%d took=%.2fms rows/sec=%.0f%n",
+                scenario, ROWS, nanos / 1_000_000.0, ROWS / (nanos / 1_000_000_000.0));
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.db.product.application;
+
+import com.example.common.product.dto.BatchItemResult;
+import com.example.common.product.dto.BatchResponse;
+import com.example.db.exceptions.BatchSizeExceededException;
+import com.example.db.product.domain.Product;
+import com.example.db.product.domain.ProductRepository;
+import com.example.db.product.dto.ProductBatchUpdateRequest;
+import com.example.db.product.dto.ProductCreateRequest;
+import com.example.db.product.dto.ProductResponseDto;
+import com.example.db.product.search.ProductSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validation;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductBatchServiceTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ProductSearchIndex productSearchIndex;
+    private ConcurrentMapCacheManager cacheManager;
+    private ProductBatchService productBatchService;
+
+    @BeforeEach
+    void setUp() {
+        productSearchIndex = Mockito.mock(ProductSearchIndex.class);
+        cacheManager = new ConcurrentMapCacheManager(ProductService.PRODUCTS_CACHE);
+        productBatchService = new ProductBatchService(
+                productRepository,
+                new ProductCountCache(Duration.ofMinutes(1), 100, new SimpleMeterRegistry()),
+                productSearchIndex,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                cacheManager,
+                transactionManager,
+                200);
+    }
+
+    @Test
+    void createShouldInsertValidItemsInJdbcBatches() {
+        List<ProductCreateRequest> requests = new ArrayList<>(IntStream.range(0, 120)
+                .mapToObj(i -> new ProductCreateRequest("Batch " + i, "Batch", new BigDecimal("9.99"), null))
+                .toList());
+        requests.set(5, new ProductCreateRequest("", "Batch", new BigDecimal("9.99"), null));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        BatchResponse<ProductResponseDto> response = productBatchService.createProducts(requests);
+
+        assertThat(response.succeeded()).isEqualTo(119);
+        assertThat(response.failed()).isEqualTo(1);
+        assertThat(response.results().get(5).status()).isEqualTo(400);
+        assertThat(response.results().get(5).message()).contains("name");
+        assertThat(response.results().get(6).id()).isNotNull();
+        assertThat(response.results().get(6).item().name()).isEqualTo("Batch 6");
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(119);
+        // 119 rows one by one would need 119 statements; batched inserts and pooled ids need only a handful.
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(10);
+        verify(productSearchIndex, times(119)).index(any(Product.class));
+    }
+
+    @Test
+    void updateShouldReportMissingAndStaleItems() {
+        List<Product> existing = productRepository.findAll(Sort.by("id"));
+        Product first = existing.get(0);
+        Product second = existing.get(1);
+
+        BatchResponse<ProductResponseDto> response = productBatchService.updateProducts(List.of(
+                new ProductBatchUpdateRequest(first.getId(), "Renamed", first.getCategory(), first.getPrice(), null, null),
+                new ProductBatchUpdateRequest(second.getId(), "Stale", second.getCategory(), second.getPrice(), null,
+                        second.getVersion() + 1),
+                new ProductBatchUpdateRequest(-1L, "Missing", "Cat", BigDecimal.ONE, null, null)));
+
+        assertThat(response.results()).extracting(BatchItemResult::status).containsExactly(200, 412, 404);
+        assertThat(productRepository.findById(first.getId()).orElseThrow().getName()).isEqualTo("Renamed");
+        assertThat(productRepository.findById(second.getId()).orElseThrow().getName()).isNotEqualTo("Stale");
+        assertThat(cacheManager.getCache(ProductService.PRODUCTS_CACHE).get(first.getId())).isNotNull();
+    }
+
+    @Test
+    void updateShouldRejectRepeatedIdsAfterTheFirst() {
+        Product product = productRepository.findAll(Sort.by("id")).getFirst();
+
+        BatchResponse<ProductResponseDto> response = productBatchService.updateProducts(List.of(
+                new ProductBatchUpdateRequest(product.getId(), "First", product.getCategory(), product.getPrice(), null,
+                        product.getVersion()),
+                new ProductBatchUpdateRequest(product.getId(), "Second", product.getCategory(), product.getPrice(),
+                        null, product.getVersion()),
+                new ProductBatchUpdateRequest(product.getId(), "Third", product.getCategory(), product.getPrice(), null,
+                        null)));
+
+        assertThat(response.results()).extracting(BatchItemResult::status).containsExactly(200, 409, 409);
+        assertThat(response.results().get(0).item().name()).isEqualTo("First");
+        assertThat(response.results().get(1).message()).contains("Duplicate id " + product.getId());
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getName()).isEqualTo("First");
+    }
+
+    @Test
+    void deleteShouldRemoveExistingIdsWithOneStatement() {
+        Long id = productRepository.findAll(Sort.by("id")).getFirst().getId();
+        cacheManager.getCache(ProductService.PRODUCTS_CACHE).put(id, new Product());
+
+        BatchResponse<ProductResponseDto> response = productBatchService.deleteProducts(Arrays.asList(id, -1L, null));
+
+        assertThat(response.results()).extracting(BatchItemResult::status).containsExactly(204, 404, 400);
+        assertThat(productRepository.existsById(id)).isFalse();
+        assertThat(cacheManager.getCache(ProductService.PRODUCTS_CACHE).get(id)).isNull();
+        verify(productSearchIndex).remove(id);
+    }
+
+    @Test
+    void multiGetShouldServeCachedProductsAndLoadTheRestInOneQuery() {
+        List<Product> existing = productRepository.findAll(Sort.by("id"));
+        Product cached = new Product();
+        cached.setId(existing.get(0).getId());
+        cached.setName("From cache");
+        cacheManager.getCache(ProductService.PRODUCTS_CACHE).put(cached.getId(), cached);
+        Long loadedId = existing.get(1).getId();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Product> products = productBatchService.getProducts(Arrays.asList(loadedId, -1L, cached.getId(), null, loadedId));
+
+        assertThat(products).extracting(Product::getId).containsExactly(loadedId, cached.getId());
+        assertThat(products.get(1).getName()).isEqualTo("From cache");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(cacheManager.getCache(ProductService.PRODUCTS_CACHE).get(loadedId)).isNotNull();
+    }
+
+    @Test
+    void shouldRejectOversizedBatches() {
+        List<Long> ids = IntStream.rangeClosed(1, 201).mapToObj(i -> (long) i).toList();
+
+        assertThatThrownBy(() -> productBatchService.deleteProducts(ids))
+                .isInstanceOf(BatchSizeExceededException.class);
+    }
+}
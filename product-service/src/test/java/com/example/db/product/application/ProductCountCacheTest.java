@@ -0,0 +1,59 @@
+package com.example.db.product.application;
+
+import com.example.db.product.domain.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCountCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductCountCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ProductCountCache(Duration.ofMinutes(1), 10, meterRegistry);
+    }
+
+    @Test
+    void shouldNormalizeFilterKeys() {
+        cache.put("Chair", "", 3);
+
+        assertThat(cache.get("chair", null)).hasValue(3);
+        assertThat(cache.get("CHAIR", "  ")).hasValue(3);
+        assertThat(cache.get("chair", "office")).isEmpty();
+    }
+
+    @Test
+    void onCreatedShouldIncrementOnlyMatchingFilters() {
+        cache.put(null, null, 10);
+        cache.put("chair", null, 2);
+        cache.put(null, "garden", 1);
+
+        Product product = new Product();
+        product.setName("Office Chair");
+        product.setCategory("Furniture");
+        cache.onCreated(product);
+
+        assertThat(cache.get(null, null)).hasValue(11);
+        assertThat(cache.get("chair", null)).hasValue(3);
+        assertThat(cache.get(null, "garden")).hasValue(1);
+    }
+
+    @Test
+    void shouldExposeHitAndMissMetrics() {
+        cache.put(null, null, 1);
+        cache.get(null, null);
+        cache.get("missing", null);
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "productCounts").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "productCounts").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+    }
+}
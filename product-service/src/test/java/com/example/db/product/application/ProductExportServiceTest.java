@@ -0,0 +1,62 @@
+package com.example.db.product.application;
+
+import com.example.db.product.domain.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductExportServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void exportShouldWriteOneJsonDocumentPerLineInIdOrder() throws Exception {
+        ProductExportService exportService = new ProductExportService(productRepository, entityManager, objectMapper);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = exportService.exportNdjson(out);
+
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertThat(body).endsWith("\n");
+        String[] lines = body.split("\n");
+        assertThat(written).isEqualTo(productRepository.count()).isEqualTo(lines.length);
+
+        List<Long> ids = new ArrayList<>();
+        for (String line : lines) {
+            JsonNode node = objectMapper.readTree(line);
+            assertThat(node.hasNonNull("name")).isTrue();
+            ids.add(node.get("id").asLong());
+        }
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void exportShouldNotKeepEntitiesInThePersistenceContext() throws Exception {
+        ProductExportService exportService = new ProductExportService(productRepository, entityManager, objectMapper);
+        entityManager.clear();
+
+        exportService.exportNdjson(new ByteArrayOutputStream());
+
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.db.product.application;
+
+import com.example.db.product.domain.ProductRepository;
+import com.example.db.product.search.ProductSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Run with: mvn -pl product-service test -Pbenchmark [-Dbenchmark.rows=1000000]
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductListingBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 20;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        productService = service(new ProductSearchIndex(jdbcTemplate, false, 0, 1));
+
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Long.class);
+        if (count != null && count < ROWS) {
+            jdbcTemplate.execute("""
+                    INSERT INTO products (name, category, price, description)
+                    SELECT 'Bench product ' || X, 'Bench category ' || MOD(X, 50), MOD(X, 1000) + 0.99, NULL
+                    FROM SYSTEM_RANGE(1, %d)
+                    """.formatted(ROWS));
+        }
+    }
+
+    @Test
+    void sliceListingShouldSkipTheCountQuery() {
+        List<String> sort = List.of("id");
+
+        report("unfiltered, page", () -> productService.getProducts(0, 20, sort, null, null).page().getContent());
+        report("unfiltered, slice", () -> productService.getProductSlice(0, 20, sort, null, null).getContent());
+
+        report("name filter, page", () -> productService.getProducts(0, 20, sort, "product 12", null).page().getContent());
+        report("name filter, slice", () -> productService.getProductSlice(0, 20, sort, "product 12", null).getContent());
+
+        report("category filter, page", () -> productService.getProducts(0, 20, sort, null, "category 7").page().getContent());
+        report("category filter, slice", () -> productService.getProductSlice(0, 20, sort, null, "category 7").getContent());
+    }
+
+    @Test
+    void indexedSearchShouldBeatLikeScan() {
+        ProductSearchIndex index = new ProductSearchIndex(jdbcTemplate, true, 5_000, 1);
+        long start = System.nanoTime();
+        index.rebuild();
+        System.out.printf("search index rebuild      rows=%d took=%.2fms%n", ROWS, (System.nanoTime() - start) / 1_000_000.0);
+
+        ProductService indexed = service(index);
+        List<String> sort = List.of("id");
+
+        report("name search, like", () -> productService.getProductSlice(0, 20, sort, "product 12345", null).getContent());
+        report("name search, index", () -> indexed.getProductSlice(0, 20, sort, "product 12345", null).getContent());
+
+        report("both search, like", () -> productService.getProductSlice(0, 20, sort, "product 9876", "category 26").getContent());
+        report("both search, index", () -> indexed.getProductSlice(0, 20, sort, "product 9876", "category 26").getContent());
+    }
+
+    private ProductService service(ProductSearchIndex index) {
+        return new ProductService(
+                productRepository,
+                new ProductCountCache(Duration.ofMinutes(1), 100, new SimpleMeterRegistry()),
+                index,
+                new ConcurrentMapCacheManager(ProductService.PRODUCTS_CACHE),
+                false);
+    }
+
+    private void report(String scenario, Supplier<List<?>> call) {
+        for (int i = 0; i < WARMUP; i++) {
+            assertThat(call.get()).isNotEmpty();
+        }
+
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            call.get();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+
+        System.out.printf("%-24s rows=%d mean=%.2fms p50=%.2fms p95=%.2fms%n",
+                scenario,
+                ROWS,
+                Arrays.stream(samples).average().orElse(0) / 1_000_000.0,
+                samples[ITERATIONS / 2] / 1_000_000.0,
+                samples[(int) (ITERATIONS * 0.95) - 1] / 1_000_000.0);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.db.product.application;
+
+import com.example.db.config.CacheConfig;
+import com.example.db.exceptions.ProductNotFoundException;
+import com.example.db.product.domain.Product;
+import com.example.db.product.domain.ProductRepository;
+import com.example.db.product.dto.ProductUpdateRequest;
+import com.example.db.product.search.ProductSearchIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.cache.CacheMetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductServiceCachingTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(
+                    CacheAutoConfiguration.class,
+                    MetricsAutoConfiguration.class,
+                    CompositeMeterRegistryAutoConfiguration.class,
+                    SimpleMetricsExportAutoConfiguration.class,
+                    CacheMetricsAutoConfiguration.class))
+            .withUserConfiguration(CacheConfig.class)
+            .withPropertyValues(
+                    "spring.cache.type=caffeine",
+                    "spring.cache.cache-names=" + ProductService.PRODUCTS_CACHE,
+                    "spring.cache.caffeine.spec=maximumSize=100,expireAfterWrite=1m,recordStats")
+            .withBean(ProductRepository.class, () -> mock(ProductRepository.class))
+            .withBean(ProductCountCache.class, () -> mock(ProductCountCache.class))
+            .withBean(ProductSearchIndex.class, () -> mock(ProductSearchIndex.class))
+            .withBean(ProductService.class);
+
+    @Test
+    void getProductShouldReadThroughCache() {
+        contextRunner.run(context -> {
+            ProductRepository repository = context.getBean(ProductRepository.class);
+            ProductService service = context.getBean(ProductService.class);
+            when(repository.findById(1L)).thenReturn(Optional.of(product(1L, "Lamp")));
+
+            service.getProduct(1L);
+            service.getProduct(1L);
+
+            verify(repository, times(1)).findById(1L);
+
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+            assertThat(registry.get("cache.gets").tag("cache", ProductService.PRODUCTS_CACHE).tag("result", "hit")
+                    .functionCounter().count()).isEqualTo(1);
+            assertThat(registry.get("cache.gets").tag("cache", ProductService.PRODUCTS_CACHE).tag("result", "miss")
+                    .functionCounter().count()).isEqualTo(1);
+            assertThat(registry.find("cache.evictions").tag("cache", ProductService.PRODUCTS_CACHE)
+                    .functionCounter()).isNotNull();
+        });
+    }
+
+    @Test
+    void updateAndDeleteShouldEvict() {
+        contextRunner.run(context -> {
+            ProductRepository repository = context.getBean(ProductRepository.class);
+            ProductService service = context.getBean(ProductService.class);
+            when(repository.findById(1L)).thenReturn(Optional.of(product(1L, "Lamp")));
+            when(repository.save(any(Product.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            service.getProduct(1L);
+            service.updateProduct(1L, new ProductUpdateRequest("Floor Lamp", "Furniture", new BigDecimal("5.00"), null));
+            when(repository.findById(1L)).thenReturn(Optional.of(product(1L, "Floor Lamp")));
+
+            // Cached read, the update's own lookup, then the read after the eviction loads the committed row.
+            assertThat(service.getProduct(1L).getName()).isEqualTo("Floor Lamp");
+            verify(repository, times(3)).findById(1L);
+
+            service.deleteProduct(1L);
+            when(repository.findById(1L)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> service.getProduct(1L)).isInstanceOf(ProductNotFoundException.class);
+        });
+    }
+
+    @Test
+    void virtualThreadModeShouldStillReadThroughCache() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true").run(context -> {
+            ProductRepository repository = context.getBean(ProductRepository.class);
+            ProductService service = context.getBean(ProductService.class);
+            when(repository.findById(1L)).thenReturn(Optional.of(product(1L, "Lamp")));
+
+            service.getProduct(1L);
+            service.getProduct(1L);
+
+            verify(repository, times(1)).findById(1L);
+            assertThatThrownBy(() -> service.getProduct(2L)).isInstanceOf(ProductNotFoundException.class);
+        });
+    }
+
+    private static Product product(Long id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setCategory("Furniture");
+        product.setPrice(new BigDecimal("1.00"));
+        return product;
+    }
+}
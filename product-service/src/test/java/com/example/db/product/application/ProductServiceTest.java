@@ -1,18 +1,28 @@
 package com.example.db.product.application;
 
+import com.example.db.exceptions.InvalidCursorException;
 import com.example.db.exceptions.ProductNotFoundException;
+import com.example.db.exceptions.ProductVersionConflictException;
 import com.example.db.product.domain.Product;
 import com.example.db.product.domain.ProductRepository;
 import com.example.db.product.dto.ProductCreateRequest;
 import com.example.db.product.dto.ProductUpdateRequest;
+import com.example.db.product.mapper.ProductCursorMapper;
+import com.example.db.product.search.ProductSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.data.domain.*;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -22,13 +32,18 @@ import static org.mockito.Mockito.*;
 class ProductServiceTest {
 
     private ProductRepository productRepository;
+    private ProductCountCache productCountCache;
+    private ProductSearchIndex productSearchIndex;
     private ProductService productService;
     private Product sampleProduct;
 
     @BeforeEach
     void setUp() {
         productRepository = Mockito.mock(ProductRepository.class);
-        productService = new ProductService(productRepository);
+        productCountCache = new ProductCountCache(Duration.ofMinutes(1), 100, new SimpleMeterRegistry());
+        productSearchIndex = Mockito.mock(ProductSearchIndex.class);
+        productService = new ProductService(productRepository, productCountCache, productSearchIndex,
+                new ConcurrentMapCacheManager(ProductService.PRODUCTS_CACHE), false);
 
         sampleProduct = new Product();
         sampleProduct.setId(1L);
@@ -137,6 +152,207 @@ class ProductServiceTest {
         verifyNoMoreInteractions(productRepository);
     }
 
+    @Test
+    void getProductsShouldServeCachedTotalAsApproximateWithoutCounting() {
+        Pageable pageable = PageRequest.of(0, 1);
+        when(productRepository.findAll(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(sampleProduct), pageable, 5));
+        when(productRepository.findSliceBy(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(sampleProduct), pageable, true));
+
+        ProductPage first = productService.getProducts(0, 1, null, null, null);
+        ProductPage second = productService.getProducts(0, 1, null, null, null);
+
+        assertThat(first.approximateTotal()).isFalse();
+        assertThat(second.approximateTotal()).isTrue();
+        assertThat(second.page().getTotalElements()).isEqualTo(5);
+        verify(productRepository, times(1)).findAll(any(Pageable.class));
+        verify(productRepository, times(1)).findSliceBy(any(Pageable.class));
+    }
+
+    @Test
+    void getProductsShouldReportExactTotalWhenSliceReachesTheEnd() {
+        productCountCache.put("sample", null, 7);
+        Pageable pageable = PageRequest.of(1, 2);
+        when(productRepository.findSliceByNameContainingIgnoreCase(eq("Sample"), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(sampleProduct), pageable, false));
+
+        ProductPage result = productService.getProducts(1, 2, null, "Sample", null);
+
+        assertThat(result.approximateTotal()).isFalse();
+        assertThat(result.page().getTotalElements()).isEqualTo(3);
+        assertThat(productCountCache.get("SAMPLE", " ")).hasValue(3);
+    }
+
+    @Test
+    void writesShouldAdjustOrInvalidateCachedCounts() {
+        productCountCache.put(null, null, 10);
+        productCountCache.put("sample", null, 4);
+        productCountCache.put("other", null, 2);
+        when(productRepository.save(any(Product.class))).thenReturn(sampleProduct);
+
+        productService.createProduct(new ProductCreateRequest("Sample", "Category", new BigDecimal("1.00"), null));
+
+        assertThat(productCountCache.get(null, null)).hasValue(11);
+        assertThat(productCountCache.get("Sample", null)).hasValue(5);
+        assertThat(productCountCache.get("Other", null)).hasValue(2);
+
+        productService.deleteProduct(1L);
+
+        assertThat(productCountCache.get(null, null)).isEmpty();
+        verify(productSearchIndex).index(sampleProduct);
+        verify(productSearchIndex).remove(1L);
+    }
+
+    @Test
+    void writesInsideATransactionShouldOnlyReachIndexAndCountsOnCommit() {
+        productCountCache.put(null, null, 10);
+        when(productRepository.save(any(Product.class))).thenReturn(sampleProduct);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            productService.createProduct(new ProductCreateRequest("Sample", "Category", new BigDecimal("1.00"), null));
+            productService.deleteProduct(2L);
+
+            verifyNoInteractions(productSearchIndex);
+            assertThat(productCountCache.get(null, null)).hasValue(10);
+
+            // Rolled back: nothing runs. Committed: both writes are applied in order.
+            TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.afterCompletion(
+                    TransactionSynchronization.STATUS_ROLLED_BACK));
+            verifyNoInteractions(productSearchIndex);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(productSearchIndex).index(sampleProduct);
+            verify(productSearchIndex).remove(2L);
+            assertThat(productCountCache.get(null, null)).isEmpty();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void getProductsShouldLookUpIndexedIdsInsteadOfLikeScan() {
+        Page<Product> page = new PageImpl<>(List.of(sampleProduct));
+        when(productSearchIndex.search("Sample", null)).thenReturn(Optional.of(List.of(1L)));
+        when(productRepository.findByIdIn(eq(List.of(1L)), any(Pageable.class))).thenReturn(page);
+
+        ProductPage result = productService.getProducts(0, 10, List.of("name,asc"), "Sample", null);
+
+        assertThat(result.page().getContent()).containsExactly(sampleProduct);
+        verify(productRepository).findByIdIn(eq(List.of(1L)), any(Pageable.class));
+        verifyNoMoreInteractions(productRepository);
+    }
+
+    @Test
+    void getProductsShouldSkipRepositoryWhenIndexFindsNothing() {
+        when(productSearchIndex.search("nothing", null)).thenReturn(Optional.of(List.of()));
+
+        ProductPage result = productService.getProducts(0, 10, null, "nothing", null);
+
+        assertThat(result.page().getTotalElements()).isZero();
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getProductSliceShouldUseSliceFinderWithoutFilters() {
+        Slice<Product> slice = new SliceImpl<>(List.of(sampleProduct));
+        ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+
+        when(productRepository.findSliceBy(any(Pageable.class))).thenReturn(slice);
+
+        Slice<Product> result = productService.getProductSlice(2, 5, List.of("price,desc"), null, null);
+
+        assertThat(result).isSameAs(slice);
+        verify(productRepository).findSliceBy(captor.capture());
+        verifyNoMoreInteractions(productRepository);
+
+        Pageable pageable = captor.getValue();
+        assertThat(pageable.getPageNumber()).isEqualTo(2);
+        assertThat(pageable.getPageSize()).isEqualTo(5);
+        assertThat(pageable.getSort().getOrderFor("price").getDirection()).isEqualTo(Sort.Direction.DESC);
+    }
+
+    @Test
+    void getProductSliceShouldUseSliceFinderForEachFilterCombination() {
+        Slice<Product> slice = new SliceImpl<>(List.of(sampleProduct));
+
+        when(productRepository.findSliceByNameContainingIgnoreCase(eq("Sample"), any(Pageable.class)))
+                .thenReturn(slice);
+        when(productRepository.findSliceByCategoryContainingIgnoreCase(eq("Category"), any(Pageable.class)))
+                .thenReturn(slice);
+        when(productRepository.findSliceByNameContainingIgnoreCaseAndCategoryContainingIgnoreCase(
+                eq("Sample"), eq("Category"), any(Pageable.class)))
+                .thenReturn(slice);
+
+        productService.getProductSlice(0, 10, null, "Sample", null);
+        productService.getProductSlice(0, 10, null, null, "Category");
+        productService.getProductSlice(0, 10, null, "Sample", "Category");
+
+        verify(productRepository).findSliceByNameContainingIgnoreCase(eq("Sample"), any(Pageable.class));
+        verify(productRepository).findSliceByCategoryContainingIgnoreCase(eq("Category"), any(Pageable.class));
+        verify(productRepository).findSliceByNameContainingIgnoreCaseAndCategoryContainingIgnoreCase(
+                eq("Sample"), eq("Category"), any(Pageable.class));
+        verifyNoMoreInteractions(productRepository);
+    }
+
+    @Test
+    void scrollProductsShouldStartFromInitialKeysetWhenCursorBlank() {
+        Window<Product> window = Window.from(List.of(sampleProduct), ScrollPosition::offset);
+        ArgumentCaptor<ScrollPosition> position = ArgumentCaptor.forClass(ScrollPosition.class);
+        ArgumentCaptor<Limit> limit = ArgumentCaptor.forClass(Limit.class);
+
+        when(productRepository.findBy(any(ScrollPosition.class), any(Limit.class), any(Sort.class)))
+                .thenReturn(window);
+
+        Window<Product> result = productService.scrollProducts("", 5, List.of("name,asc"), null, null);
+
+        assertThat(result).isSameAs(window);
+        verify(productRepository).findBy(position.capture(), limit.capture(), eq(Sort.by("name")));
+        verifyNoMoreInteractions(productRepository);
+
+        assertThat(position.getValue().isInitial()).isTrue();
+        assertThat(limit.getValue().max()).isEqualTo(5);
+    }
+
+    @Test
+    void scrollProductsShouldSeekFromDecodedCursorWithFilters() {
+        String cursor = ProductCursorMapper.toCursor(ScrollPosition.forward(Map.of("name", "Sample", "id", 1L)));
+        Window<Product> window = Window.from(List.of(sampleProduct), ScrollPosition::offset);
+        ArgumentCaptor<ScrollPosition> position = ArgumentCaptor.forClass(ScrollPosition.class);
+
+        when(productRepository.findByNameContainingIgnoreCaseAndCategoryContainingIgnoreCase(
+                eq("Sample"), eq("Category"), any(ScrollPosition.class), any(Limit.class), any(Sort.class)))
+                .thenReturn(window);
+
+        productService.scrollProducts(cursor, 10, List.of("name"), "Sample", "Category");
+
+        verify(productRepository).findByNameContainingIgnoreCaseAndCategoryContainingIgnoreCase(
+                eq("Sample"), eq("Category"), position.capture(), any(Limit.class), any(Sort.class));
+        verifyNoMoreInteractions(productRepository);
+
+        KeysetScrollPosition keyset = (KeysetScrollPosition) position.getValue();
+        assertThat(keyset.getKeys()).containsEntry("name", "Sample").containsEntry("id", 1L);
+    }
+
+    @Test
+    void scrollProductsShouldRejectCursorFromDifferentSort() {
+        String cursor = ProductCursorMapper.toCursor(ScrollPosition.forward(Map.of("price", new BigDecimal("1"), "id", 1L)));
+
+        assertThatThrownBy(() -> productService.scrollProducts(cursor, 10, List.of("name"), null, null))
+                .isInstanceOf(InvalidCursorException.class);
+
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void scrollProductsShouldRejectSortOnNullableColumn() {
+        assertThatThrownBy(() -> productService.scrollProducts("", 10, List.of("description"), null, null))
+                .isInstanceOf(InvalidCursorException.class);
+
+        verifyNoInteractions(productRepository);
+    }
+
     @Test
     void getProductShouldReturnExisting() {
         when(productRepository.findById(1L)).thenReturn(Optional.of(sampleProduct));
@@ -212,6 +428,40 @@ class ProductServiceTest {
         verifyNoMoreInteractions(productRepository);
     }
 
+    @Test
+    void conditionalUpdateShouldIssueSingleUpdateWithoutSelect() {
+        ProductUpdateRequest request =
+                new ProductUpdateRequest("Updated", "NewCat", new BigDecimal("30"), "NewDesc");
+
+        when(productRepository.updateIfVersionMatches(1L, 3L, "Updated", "NewCat", new BigDecimal("30"), "NewDesc"))
+                .thenReturn(1);
+
+        Product updated = productService.updateProduct(1L, request, 3L);
+
+        assertThat(updated.getId()).isEqualTo(1L);
+        assertThat(updated.getVersion()).isEqualTo(4L);
+        assertThat(updated.getName()).isEqualTo("Updated");
+        verify(productRepository).updateIfVersionMatches(1L, 3L, "Updated", "NewCat", new BigDecimal("30"), "NewDesc");
+        verify(productSearchIndex).index(updated);
+        verifyNoMoreInteractions(productRepository);
+    }
+
+    @Test
+    void conditionalUpdateShouldDistinguishStaleVersionFromMissingProduct() {
+        ProductUpdateRequest request =
+                new ProductUpdateRequest("Updated", "Cat", new BigDecimal("30"), "Desc");
+
+        when(productRepository.updateIfVersionMatches(anyLong(), anyLong(), any(), any(), any(), any())).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(true);
+        when(productRepository.existsById(2L)).thenReturn(false);
+
+        assertThatThrownBy(() -> productService.updateProduct(1L, request, 3L))
+                .isInstanceOf(ProductVersionConflictException.class);
+        assertThatThrownBy(() -> productService.updateProduct(2L, request, 3L))
+                .isInstanceOf(ProductNotFoundException.class);
+        verify(productSearchIndex, never()).index(any());
+    }
+
     @Test
     void deleteShouldAlwaysDelegateToRepository() {
         productService.deleteProduct(1L);
@@ -0,0 +1,180 @@
+package com.example.db.product.domain;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Captures the SQL behind each ProductRepository query, with the sorts the API actually sends, and fails if H2's
+// EXPLAIN for it falls back to a full table scan. Counts over a LIKE '%term%' filter are the one accepted scan:
+// no B-tree index can answer them, which is why listings cache totals and offer slices.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.db.product.domain.ProductRepositoryQueryPlanTest$RecordingStatementInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductRepositoryQueryPlanTest {
+
+    private static final List<Sort> API_SORTS = List.of(
+            Sort.by("name"),
+            Sort.by("price"),
+            Sort.by("id"),
+            Sort.by("category", "name"));
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Enough rows that an index lookup is clearly cheaper than a scan; rolled back after each test.
+        jdbcTemplate.execute("""
+                INSERT INTO products (name, category, price, description)
+                SELECT 'Plan product ' || X, 'Plan category ' || MOD(X, 20), MOD(X, 500) + 0.99, NULL
+                FROM SYSTEM_RANGE(1, 5000)
+                """);
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void pagesAndSlicesShouldReadInIndexOrder() {
+        for (Sort sort : API_SORTS) {
+            PageRequest page = PageRequest.of(1, 20, sort);
+            assertNoFullScan(sort + " page", () -> productRepository.findAll(page));
+            assertNoFullScan(sort + " slice", () -> productRepository.findSliceBy(page));
+        }
+    }
+
+    @Test
+    void filteredSlicesShouldReadInIndexOrder() {
+        for (Sort sort : API_SORTS) {
+            PageRequest page = PageRequest.of(0, 20, sort);
+            assertNoFullScan(sort + " name filter", () ->
+                    productRepository.findSliceByNameContainingIgnoreCase("product 1", page));
+            assertNoFullScan(sort + " category filter", () ->
+                    productRepository.findSliceByCategoryContainingIgnoreCase("category 1", page));
+            assertNoFullScan(sort + " both filters", () -> productRepository
+                    .findSliceByNameContainingIgnoreCaseAndCategoryContainingIgnoreCase("product 1", "category 1", page));
+        }
+    }
+
+    @Test
+    void filteredPagesShouldOnlyScanForTheirCount() {
+        PageRequest page = PageRequest.of(0, 20, Sort.by("name"));
+
+        assertNoFullScan("name filter page", () -> productRepository.findByNameContainingIgnoreCase("product 1", page));
+        assertNoFullScan("category filter page", () ->
+                productRepository.findByCategoryContainingIgnoreCase("category 1", page));
+        assertNoFullScan("both filters page", () -> productRepository
+                .findByNameContainingIgnoreCaseAndCategoryContainingIgnoreCase("product 1", "category 1", page));
+    }
+
+    @Test
+    void cursorPagesShouldReadInIndexOrder() {
+        for (Sort sort : API_SORTS) {
+            Window<Product> first = productRepository.findBy(ScrollPosition.keyset(), Limit.of(20), sort);
+            ScrollPosition next = first.positionAt(first.size() - 1);
+
+            assertNoFullScan(sort + " cursor", () -> productRepository.findBy(next, Limit.of(20), sort));
+            assertNoFullScan(sort + " filtered cursor", () ->
+                    productRepository.findByNameContainingIgnoreCase("product", next, Limit.of(20), sort));
+        }
+    }
+
+    @Test
+    void lookupsByIdShouldUseThePrimaryKey() {
+        // Read with JDBC, so findById below is not answered from the persistence context.
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM products ORDER BY id LIMIT 10", Long.class);
+        Long id = ids.get(0);
+
+        assertNoFullScan("find by id", () -> productRepository.findById(id));
+        assertNoFullScan("find all by id", () -> productRepository.findAllById(ids));
+        assertNoFullScan("existing ids", () -> productRepository.findExistingIds(ids));
+        assertNoFullScan("page by ids", () -> productRepository.findByIdIn(ids, PageRequest.of(0, 5, Sort.by("name"))));
+        assertNoFullScan("cursor by ids", () ->
+                productRepository.findByIdIn(ids, ScrollPosition.keyset(), Limit.of(5), Sort.by("price")));
+        assertNoFullScan("conditional update", () -> productRepository.updateIfVersionMatches(
+                id, 0, "Plan product", "Plan category", BigDecimal.ONE, null));
+    }
+
+    @Test
+    void exportShouldStreamInPrimaryKeyOrder() {
+        assertNoFullScan("export", () -> {
+            try (Stream<Product> products = productRepository.streamAllByOrderById()) {
+                products.limit(10).forEach(product -> { });
+            }
+        });
+    }
+
+    private void assertNoFullScan(String scenario, Runnable query) {
+        RecordingStatementInspector.STATEMENTS.clear();
+        query.run();
+
+        List<String> statements = new ArrayList<>(RecordingStatementInspector.STATEMENTS);
+        assertThat(statements).as(scenario).isNotEmpty();
+        for (String sql : statements) {
+            if (isCountOverLike(sql)) {
+                continue;
+            }
+            String plan = explain(sql);
+            assertThat(plan)
+                    .as("%s should not scan the products table:%n%s", scenario, plan)
+                    .satisfiesAnyOf(
+                            p -> assertThat(p).doesNotContain(".tableScan"),
+                            // COUNT over the whole table is read from the row count, not by scanning.
+                            p -> assertThat(p).contains("direct lookup"));
+        }
+    }
+
+    // Parameters are bound as NULL: H2 picks the plan when the statement is prepared, before any value is known.
+    private String explain(String sql) {
+        return jdbcTemplate.query("EXPLAIN " + sql, (PreparedStatement ps) -> {
+            int parameters = ps.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                ps.setObject(i, null);
+            }
+        }, rs -> {
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+            return plan.toString();
+        });
+    }
+
+    private static boolean isCountOverLike(String sql) {
+        String lower = sql.toLowerCase(Locale.ROOT);
+        return lower.startsWith("select count(") && lower.contains(" like ");
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.toLowerCase(Locale.ROOT).contains("products")) {
+                STATEMENTS.add(sql.replaceAll("\\s+", " ").trim());
+            }
+            return sql;
+        }
+    }
+}
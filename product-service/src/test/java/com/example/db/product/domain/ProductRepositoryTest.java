@@ -0,0 +1,107 @@
+package com.example.db.product.domain;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductRepositoryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void scrollingByKeysetShouldVisitEveryProductOnceInSortOrder() {
+        Sort sort = Sort.by(Sort.Order.desc("price"));
+        List<Long> scrolled = new ArrayList<>();
+
+        ScrollPosition position = ScrollPosition.keyset();
+        Window<Product> window;
+        do {
+            window = productRepository.findBy(position, Limit.of(7), sort);
+            window.forEach(product -> scrolled.add(product.getId()));
+            if (!window.isEmpty()) {
+                position = window.positionAt(window.size() - 1);
+            }
+        } while (window.hasNext());
+
+        List<Long> expected = productRepository
+                .findAll(Sort.by(Sort.Order.desc("price"), Sort.Order.asc("id")))
+                .stream()
+                .map(Product::getId)
+                .toList();
+
+        assertThat(scrolled).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void scrollingWithFilterShouldMatchOffsetPaging() {
+        Sort sort = Sort.by("name");
+
+        Window<Product> first = productRepository
+                .findByCategoryContainingIgnoreCase("electronics", ScrollPosition.keyset(), Limit.of(3), sort);
+        Window<Product> second = productRepository
+                .findByCategoryContainingIgnoreCase("electronics", first.positionAt(first.size() - 1), Limit.of(3), sort);
+
+        List<Long> offsetIds = productRepository
+                .findByCategoryContainingIgnoreCase("electronics", PageRequest.of(1, 3, sort.and(Sort.by("id"))))
+                .map(Product::getId)
+                .toList();
+
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.map(Product::getId).toList()).containsExactlyElementsOf(offsetIds);
+    }
+
+    @Test
+    void sliceFinderShouldDetectNextPageWithoutTotals() {
+        Slice<Product> first = productRepository.findSliceByNameContainingIgnoreCase("coffee", PageRequest.of(0, 1));
+        Slice<Product> second = productRepository.findSliceByNameContainingIgnoreCase("coffee", PageRequest.of(1, 1));
+
+        assertThat(first.getContent()).hasSize(1);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).hasSize(1);
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void updatesShouldBumpVersion() {
+        Product product = productRepository.findAll(Sort.by("id")).getFirst();
+        long before = product.getVersion();
+
+        product.setPrice(product.getPrice().add(BigDecimal.ONE));
+        Product saved = productRepository.saveAndFlush(product);
+
+        assertThat(saved.getVersion()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void conditionalUpdateShouldOnlyApplyToTheExpectedVersion() {
+        Product product = productRepository.findAll(Sort.by("id")).getFirst();
+        long version = product.getVersion();
+
+        int applied = productRepository.updateIfVersionMatches(
+                product.getId(), version, "Renamed", product.getCategory(), product.getPrice(), null);
+        int stale = productRepository.updateIfVersionMatches(
+                product.getId(), version, "Lost update", product.getCategory(), product.getPrice(), null);
+
+        Product reloaded = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(applied).isEqualTo(1);
+        assertThat(stale).isZero();
+        assertThat(reloaded.getName()).isEqualTo("Renamed");
+        assertThat(reloaded.getVersion()).isEqualTo(version + 1);
+    }
+}
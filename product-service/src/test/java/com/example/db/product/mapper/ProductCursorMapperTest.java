@@ -0,0 +1,62 @@
+package com.example.db.product.mapper;
+
+import com.example.db.exceptions.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.math.BigDecimal;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCursorMapperTest {
+
+    @Test
+    void cursorShouldRoundTripTypedKeys() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("price", new BigDecimal("6999.99"));
+        keys.put("name", "Laptop Pro 14");
+        keys.put("id", 1L);
+
+        String cursor = ProductCursorMapper.toCursor(ScrollPosition.forward(keys));
+        KeysetScrollPosition position = ProductCursorMapper.toScrollPosition(cursor);
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+        assertThat(position.scrollsForward()).isTrue();
+        assertThat(position.getKeys()).containsExactlyInAnyOrderEntriesOf(keys);
+    }
+
+    @Test
+    void blankCursorShouldStartFromTheBeginning() {
+        assertThat(ProductCursorMapper.toScrollPosition("").isInitial()).isTrue();
+        assertThat(ProductCursorMapper.toScrollPosition(null).isInitial()).isTrue();
+    }
+
+    @Test
+    void malformedCursorShouldBeRejected() {
+        assertThatThrownBy(() -> ProductCursorMapper.toScrollPosition("not a cursor!"))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void cursorWithUnknownPropertyShouldBeRejected() {
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"description\":\"x\",\"id\":\"1\"}".getBytes());
+
+        assertThatThrownBy(() -> ProductCursorMapper.toScrollPosition(cursor))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void cursorWithUnparsableValueShouldBeRejected() {
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"id\":\"abc\"}".getBytes());
+
+        assertThatThrownBy(() -> ProductCursorMapper.toScrollPosition(cursor))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.db.product.mapper;
+
+import com.example.db.product.domain.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductEtagsTest {
+
+    private static Product product(long id, long version) {
+        Product product = new Product();
+        product.setId(id);
+        product.setVersion(version);
+        return product;
+    }
+
+    @Test
+    void strongEtagShouldFollowVersion() {
+        assertThat(ProductEtags.strong(product(7, 0))).isEqualTo("\"7-0\"");
+        assertThat(ProductEtags.strong(product(7, 1))).isEqualTo("\"7-1\"");
+    }
+
+    @Test
+    void weakEtagShouldChangeWithRowsOrderAndMetadata() {
+        List<Product> page = List.of(product(1, 0), product(2, 0));
+        String etag = ProductEtags.weak(page, 0, 2, 10L);
+
+        assertThat(etag).startsWith("W/\"").endsWith("\"");
+        assertThat(ProductEtags.weak(List.of(product(1, 0), product(2, 0)), 0, 2, 10L)).isEqualTo(etag);
+        assertThat(ProductEtags.weak(List.of(product(1, 0), product(2, 1)), 0, 2, 10L)).isNotEqualTo(etag);
+        assertThat(ProductEtags.weak(List.of(product(2, 0), product(1, 0)), 0, 2, 10L)).isNotEqualTo(etag);
+        assertThat(ProductEtags.weak(page, 0, 2, 11L)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void parseVersionShouldOnlyAcceptStrongEtagsForTheSameId() {
+        assertThat(ProductEtags.parseVersion(ProductEtags.strong(product(7, 3)), 7L)).hasValue(3);
+        assertThat(ProductEtags.parseVersion(" \"7-3\" ", 7L)).hasValue(3);
+        assertThat(ProductEtags.parseVersion("\"7-3\"", 8L)).isEmpty();
+        assertThat(ProductEtags.parseVersion("W/\"7-3\"", 7L)).isEmpty();
+        assertThat(ProductEtags.parseVersion("\"7-\"", 7L)).isEmpty();
+        assertThat(ProductEtags.parseVersion("\"7-x\"", 7L)).isEmpty();
+    }
+}
@@ -1,12 +1,21 @@
 package com.example.db.product.mapper;
 
+import com.example.common.product.dto.CursorPageResponse;
+import com.example.common.product.dto.PageResponse;
 import com.example.db.product.domain.Product;
 import com.example.db.product.dto.ProductCreateRequest;
 import com.example.db.product.dto.ProductResponseDto;
 import com.example.db.product.dto.ProductUpdateRequest;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Window;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -72,4 +81,58 @@ class ProductMapperTest {
         assertThat(dto.price()).isEqualByComparingTo("9.99");
         assertThat(dto.description()).isEqualTo("Description");
     }
+
+    @Test
+    void toDtoCursorPageShouldEncodeLastPositionAsNextCursor() {
+        Product first = new Product();
+        first.setId(1L);
+        first.setName("A");
+        Product second = new Product();
+        second.setId(2L);
+        second.setName("B");
+
+        Window<Product> window = Window.from(
+                List.of(first, second),
+                index -> ScrollPosition.forward(Map.of("name", index == 0 ? "A" : "B", "id", index + 1L)),
+                true
+        );
+
+        CursorPageResponse<ProductResponseDto> page = ProductMapper.toDtoCursorPage(window);
+
+        assertThat(page.content()).extracting(ProductResponseDto::id).containsExactly(1L, 2L);
+        assertThat(page.pageSize()).isEqualTo(2);
+        assertThat(page.last()).isFalse();
+
+        KeysetScrollPosition next = ProductCursorMapper.toScrollPosition(page.nextCursor());
+        assertThat(next.getKeys()).containsEntry("name", "B").containsEntry("id", 2L);
+    }
+
+    @Test
+    void toDtoCursorPageShouldOmitCursorOnLastWindow() {
+        Window<Product> window = Window.from(List.of(), ScrollPosition::offset, false);
+
+        CursorPageResponse<ProductResponseDto> page = ProductMapper.toDtoCursorPage(window);
+
+        assertThat(page.content()).isEmpty();
+        assertThat(page.nextCursor()).isNull();
+        assertThat(page.last()).isTrue();
+    }
+
+    @Test
+    void toDtoSlicePageShouldLeaveTotalsEmpty() {
+        Product entity = new Product();
+        entity.setId(3L);
+
+        PageResponse<ProductResponseDto> page = ProductMapper.toDtoSlicePage(
+                new SliceImpl<>(List.of(entity), PageRequest.of(4, 1), true)
+        );
+
+        assertThat(page.content()).extracting(ProductResponseDto::id).containsExactly(3L);
+        assertThat(page.pageNumber()).isEqualTo(4);
+        assertThat(page.pageSize()).isEqualTo(1);
+        assertThat(page.totalElements()).isNull();
+        assertThat(page.totalPages()).isNull();
+        assertThat(page.hasNext()).isTrue();
+        assertThat(page.last()).isFalse();
+    }
 }
@@ -0,0 +1,154 @@
+package com.example.db.product.search;
+
+import com.example.db.product.domain.Product;
+import com.example.db.product.domain.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProductSearchIndex.class)
+class ProductSearchIndexTest {
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldNotAnswerBeforeRebuild() {
+        ProductSearchIndex fresh = new ProductSearchIndex(jdbcTemplate, true, 5_000, 1);
+
+        assertThat(fresh.isReady()).isFalse();
+        assertThat(fresh.search("desk", null)).isEmpty();
+    }
+
+    @Test
+    void shouldFallBackWhenMatchesExceedLimit() {
+        ProductSearchIndex narrow = new ProductSearchIndex(jdbcTemplate, true, 2, 1);
+        narrow.rebuild();
+
+        assertThat(narrow.search(null, "electronics")).isEmpty();
+        assertThat(narrow.search("laptop", null)).isPresent();
+    }
+
+    @Test
+    void rebuiltIndexShouldMatchLikeQueries() {
+        productSearchIndex.rebuild();
+
+        assertThat(productSearchIndex.search("DESK", null)).hasValue(idsOf(
+                productRepository.findByNameContainingIgnoreCase("DESK", Pageable.unpaged()).getContent()));
+        assertThat(productSearchIndex.search(null, "ectron")).hasValue(idsOf(
+                productRepository.findByCategoryContainingIgnoreCase("ectron", Pageable.unpaged()).getContent()));
+        assertThat(productSearchIndex.search("organic", "grocery")).hasValue(idsOf(
+                productRepository.findByNameContainingIgnoreCaseAndCategoryContainingIgnoreCase(
+                        "organic", "grocery", Pageable.unpaged()).getContent()));
+    }
+
+    @Test
+    void shouldFallBackForShortTerms() {
+        productSearchIndex.rebuild();
+
+        assertThat(productSearchIndex.search("tv", null)).isEmpty();
+        assertThat(productSearchIndex.search("desk", "fu")).isEmpty();
+    }
+
+    @Test
+    void shouldFollowSavesAndDeletes() {
+        productSearchIndex.rebuild();
+
+        Product product = new Product();
+        product.setName("Velvet Ottoman");
+        product.setCategory("Furniture");
+        product.setPrice(new BigDecimal("10.00"));
+        Product saved = productRepository.save(product);
+        productSearchIndex.index(saved);
+
+        assertThat(productSearchIndex.search("ottoman", null)).hasValue(List.of(saved.getId()));
+
+        productSearchIndex.remove(saved.getId());
+
+        assertThat(productSearchIndex.search("ottoman", null)).hasValue(List.of());
+    }
+
+    @Test
+    void shouldStayOffWhenSeveralInstancesShareTheDatabase() {
+        ProductSearchIndex shared = new ProductSearchIndex(jdbcTemplate, true, 5_000, 3);
+        shared.rebuild();
+
+        assertThat(shared.isReady()).isFalse();
+        assertThat(shared.search("desk", null)).isEmpty();
+    }
+
+    @Test
+    void writeDuringRebuildShouldNotBeOverwrittenByTheRowsItRead() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        AtomicLong firstId = new AtomicLong();
+        // Pauses the rebuild on its first row, before that row is put into the index.
+        JdbcTemplate pausing = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public void query(String sql, RowCallbackHandler rch) {
+                super.query(sql, (RowCallbackHandler) rs -> {
+                    if (reading.getCount() > 0) {
+                        firstId.set(rs.getLong("id"));
+                        reading.countDown();
+                        await(proceed);
+                    }
+                    rch.processRow(rs);
+                });
+            }
+        };
+        ProductSearchIndex index = new ProductSearchIndex(pausing, true, 5_000, 1);
+
+        Thread rebuild = new Thread(index::rebuild);
+        rebuild.start();
+        await(reading);
+
+        Product renamed = new Product();
+        renamed.setId(firstId.get());
+        renamed.setName("Velvet Ottoman");
+        renamed.setCategory("Furniture");
+        Thread write = new Thread(() -> index.index(renamed));
+        write.start();
+        while (write.getState() != Thread.State.WAITING && write.getState() != Thread.State.TERMINATED) {
+            Thread.onSpinWait();
+        }
+        proceed.countDown();
+        rebuild.join(5_000);
+        write.join(5_000);
+
+        assertThat(index.search("ottoman", null)).hasValue(List.of(firstId.get()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<Long> idsOf(List<Product> products) {
+        return products.stream().map(Product::getId).sorted().toList();
+    }
+}
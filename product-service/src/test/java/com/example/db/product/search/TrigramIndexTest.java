@@ -0,0 +1,53 @@
+package com.example.db.product.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+    @Test
+    void shouldMatchCaseInsensitiveSubstringsOnly() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Office Chair");
+        index.put(2, "Chaise longue");
+        index.put(3, "Armchair");
+
+        assertThat(index.search("CHAIR")).containsExactly(1, 3);
+        assertThat(index.search("hai")).containsExactly(1, 2, 3);
+        assertThat(index.search("chaise")).containsExactly(2);
+        assertThat(index.search("table")).isEmpty();
+    }
+
+    @Test
+    void shouldReturnNullForTermsShorterThanTrigram() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "TV");
+
+        assertThat(index.search("tv")).isNull();
+    }
+
+    @Test
+    void shouldDropStaleGramsOnReplaceAndRemove() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(5, "Desk Lamp");
+        index.put(4, "Desk Organizer");
+
+        index.put(5, "Floor Lamp");
+        assertThat(index.search("desk")).containsExactly(4);
+        assertThat(index.search("lamp")).containsExactly(5);
+
+        index.remove(4);
+        assertThat(index.search("desk")).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRequireGramsInOrderNotJustPresence() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "abcxbcd");
+
+        assertThat(index.search("abcd")).isEmpty();
+        assertThat(index.search("bcd")).containsExactly(1);
+    }
+}
@@ -1,8 +1,16 @@
 package com.example.db.product.web;
 
+import com.example.common.product.dto.BatchItemResult;
+import com.example.common.product.dto.BatchResponse;
+import com.example.db.exceptions.BatchSizeExceededException;
+import com.example.db.exceptions.GlobalExceptionHandler;
+import com.example.db.product.application.ProductBatchService;
+import com.example.db.product.application.ProductExportService;
+import com.example.db.product.application.ProductPage;
 import com.example.db.product.application.ProductService;
 import com.example.db.product.domain.Product;
 import com.example.db.product.dto.ProductCreateRequest;
+import com.example.db.product.dto.ProductResponseDto;
 import com.example.db.product.dto.ProductUpdateRequest;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,15 +20,27 @@ import org.mockito.Mockito;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -30,15 +50,21 @@ class ProductControllerTest {
 
     private MockMvc mockMvc;
     private ProductService productService;
+    private ProductBatchService productBatchService;
+    private ProductExportService productExportService;
     private ObjectMapper objectMapper;
 
     @BeforeEach
     void setup() {
         productService = Mockito.mock(ProductService.class);
         objectMapper = new ObjectMapper();
-        ProductController controller = new ProductController(productService);
+        productBatchService = Mockito.mock(ProductBatchService.class);
+        productExportService = Mockito.mock(ProductExportService.class);
+        ProductController controller = new ProductController(productService, productBatchService, productExportService);
 
-        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
     }
 
     private Product sample() {
@@ -48,6 +74,7 @@ class ProductControllerTest {
         p.setCategory("Cat");
         p.setPrice(new BigDecimal("10.00"));
         p.setDescription("Desc");
+        p.setVersion(3L);
         return p;
     }
 
@@ -57,7 +84,7 @@ class ProductControllerTest {
         Page<Product> page = new PageImpl<>(List.of(p), PageRequest.of(0, 10), 1);
 
         when(productService.getProducts(eq(0), eq(10), anyList(), isNull(), isNull()))
-                .thenReturn(page);
+                .thenReturn(new ProductPage(page, false));
 
         mockMvc.perform(get("/products")
                         .param("page", "0")
@@ -65,18 +92,37 @@ class ProductControllerTest {
                         .param("sort", "name"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content", hasSize(1)))
-                .andExpect(jsonPath("$.content[0].id").value(1));
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.approximateTotal").value(false));
 
         verify(productService).getProducts(eq(0), eq(10), anyList(), isNull(), isNull());
     }
 
+    @Test
+    void shouldFlagApproximateTotals() throws Exception {
+        Product p = sample();
+        Page<Product> page = new PageImpl<>(List.of(p), PageRequest.of(0, 1), 42);
+
+        when(productService.getProducts(eq(0), eq(1), any(), isNull(), isNull()))
+                .thenReturn(new ProductPage(page, true));
+
+        mockMvc.perform(get("/products")
+                        .param("page", "0")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(42))
+                .andExpect(jsonPath("$.approximateTotal").value(true));
+    }
+
     @Test
     void shouldReturnPagedProductsWithFilters() throws Exception {
         Product p = sample();
         Page<Product> page = new PageImpl<>(List.of(p), PageRequest.of(0, 10), 1);
 
         when(productService.getProducts(eq(0), eq(10), anyList(), eq("chair"), eq("Electronics")))
-                .thenReturn(page);
+                .thenReturn(new ProductPage(page, false));
 
         mockMvc.perform(get("/products")
                         .param("page", "0")
@@ -91,6 +137,69 @@ class ProductControllerTest {
         verify(productService).getProducts(eq(0), eq(10), anyList(), eq("chair"), eq("Electronics"));
     }
 
+    @Test
+    void shouldReturnSliceWithoutTotalsWhenWithTotalFalse() throws Exception {
+        SliceImpl<Product> slice = new SliceImpl<>(List.of(sample()), PageRequest.of(0, 1), true);
+
+        when(productService.getProductSlice(eq(0), eq(1), isNull(), eq("chair"), isNull()))
+                .thenReturn(slice);
+
+        mockMvc.perform(get("/products")
+                        .param("size", "1")
+                        .param("name", "chair")
+                        .param("withTotal", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.totalElements").value(nullValue()))
+                .andExpect(jsonPath("$.totalPages").value(nullValue()))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.last").value(false));
+
+        verify(productService).getProductSlice(eq(0), eq(1), isNull(), eq("chair"), isNull());
+        verify(productService, never()).getProducts(anyInt(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void shouldReturnCursorPageWhenAfterParamPresent() throws Exception {
+        Product p = sample();
+        Window<Product> window = Window.from(
+                List.of(p),
+                index -> ScrollPosition.forward(Map.of("name", "Sample", "id", 1L)),
+                true
+        );
+
+        when(productService.scrollProducts(eq(""), eq(1), anyList(), isNull(), isNull()))
+                .thenReturn(window);
+
+        mockMvc.perform(get("/products")
+                        .param("after", "")
+                        .param("size", "1")
+                        .param("sort", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.pageSize").value(1))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andExpect(jsonPath("$.last").value(false));
+
+        verify(productService).scrollProducts(eq(""), eq(1), anyList(), isNull(), isNull());
+    }
+
+    @Test
+    void shouldReturnLastCursorPageWithoutNextCursor() throws Exception {
+        Window<Product> window = Window.from(List.of(sample()), ScrollPosition::offset, false);
+
+        when(productService.scrollProducts(eq("abc"), eq(10), isNull(), eq("chair"), isNull()))
+                .thenReturn(window);
+
+        mockMvc.perform(get("/products")
+                        .param("after", "abc")
+                        .param("name", "chair"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()))
+                .andExpect(jsonPath("$.last").value(true));
+    }
+
     @Test
     void shouldReturnSingleProduct() throws Exception {
         Product p = sample();
@@ -98,11 +207,42 @@ class ProductControllerTest {
 
         mockMvc.perform(get("/products/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""))
                 .andExpect(jsonPath("$.id").value(1));
 
         verify(productService).getProduct(1L);
     }
 
+    @Test
+    void shouldAnswer304WhenProductEtagMatches() throws Exception {
+        when(productService.getProduct(1L)).thenReturn(sample());
+
+        mockMvc.perform(get("/products/1").header("If-None-Match", "\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void shouldUseWeakEtagForPagesThatChangesWithVersions() throws Exception {
+        Product p = sample();
+        when(productService.getProducts(eq(0), eq(10), any(), isNull(), isNull()))
+                .thenAnswer(inv -> new ProductPage(new PageImpl<>(List.of(p), PageRequest.of(0, 10), 1), false));
+
+        String etag = mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).startsWith("W/\"");
+
+        mockMvc.perform(get("/products").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        p.setVersion(4L);
+
+        mockMvc.perform(get("/products").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+    }
+
     @Test
     void shouldCreateProduct() throws Exception {
         ProductCreateRequest request = new ProductCreateRequest(
@@ -171,6 +311,104 @@ class ProductControllerTest {
         org.junit.jupiter.api.Assertions.assertEquals("Desc", sent.description());
     }
 
+    @Test
+    void updateWithIfMatchShouldUseConditionalUpdate() throws Exception {
+        ProductUpdateRequest request = new ProductUpdateRequest("Updated", "Cat", new BigDecimal("30"), "Desc");
+        Product updated = sample();
+        updated.setVersion(4L);
+
+        when(productService.updateProduct(eq(1L), any(ProductUpdateRequest.class), eq(3L))).thenReturn(updated);
+
+        mockMvc.perform(put("/products/1")
+                        .header(HttpHeaders.IF_MATCH, "\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-4\""));
+
+        verify(productService, never()).updateProduct(eq(1L), any(ProductUpdateRequest.class));
+    }
+
+    @Test
+    void updateWithForeignOrWeakEtagShouldFailPrecondition() throws Exception {
+        ProductUpdateRequest request = new ProductUpdateRequest("Updated", "Cat", new BigDecimal("30"), "Desc");
+
+        for (String etag : List.of("\"2-3\"", "W/\"1-3\"", "\"abc\"")) {
+            mockMvc.perform(put("/products/1")
+                            .header(HttpHeaders.IF_MATCH, etag)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isPreconditionFailed());
+        }
+
+        verify(productService, never()).updateProduct(anyLong(), any(ProductUpdateRequest.class), anyLong());
+    }
+
+    @Test
+    void batchCreateShouldReturnPerItemResults() throws Exception {
+        List<ProductCreateRequest> requests = List.of(
+                new ProductCreateRequest("A", "Cat", new BigDecimal("1"), null),
+                new ProductCreateRequest("", "Cat", new BigDecimal("1"), null));
+        BatchResponse<ProductResponseDto> response = BatchResponse.of(List.of(
+                new BatchItemResult<>(0, 51L, 201, null, new ProductResponseDto(51L, "A", "Cat", BigDecimal.ONE, null)),
+                new BatchItemResult<>(1, null, 400, "name must not be blank", null)));
+        when(productBatchService.createProducts(anyList())).thenReturn(response);
+
+        mockMvc.perform(post("/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].id").value(51))
+                .andExpect(jsonPath("$.results[1].status").value(400));
+
+        verify(productBatchService).createProducts(requests);
+    }
+
+    @Test
+    void batchDeleteShouldTakeIdsFromBodyAndRejectOversizedBatches() throws Exception {
+        when(productBatchService.deleteProducts(List.of(1L, 2L))).thenThrow(new BatchSizeExceededException(2, 1));
+
+        mockMvc.perform(delete("/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isBadRequest());
+
+        verify(productService, never()).deleteProduct(anyLong());
+    }
+
+    @Test
+    void multiGetShouldReturnFoundProductsWithTheirEtags() throws Exception {
+        when(productBatchService.getProducts(List.of(1L, 99L))).thenReturn(List.of(sample()));
+
+        mockMvc.perform(get("/products").param("ids", "1,99"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].etag").value("\"1-3\""))
+                .andExpect(jsonPath("$[0].item.name").value("Sample"));
+
+        verify(productService, never()).getProducts(anyInt(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void exportShouldStreamNdjson() throws Exception {
+        when(productExportService.exportNdjson(any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/products/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
     @Test
     void shouldDeleteProduct() throws Exception {
         mockMvc.perform(delete("/products/1"))